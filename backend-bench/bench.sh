@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Runs the JMH benchmarks and keeps the results as JSON, one file per run.
+#
+#   bench.sh                      # everything
+#   bench.sh Jwt -p cache=hit     # any JMH arguments: a benchmark regexp, -p, -f, -prof gc, ...
+#   bench.sh compare A.json B.json
+#
+# Results go to backend-bench/results/<UTC timestamp>-<git commit>.json (RESULTS overrides the
+# directory); compare prints each benchmark's score in both and the change.
+#
+# Environment (all optional):
+#   JAVA        JVM that runs the benchmarks (default: java)
+#   NOBUILD=1   reuse target/benchmarks.jar
+set -euo pipefail
+HERE=$(cd "$(dirname "$0")" && pwd)
+
+JAVA=${JAVA:-java}
+RESULTS=${RESULTS:-$HERE/results}
+JAR=$HERE/target/benchmarks.jar
+
+[ -n "${NOBUILD:-}" ] || (cd "$HERE/.." && mvn -B -q -DskipTests -pl backend-bench -am package)
+
+if [ "${1:-}" = compare ]; then
+  shift
+  exec "$JAVA" -cp "$JAR" app.rigsheet.bench.CompareResults "$@"
+fi
+
+mkdir -p "$RESULTS"
+OUT="$RESULTS/$(date -u +%Y%m%dT%H%M%SZ)-$(git -C "$HERE" rev-parse --short HEAD 2>/dev/null || echo local).json"
+"$JAVA" -jar "$JAR" -rf json -rff "$OUT" "$@"
+echo "Results: $OUT"
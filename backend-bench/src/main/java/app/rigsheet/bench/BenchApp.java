@@ -0,0 +1,108 @@
+package app.rigsheet.bench;
+
+import app.rigsheet.RigsheetApplication;
+import app.rigsheet.model.Modification;
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.model.VehicleBuildSummary;
+import app.rigsheet.model.VehicleInfo;
+import app.rigsheet.repository.ModificationRepository;
+import app.rigsheet.repository.UserProfileRepository;
+import app.rigsheet.repository.VehicleBuildSummaryRepository;
+import app.rigsheet.repository.VehicleInfoRepository;
+import app.rigsheet.service.BuildSummaryService;
+import app.rigsheet.service.LeaderboardService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The whole backend, booted in this JVM on the dev + bench profiles (embedded H2,
+ * see application-bench.yml, Tomcat on a free port), and a seeded dataset.
+ */
+final class BenchApp implements AutoCloseable {
+
+    /** Every seeded user's password. */
+    static final String PASSWORD = "bench-password";
+
+    /** One seeded user with their vehicle and its mods. */
+    record Rig(long userId, String username, long vehicleId, List<Long> modIds) {}
+
+    private final ConfigurableApplicationContext context;
+    private final List<Rig> rigs = new ArrayList<>();
+
+    private BenchApp(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /** @param args extra application arguments, e.g. {@code --rigsheet.threads.virtual=true} */
+    static BenchApp start(String... args) {
+        String[] all = Stream.concat(Stream.of("--spring.profiles.active=dev,bench"), Stream.of(args))
+                .toArray(String[]::new);
+        return new BenchApp(SpringApplication.run(RigsheetApplication.class, all));
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int port() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    List<Rig> rigs() {
+        return rigs;
+    }
+
+    /**
+     * {@code users} users (password {@link #PASSWORD}), one vehicle each with
+     * {@code modsPerVehicle} mods. Rows go straight through the repositories; build
+     * rollups are then reconciled from them and the leaderboards rebuilt, so the
+     * data looks as if it had been written through the API.
+     */
+    BenchApp seed(int users, int modsPerVehicle) {
+        UserProfileRepository userRepo = bean(UserProfileRepository.class);
+        VehicleInfoRepository vehicleRepo = bean(VehicleInfoRepository.class);
+        ModificationRepository modRepo = bean(ModificationRepository.class);
+        String passwordHash = bean(PasswordEncoder.class).encode(PASSWORD);
+
+        List<VehicleBuildSummary> summaries = new ArrayList<>();
+        for (int u = 1; u <= users; u++) {
+            UserProfile profile = BenchData.profile(u);
+            profile.setId(null);
+            profile.setVersion(null);
+            profile.setPasswordHash(passwordHash);
+            profile = userRepo.save(profile);
+
+            VehicleInfo vehicle = BenchData.vehicle(u, profile);
+            vehicle.setId(null);
+            vehicle.setVersion(null);
+            vehicle = vehicleRepo.save(vehicle);
+
+            List<Modification> batch = new ArrayList<>(modsPerVehicle);
+            for (int m = 0; m < modsPerVehicle; m++) {
+                Modification mod = BenchData.mod((long) u * modsPerVehicle + m, vehicle);
+                mod.setId(null);
+                mod.setVersion(null);
+                batch.add(mod);
+            }
+            List<Long> modIds = modRepo.saveAll(batch).stream().map(Modification::getId).toList();
+            rigs.add(new Rig(profile.getId(), profile.getUsername(), vehicle.getId(), modIds));
+            summaries.add(VehicleBuildSummary.empty(vehicle.getId()));
+        }
+        // Rows up front: the rollup write path creates missing ones with Postgres-only SQL
+        bean(VehicleBuildSummaryRepository.class).saveAll(summaries);
+        bean(BuildSummaryService.class).reconcile();
+        bean(LeaderboardService.class).rebuild();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,83 @@
+package app.rigsheet.bench;
+
+import app.rigsheet.model.Modification;
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.model.VehicleInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Shared fixtures: a realistic-looking user, rig and mod list. */
+final class BenchData {
+
+    static final String USERNAME = "trailrunner";
+    static final String ROLES = "ROLE_USER";
+    static final long TOKEN_TTL_MILLIS = 15 * 60 * 1000L;
+
+    private static final String[] CATEGORIES = {"Suspension", "Armor", "Lighting", "Recovery", "Storage", "Tires"};
+    private static final String[] BRANDS = {"ARB", "Old Man Emu", "Baja Designs", "Warn", "Front Runner", "BFGoodrich"};
+
+    private BenchData() {
+    }
+
+    static UserProfile profile(long id) {
+        return UserProfile.builder()
+                .id(id)
+                .username(USERNAME + id)
+                .displayName("Trail Runner " + id)
+                .bio("Weekend overlander documenting a slow, budget-friendly build. Mostly forest roads and desert tracks.")
+                .profileImageUrl("https://img.example.com/profiles/" + id + ".jpg")
+                .location("Moab, UT")
+                .roles(ROLES)
+                .version(1L)
+                .build();
+    }
+
+    static VehicleInfo vehicle(long id, UserProfile owner) {
+        return VehicleInfo.builder()
+                .id(id)
+                .vehicleYear("2019")
+                .make("Toyota")
+                .model("4Runner")
+                .trim("TRD Off-Road")
+                .color("Army Green")
+                .nickname("Rig " + id)
+                .imageUrl("https://img.example.com/vehicles/" + id + ".jpg")
+                .userProfile(owner)
+                .version(1L)
+                .build();
+    }
+
+    static Modification mod(long id, VehicleInfo vehicle) {
+        int i = (int) (id % CATEGORIES.length);
+        return Modification.builder()
+                .id(id)
+                .name(BRANDS[i] + " part #" + id)
+                .category(CATEGORIES[i])
+                .brand(BRANDS[i])
+                .sponsored(id % 3 == 0)
+                .reviewUrl(id % 3 == 0 ? "https://reviews.example.com/mods/" + id : null)
+                .cost(49.99 + (id * 37) % 1500)
+                .weight(2.5 + (id * 11) % 120)
+                .imageUrl("https://img.example.com/mods/" + id + ".jpg")
+                .userId(vehicle == null ? null : vehicle.getUserProfile().getId())
+                .userProfile(vehicle == null ? null : vehicle.getUserProfile())
+                .vehicleInfo(vehicle)
+                .version(1L)
+                .build();
+    }
+
+    /** {@code count} mods spread over vehicles of {@code modsPerVehicle}, each with its own owner. */
+    static List<Modification> mods(int count, int modsPerVehicle) {
+        List<Modification> mods = new ArrayList<>(count);
+        VehicleInfo vehicle = null;
+        for (int i = 0; i < count; i++) {
+            if (i % modsPerVehicle == 0) {
+                long owner = i / modsPerVehicle + 1;
+                vehicle = vehicle(owner, profile(owner));
+            }
+            mods.add(mod(i + 1, vehicle));
+        }
+        return mods;
+    }
+}
@@ -0,0 +1,67 @@
+package app.rigsheet.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Side-by-side of two JMH JSON result files (see bench.sh): the score of every
+ * benchmark/parameter combination in both, and the change from the first to the second.
+ *
+ * Usage: {@code java -cp target/benchmarks.jar app.rigsheet.bench.CompareResults before.json after.json}
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: CompareResults <before.json> <after.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> before = read(args[0]);
+        Map<String, JsonNode> after = read(args[1]);
+
+        System.out.printf("%-70s %14s %14s %9s%n", "benchmark", "before", "after", "change");
+        after.forEach((key, now) -> {
+            JsonNode was = before.get(key);
+            double score = now.path("score").asDouble();
+            String unit = now.path("scoreUnit").asText();
+            if (was == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  %s%n", key, "-", score, "new", unit);
+                return;
+            }
+            double old = was.path("score").asDouble();
+            double error = now.path("scoreError").asDouble(Double.NaN); // NaN with a single iteration
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n", key, old, score,
+                    old == 0 ? 0 : (score - old) / old * 100, unit,
+                    Double.isNaN(error) ? "" : String.format(" (+/- %.3f)", error));
+        });
+        before.keySet().stream()
+                .filter(key -> !after.containsKey(key))
+                .forEach(key -> System.out.printf("%-70s %14.3f %14s %9s%n", key,
+                        before.get(key).path("score").asDouble(), "-", "gone"));
+    }
+
+    /** Primary metric per "Benchmark.method(param=value,...)". */
+    private static Map<String, JsonNode> read(String path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(new File(path))) {
+            String name = run.path("benchmark").asText().replaceFirst("^app\\.rigsheet\\.bench\\.", "");
+            StringBuilder key = new StringBuilder(name);
+            JsonNode params = run.path("params");
+            if (params.size() > 0) {
+                key.append('(');
+                for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> p = it.next();
+                    key.append(p.getKey()).append('=').append(p.getValue().asText()).append(it.hasNext() ? "," : ")");
+                }
+            }
+            results.put(key.toString(), run.path("primaryMetric"));
+        }
+        return results;
+    }
+}
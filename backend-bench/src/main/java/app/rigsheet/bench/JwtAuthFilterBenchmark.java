@@ -0,0 +1,80 @@
+package app.rigsheet.bench;
+
+import app.rigsheet.security.AuthTokenCache;
+import app.rigsheet.security.JwtAuthFilter;
+import app.rigsheet.security.JwtUtil;
+import app.rigsheet.security.RevokedTokenRegistry;
+import app.rigsheet.security.TokenVersionTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One request through {@link JwtAuthFilter}, from reading the Authorization header
+ * to the Authentication in the SecurityContext.
+ *
+ * <ul>
+ *   <li>{@code cache=hit}: a token seen before, served from {@link AuthTokenCache}</li>
+ *   <li>{@code cache=miss}: caching off, so every pass verifies the signature</li>
+ *   <li>{@code cache=none}: no Authorization header (public reads)</li>
+ * </ul>
+ *
+ * Nobody is revoked, so neither the version table nor the Bloom filter falls
+ * through to its repository and both run without a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"hit", "miss", "none"})
+    public String cache;
+
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuthTokenCache tokenCache = new AuthTokenCache(cache.equals("miss") ? 0 : 10_000, registry);
+        filter = new JwtAuthFilter(jwtUtil, tokenCache, new TokenVersionTable(null),
+                new RevokedTokenRegistry(null, 100_000, 0.01), registry);
+
+        request = new MockHttpServletRequest("GET", "/api/mods/1");
+        if (!cache.equals("none")) {
+            String token = jwtUtil.generateToken(BenchData.USERNAME, BenchData.ROLES, 0, BenchData.TOKEN_TTL_MILLIS);
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        // OncePerRequestFilter marks the request as filtered; a fresh chain and attribute reset keep each pass whole
+        request.clearAttributes();
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,145 @@
+package app.rigsheet.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What one {@link LoadTest} run measured, as written to (and read back from) its
+ * JSON file. Latencies are in milliseconds, throughput in 2xx responses a second.
+ */
+record LoadReport(Instant startedAt,
+                  double rate,
+                  long warmupSeconds,
+                  long durationSeconds,
+                  Map<String, Integer> mix,
+                  List<EndpointStats> endpoints,
+                  EndpointStats total) {
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    /** One endpoint's (or all endpoints', for {@code total}) requests sent in the measured window. */
+    record EndpointStats(String endpoint,
+                         long requests,
+                         long errors,
+                         double throughput,
+                         double p50Ms,
+                         double p90Ms,
+                         double p99Ms,
+                         double p999Ms,
+                         double maxMs,
+                         Map<String, Long> statuses) {
+
+        /** @param latencies in microseconds */
+        static EndpointStats of(String endpoint, long requests, long errors, double throughput,
+                                Histogram latencies, Map<String, Long> statuses) {
+            return new EndpointStats(endpoint, requests, errors, throughput,
+                    ms(latencies, 50), ms(latencies, 90), ms(latencies, 99), ms(latencies, 99.9),
+                    latencies.getMaxValue() / 1000.0, statuses);
+        }
+
+        double errorRate() {
+            return requests == 0 ? 0 : errors / (double) requests;
+        }
+
+        private static double ms(Histogram latencies, double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    static LoadReport read(Path path) throws IOException {
+        return JSON.readValue(path.toFile(), LoadReport.class);
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        JSON.writeValue(path.toFile(), this);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-45s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "2xx/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointStats e : endpoints) {
+            print(out, e);
+        }
+        print(out, total);
+    }
+
+    private static void print(PrintStream out, EndpointStats e) {
+        out.printf("%-45s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n", e.endpoint(), e.requests(), e.errors(),
+                e.throughput(), e.p50Ms(), e.p90Ms(), e.p99Ms(), e.p999Ms(), e.maxMs(), e.statuses());
+    }
+
+    /**
+     * Why this run should fail, if at all.
+     *
+     * <ul>
+     *   <li>Any endpoint whose error rate is above {@code maxErrorRate}</li>
+     *   <li>Overall throughput below the offered rate by more than {@code throughputTolerance}:
+     *       the app could not keep up</li>
+     *   <li>A baseline (when given) run at another rate or mix: the numbers don't compare</li>
+     *   <li>Against a baseline otherwise, for each endpoint in both: p99 more than
+     *       {@code p99Tolerance} above the baseline's, or throughput more than
+     *       {@code throughputTolerance} below it</li>
+     * </ul>
+     */
+    List<String> check(LoadReport baseline, double p99Tolerance, double throughputTolerance, double maxErrorRate) {
+        List<String> failures = new ArrayList<>();
+        for (EndpointStats e : endpoints) {
+            if (e.errorRate() > maxErrorRate) {
+                failures.add(String.format("%s: error rate %.2f%% > %.2f%% %s",
+                        e.endpoint(), e.errorRate() * 100, maxErrorRate * 100, e.statuses()));
+            }
+        }
+        if (total.throughput() < rate * (1 - throughputTolerance)) {
+            failures.add(String.format("total: %.1f 2xx/s, offered %.1f req/s", total.throughput(), rate));
+        }
+        if (baseline == null) {
+            return failures;
+        }
+        if (baseline.rate() != rate || !baseline.mix().equals(mix)) {
+            failures.add(String.format("baseline ran at %.1f req/s with mix %s; this run at %.1f req/s with %s",
+                    baseline.rate(), baseline.mix(), rate, mix));
+            return failures;
+        }
+        List<EndpointStats> compared = new ArrayList<>(endpoints);
+        compared.add(total);
+        for (EndpointStats e : compared) {
+            EndpointStats base = baseline.find(e.endpoint());
+            if (base == null) {
+                continue;
+            }
+            if (e.p99Ms() > base.p99Ms() * (1 + p99Tolerance)) {
+                failures.add(String.format("%s: p99 %.2f ms, baseline %.2f ms (+%.0f%% allowed)",
+                        e.endpoint(), e.p99Ms(), base.p99Ms(), p99Tolerance * 100));
+            }
+            if (e.throughput() < base.throughput() * (1 - throughputTolerance)) {
+                failures.add(String.format("%s: %.1f 2xx/s, baseline %.1f (-%.0f%% allowed)",
+                        e.endpoint(), e.throughput(), base.throughput(), throughputTolerance * 100));
+            }
+        }
+        return failures;
+    }
+
+    private EndpointStats find(String endpoint) {
+        if (total.endpoint().equals(endpoint)) {
+            return total;
+        }
+        return endpoints.stream().filter(e -> e.endpoint().equals(endpoint)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,315 @@
+package app.rigsheet.bench;
+
+import app.rigsheet.security.JwtUtil;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * End-to-end load test in one JVM: boots the backend on the embedded database
+ * ({@link BenchApp}), seeds it, and drives a weighted mix of public reads,
+ * authenticated writes and logins over HTTP at a fixed arrival rate.
+ * Mod updates go through the batch endpoint: single-mod PUT/PATCH/DELETE use
+ * Postgres-only SQL (see VersionedWrites), which the embedded database rejects.
+ *
+ * <ul>
+ *   <li>Open loop: request i is due at {@code start + i / rate} whether or not earlier
+ *       ones have answered, and its latency counts from then, so a stall shows up in
+ *       the percentiles instead of slowing the load down</li>
+ *   <li>Per-endpoint HdrHistogram percentiles and throughput (2xx completed per second
+ *       of the measured window), written as JSON to {@code --out}</li>
+ *   <li>Fails (exit 1) when any endpoint's p99 or throughput regresses past the
+ *       tolerances against {@code --baseline}, when the error rate is too high, or
+ *       when the offered rate could not be sustained; see {@link LoadReport#check}</li>
+ * </ul>
+ *
+ * Run with {@code mvn -P load-test verify -pl backend-bench -am -Dload-test.args="--rate 300"}
+ * from the repository root, or {@code java -cp target/benchmarks.jar app.rigsheet.bench.LoadTest ...}.
+ */
+public class LoadTest {
+
+    /** Default mix: mostly public reads, as the site sees them. */
+    static final String DEFAULT_MIX =
+            "rig=25,mod=15,vehicle-mods=15,summary=10,profile=10,leaderboard=5,create-mod=8,update-mod=7,login=5";
+
+    /** One kind of request; {@code build} gets the calling user's rig and a random source. */
+    record Endpoint(String key, String label, BiFunction<Caller, Random, HttpRequest.Builder> build) {}
+
+    /** A seeded user with a bearer token minted for them; {@code base} is the app's URL. */
+    record Caller(String base, BenchApp.Rig rig, String token, List<Long> allModIds) {}
+
+    static final List<Endpoint> ENDPOINTS = List.of(
+            new Endpoint("rig", "GET /api/rigs/{username}",
+                    (c, r) -> get(c, "/api/rigs/" + c.rig().username())),
+            new Endpoint("mod", "GET /api/mods/{id}",
+                    (c, r) -> authorized(get(c, "/api/mods/" + pick(c.allModIds(), r)), c)),
+            new Endpoint("vehicle-mods", "GET /api/mods/vehicle/{id}",
+                    (c, r) -> get(c, "/api/mods/vehicle/" + c.rig().vehicleId())),
+            new Endpoint("summary", "GET /api/vehicles/{id}/summary",
+                    (c, r) -> get(c, "/api/vehicles/" + c.rig().vehicleId() + "/summary")),
+            new Endpoint("profile", "GET /api/user-profiles/username/{username}",
+                    (c, r) -> get(c, "/api/user-profiles/username/" + c.rig().username())),
+            new Endpoint("leaderboard", "GET /api/leaderboards/vehicles/cost",
+                    (c, r) -> get(c, "/api/leaderboards/vehicles/cost")),
+            new Endpoint("create-mod", "POST /api/mods",
+                    (c, r) -> authorized(json(c, "POST", "/api/mods", """
+                            {"vehicleInfo": {"id": %d}, "name": "Load test part", "brand": "ARB",
+                             "category": "Armor", "cost": %.2f, "weight": 12.5, "sponsored": false}
+                            """.formatted(c.rig().vehicleId(), 50 + r.nextInt(1000) + 0.99)), c)),
+            new Endpoint("update-mod", "POST /api/mods/batch",
+                    (c, r) -> authorized(json(c, "POST", "/api/mods/batch", """
+                            {"vehicleInfoId": %d, "operations": [{"op": "update", "id": %d, "fields": {"cost": %.2f}}]}
+                            """.formatted(c.rig().vehicleId(), pick(c.rig().modIds(), r), 50 + r.nextInt(1000) + 0.49)), c)),
+            new Endpoint("login", "POST /api/auth/login",
+                    (c, r) -> json(c, "POST", "/api/auth/login", "{\"username\": \"%s\", \"password\": \"%s\"}"
+                            .formatted(c.rig().username(), BenchApp.PASSWORD)))
+    );
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>(Map.ofEntries(
+                Map.entry("rate", "200"),
+                Map.entry("duration", "60"),
+                Map.entry("warmup", "15"),
+                Map.entry("mix", DEFAULT_MIX),
+                Map.entry("users", "200"),
+                Map.entry("mods-per-vehicle", "20"),
+                Map.entry("timeout", "30"),
+                Map.entry("max-in-flight", "2000"),
+                Map.entry("out", "target/load-test/" + Instant.now().toString().replace(":", "") + ".json"),
+                Map.entry("baseline", ""),
+                Map.entry("p99-tolerance", "0.25"),
+                Map.entry("throughput-tolerance", "0.10"),
+                Map.entry("max-error-rate", "0.01"),
+                Map.entry("app-args", "")));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String key = args[i].replaceFirst("^--", "");
+            if (!opts.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown option --" + key + "; known: " + opts.keySet());
+            }
+            opts.put(key, args[i + 1]);
+        }
+
+        Map<Endpoint, Integer> mix = parseMix(opts.get("mix"));
+        double rate = Double.parseDouble(opts.get("rate"));
+        long warmup = Long.parseLong(opts.get("warmup"));
+        long duration = Long.parseLong(opts.get("duration"));
+        String appArgs = opts.get("app-args").trim();
+
+        LoadReport report;
+        try (BenchApp app = BenchApp.start(appArgs.isEmpty() ? new String[0] : appArgs.split("\\s+"))
+                .seed(Integer.parseInt(opts.get("users")), Integer.parseInt(opts.get("mods-per-vehicle")))) {
+            LoadTest test = new LoadTest(app, mix, Duration.ofSeconds(Long.parseLong(opts.get("timeout"))),
+                    Integer.parseInt(opts.get("max-in-flight")), warmup + duration);
+            System.out.printf("Load test: %.0f req/s for %d s (after %d s warmup) against port %d, mix %s%n",
+                    rate, duration, warmup, app.port(), opts.get("mix"));
+            report = test.run(rate, warmup, duration);
+        }
+
+        report.print(System.out);
+        Path out = Path.of(opts.get("out"));
+        report.write(out);
+        System.out.println("Results: " + out.toAbsolutePath());
+
+        LoadReport baseline = opts.get("baseline").isBlank() ? null : LoadReport.read(Path.of(opts.get("baseline")));
+        List<String> failures = report.check(baseline,
+                Double.parseDouble(opts.get("p99-tolerance")),
+                Double.parseDouble(opts.get("throughput-tolerance")),
+                Double.parseDouble(opts.get("max-error-rate")));
+        failures.forEach(f -> System.out.println("FAIL " + f));
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    private final Map<Endpoint, Integer> mix;
+    private final HttpClient client;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final List<Caller> callers = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Endpoint, Stats> stats = new LinkedHashMap<>();
+
+    /** Per-endpoint counters for the measured window (latencies in microseconds). */
+    private static final class Stats {
+        final Recorder recorder = new Recorder(3);
+        final LongAdder requests = new LongAdder();
+        final LongAdder completedOk = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void status(String key) {
+            statuses.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    LoadTest(BenchApp app, Map<Endpoint, Integer> mix, Duration timeout, int maxInFlight, long runSeconds) {
+        this.mix = mix;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        mix.keySet().forEach(e -> stats.put(e, new Stats()));
+
+        // Tokens minted directly: logins are part of the mix, not of the setup
+        JwtUtil jwtUtil = app.bean(JwtUtil.class);
+        long ttl = TimeUnit.SECONDS.toMillis(runSeconds) + timeout.toMillis() + TimeUnit.MINUTES.toMillis(5);
+        String base = "http://localhost:" + app.port();
+        List<Long> allModIds = app.rigs().stream().flatMap(r -> r.modIds().stream()).toList();
+        for (BenchApp.Rig rig : app.rigs()) {
+            callers.add(new Caller(base, rig, jwtUtil.generateToken(rig.username(), BenchData.ROLES, 0, ttl), allModIds));
+        }
+    }
+
+    /** Offer {@code rate} requests a second for warmup + duration seconds; measure only the last {@code duration}. */
+    LoadReport run(double rate, long warmupSeconds, long durationSeconds) throws InterruptedException {
+        Instant startedAt = Instant.now();
+        List<Endpoint> wheel = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int w = 0; w < weight; w++) {
+                wheel.add(endpoint);
+            }
+        });
+        Random random = new Random(42);
+        double intervalNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * intervalNanos);
+            if (due >= measureTo) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(wheel.get(random.nextInt(wheel.size())), callers.get(random.nextInt(callers.size())),
+                    random, due, due >= measureFrom, measureFrom, measureTo);
+        }
+
+        // Let the measured requests still in flight finish (or time out)
+        long drainUntil = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(50);
+        }
+
+        List<LoadReport.EndpointStats> endpoints = new ArrayList<>();
+        Histogram total = new Histogram(3);
+        long totalRequests = 0;
+        long totalOk = 0;
+        long totalErrors = 0;
+        Map<String, Long> totalStatuses = new TreeMap<>();
+        for (Map.Entry<Endpoint, Stats> e : stats.entrySet()) {
+            Stats s = e.getValue();
+            Histogram h = s.recorder.getIntervalHistogram();
+            total.add(h);
+            Map<String, Long> statuses = new TreeMap<>();
+            s.statuses.forEach((k, v) -> statuses.put(k, v.sum()));
+            statuses.forEach((k, v) -> totalStatuses.merge(k, v, Long::sum));
+            totalRequests += s.requests.sum();
+            totalOk += s.completedOk.sum();
+            totalErrors += s.errors.sum();
+            endpoints.add(LoadReport.EndpointStats.of(e.getKey().label(), s.requests.sum(), s.errors.sum(),
+                    s.completedOk.sum() / (double) durationSeconds, h, statuses));
+        }
+        return new LoadReport(startedAt, rate, warmupSeconds, durationSeconds, keys(mix), endpoints,
+                LoadReport.EndpointStats.of("total", totalRequests, totalErrors,
+                        totalOk / (double) durationSeconds, total, totalStatuses));
+    }
+
+    private void send(Endpoint endpoint, Caller caller, Random random, long due,
+                      boolean measured, long measureFrom, long measureTo) {
+        Stats s = stats.get(endpoint);
+        if (measured) {
+            s.requests.increment();
+        }
+        if (inFlight.get() >= maxInFlight) {
+            // The backlog is already past the cap: count it as failed rather than queue without bound
+            if (measured) {
+                s.errors.increment();
+                s.status("dropped");
+            }
+            return;
+        }
+        HttpRequest request = endpoint.build().apply(caller, random).timeout(timeout).build();
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long done = System.nanoTime();
+            inFlight.decrementAndGet();
+            boolean ok = error == null && response.statusCode() / 100 == 2;
+            if (ok && done >= measureFrom && done < measureTo) {
+                s.completedOk.increment();
+            }
+            if (measured) {
+                s.recorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(done - due)));
+                if (!ok) {
+                    s.errors.increment();
+                }
+                s.status(error != null ? "error" : String.valueOf(response.statusCode()));
+            }
+        });
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            Endpoint endpoint = ENDPOINTS.stream().filter(e -> e.key().equals(kv[0].trim())).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown endpoint in --mix: " + kv[0]
+                            + "; known: " + ENDPOINTS.stream().map(Endpoint::key).toList()));
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(endpoint, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix has no endpoint with a positive weight");
+        }
+        return mix;
+    }
+
+    private static Map<String, Integer> keys(Map<Endpoint, Integer> mix) {
+        Map<String, Integer> keys = new LinkedHashMap<>();
+        mix.forEach((e, w) -> keys.put(e.key(), w));
+        return keys;
+    }
+
+    private static long pick(List<Long> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static HttpRequest.Builder get(Caller caller, String path) {
+        return HttpRequest.newBuilder(URI.create(caller.base() + path)).GET();
+    }
+
+    private static HttpRequest.Builder json(Caller caller, String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(caller.base() + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static HttpRequest.Builder authorized(HttpRequest.Builder builder, Caller caller) {
+        return builder.header("Authorization", "Bearer " + caller.token());
+    }
+}
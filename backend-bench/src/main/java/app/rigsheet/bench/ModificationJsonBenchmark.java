@@ -0,0 +1,66 @@
+package app.rigsheet.bench;
+
+import app.rigsheet.model.Modification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of {@link Modification} lists with their nested
+ * {@code VehicleInfo} and {@code UserProfile}, i.e. the entity JSON shape.
+ *
+ * <ul>
+ *   <li>{@code size}: mods per list, ten per vehicle</li>
+ *   <li>{@code blackbird}: with the module {@code JacksonConfig} registers, or plain reflection</li>
+ * </ul>
+ *
+ * The mapper is built the way Boot builds the application's one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModificationJsonBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean blackbird;
+
+    private ObjectWriter writer;
+    private List<Modification> mods;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        ObjectMapper mapper = builder.build();
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Modification.class));
+        mods = BenchData.mods(size, 10);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(mods);
+    }
+}
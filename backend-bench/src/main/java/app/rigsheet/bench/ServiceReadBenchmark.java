@@ -0,0 +1,108 @@
+package app.rigsheet.bench;
+
+import app.rigsheet.dto.CursorPage;
+import app.rigsheet.dto.ModView;
+import app.rigsheet.dto.RigView;
+import app.rigsheet.dto.UserProfileView;
+import app.rigsheet.dto.VehicleView;
+import app.rigsheet.service.ModificationService;
+import app.rigsheet.service.RigService;
+import app.rigsheet.service.UserProfileService;
+import app.rigsheet.service.VehicleInfoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer reads against the real application context on an embedded,
+ * Postgres-mode H2 database (see {@link BenchApp}): repositories, Hibernate (with
+ * its second-level cache), the mod-list cache and Hikari, without HTTP in front.
+ *
+ * Seeded with {@link #USERS} users, one vehicle each with {@link #MODS_PER_VEHICLE}
+ * mods; each call picks a random one, so the caches see a realistic spread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceReadBenchmark {
+
+    static final int USERS = 200;
+    static final int MODS_PER_VEHICLE = 20;
+
+    private BenchApp app;
+    private ModificationService mods;
+    private VehicleInfoService vehicles;
+    private UserProfileService profiles;
+    private RigService rigs;
+    private List<Long> modIds;
+    private List<Long> vehicleIds;
+    private List<String> usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        app = BenchApp.start().seed(USERS, MODS_PER_VEHICLE);
+        mods = app.bean(ModificationService.class);
+        vehicles = app.bean(VehicleInfoService.class);
+        profiles = app.bean(UserProfileService.class);
+        rigs = app.bean(RigService.class);
+        modIds = app.rigs().stream().flatMap(r -> r.modIds().stream()).toList();
+        vehicleIds = app.rigs().stream().map(BenchApp.Rig::vehicleId).toList();
+        usernames = app.rigs().stream().map(BenchApp.Rig::username).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    private static <T> T any(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    @Benchmark
+    public Optional<ModView> modById() {
+        return mods.getModById(any(modIds));
+    }
+
+    @Benchmark
+    public List<ModView> vehicleMods() {
+        return mods.getModsByVehicleInfoId(any(vehicleIds));
+    }
+
+    @Benchmark
+    public CursorPage<ModView> allModsFirstPage() {
+        return mods.getAllMods(null, 50, ModificationService.SORT_ID);
+    }
+
+    @Benchmark
+    public Optional<VehicleView> vehicleById() {
+        return vehicles.getVehicleById(any(vehicleIds));
+    }
+
+    @Benchmark
+    public Optional<UserProfileView> profileByUsername() {
+        return profiles.getUserProfileByUsername(any(usernames));
+    }
+
+    @Benchmark
+    public Optional<RigView> rig() {
+        return rigs.getRigHeader(any(usernames)).map(rigs::withMods);
+    }
+}
@@ -0,0 +1,150 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Closed-loop HTTP load driver for comparing request thread models (see thread-model.sh).
+ *
+ * Each of {@code --concurrency} clients sends GETs round-robin over {@code --paths}
+ * back to back for {@code --duration} seconds, after a {@code --warmup}. Prints
+ * throughput, latency percentiles and a status breakdown (503s are requests the
+ * database bulkhead shed), then one summary line for scripts.
+ *
+ * No dependencies: run with {@code java ThreadModelBench.java --url http://localhost:8081 ...}.
+ */
+public class ThreadModelBench {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>(Map.of(
+                "url", "http://localhost:8081",
+                "paths", "/api/vehicles/1/summary",
+                "concurrency", "400",
+                "duration", "30",
+                "warmup", "10",
+                "timeout", "30",
+                "label", "run"));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        String base = opts.get("url");
+        String[] paths = opts.get("paths").split(",");
+        int concurrency = Integer.parseInt(opts.get("concurrency"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(opts.get("timeout")));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        List<HttpRequest> requests = Arrays.stream(paths)
+                .map(p -> HttpRequest.newBuilder(URI.create(base + p.trim())).timeout(timeout).GET().build())
+                .toList();
+
+        run(client, requests, concurrency, Long.parseLong(opts.get("warmup")), null);
+        Result result = new Result();
+        long elapsed = run(client, requests, concurrency, Long.parseLong(opts.get("duration")), result);
+        result.print(opts.get("label"), concurrency, elapsed);
+    }
+
+    /** @return the measured wall time in nanoseconds */
+    private static long run(HttpClient client, List<HttpRequest> requests, int concurrency,
+                            long seconds, Result result) throws InterruptedException {
+        if (seconds <= 0) {
+            return 0;
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        List<Result> perClient = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            Result mine = new Result();
+            perClient.add(mine);
+            int offset = c;
+            Thread t = new Thread(() -> {
+                try {
+                    for (int i = offset; running.get(); i++) {
+                        HttpRequest request = requests.get(i % requests.size());
+                        long t0 = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception ex) {
+                            status = -1;
+                        }
+                        if (running.get()) {
+                            mine.add(System.nanoTime() - t0, status);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "bench-" + c);
+            t.setDaemon(true);
+            t.start();
+        }
+        Thread.sleep(seconds * 1000);
+        running.set(false);
+        long elapsed = System.nanoTime() - start;
+        done.await();
+        if (result != null) {
+            perClient.forEach(result::merge);
+        }
+        return elapsed;
+    }
+
+    private static final class Result {
+        long[] latencies = new long[1024];
+        int count;
+        final Map<String, Integer> statuses = new HashMap<>();
+
+        void add(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            String key = status < 0 ? "error" : status == 503 ? "503" : (status / 100) + "xx";
+            statuses.merge(key, 1, Integer::sum);
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, Math.max(count * 2, count + other.count));
+                }
+                latencies[count++] = other.latencies[i];
+            }
+            other.statuses.forEach((k, v) -> statuses.merge(k, v, Integer::sum));
+        }
+
+        void print(String label, int concurrency, long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            int ok = statuses.getOrDefault("2xx", 0);
+            System.out.printf("%s: %d clients, %.1f s, %d requests%n", label, concurrency, seconds, count);
+            System.out.printf("  throughput  %.0f req/s (%.0f 2xx/s)%n", count / seconds, ok / seconds);
+            System.out.printf("  latency ms  p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+                    ms(sorted, 0.50), ms(sorted, 0.90), ms(sorted, 0.99), ms(sorted, 1.0));
+            System.out.printf("  statuses    %s%n", statuses);
+            System.out.printf("SUMMARY label=%s rps=%.0f ok_rps=%.0f p50_ms=%.1f p99_ms=%.1f max_ms=%.1f shed=%d errors=%d%n",
+                    label, count / seconds, ok / seconds, ms(sorted, 0.50), ms(sorted, 0.99), ms(sorted, 1.0),
+                    statuses.getOrDefault("503", 0), statuses.getOrDefault("error", 0));
+        }
+
+        private static double ms(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+        }
+    }
+}
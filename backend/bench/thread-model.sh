@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Compares request thread models under the same load: Tomcat's platform pool,
+# the same with the database bulkhead, and virtual threads (with the bulkhead).
+#
+#   cd backend && bench/thread-model.sh
+#
+# Environment (all optional):
+#   JAVA          JVM that runs the app; virtual mode needs 21+ (default: java)
+#   APP_ARGS      extra Spring arguments, e.g. the datasource to use
+#                 (default profile: dev, so DB_HOST/DB_NAME/DB_USER/DB_PASS apply)
+#   PORT          port for the app under test (default 8097)
+#   PATHS         comma-separated GET paths to drive (default /api/vehicles/1/summary)
+#   CONCURRENCY   closed-loop clients (default 400, twice Tomcat's default 200 threads)
+#   DURATION      measured seconds per mode (default 30; after WARMUP, default 10)
+#   MODES         subset of "platform bulkhead virtual" (default: all three)
+#   NOBUILD=1     reuse target/*.jar
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+JAVA=${JAVA:-java}
+PORT=${PORT:-8097}
+PATHS=${PATHS:-/api/vehicles/1/summary}
+CONCURRENCY=${CONCURRENCY:-400}
+DURATION=${DURATION:-30}
+WARMUP=${WARMUP:-10}
+MODES=${MODES:-platform bulkhead virtual}
+
+[ -n "${NOBUILD:-}" ] || mvn -B -q -DskipTests package
+JAR=$(ls target/*-exec.jar | head -1)
+LOG=$(mktemp -t thread-model.XXXXXX)
+APP=
+
+stop() { if [ -n "$APP" ]; then kill "$APP" 2>/dev/null; wait "$APP" 2>/dev/null || true; fi; APP=; }
+trap stop EXIT
+
+for mode in $MODES; do
+  case $mode in
+    platform) flags="--rigsheet.threads.virtual=false --rigsheet.db-bulkhead.enabled=false" ;;
+    bulkhead) flags="--rigsheet.threads.virtual=false --rigsheet.db-bulkhead.enabled=true" ;;
+    virtual)  flags="--rigsheet.threads.virtual=true --rigsheet.db-bulkhead.enabled=true" ;;
+    *) echo "unknown mode: $mode" >&2; exit 2 ;;
+  esac
+  # shellcheck disable=SC2086
+  "$JAVA" -jar "$JAR" --spring.profiles.active=dev --server.port="$PORT" $flags ${APP_ARGS:-} > "$LOG" 2>&1 &
+  APP=$!
+  for _ in $(seq 1 90); do
+    grep -q "Started RigsheetApplication" "$LOG" && break
+    kill -0 "$APP" 2>/dev/null || break
+    sleep 1
+  done
+  if ! grep -q "Started RigsheetApplication" "$LOG"; then
+    echo "$mode: app did not start (skipped)"; grep -m3 -E "IllegalStateException|ERROR" "$LOG" | cut -c1-200 || true
+    stop; continue
+  fi
+  java bench/ThreadModelBench.java --url "http://localhost:$PORT" --paths "$PATHS" \
+      --concurrency "$CONCURRENCY" --duration "$DURATION" --warmup "$WARMUP" --label "$mode"
+  stop
+done
+rm -f "$LOG"
@@ -5,6 +5,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import app.rigsheet.model.Modification;
 import app.rigsheet.model.UserProfile;
@@ -14,6 +15,7 @@ import app.rigsheet.repository.UserProfileRepository;
 import app.rigsheet.repository.VehicleInfoRepository;
 
 @SpringBootApplication
+@EnableScheduling
 public class RigsheetApplication {
 
     public static void main(String[] args) {
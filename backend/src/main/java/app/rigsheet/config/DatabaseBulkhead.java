@@ -0,0 +1,143 @@
+package app.rigsheet.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead in front of the connection pool: a fair semaphore with one permit per
+ * pooled connection, taken in {@code getConnection} and given back when that
+ * connection is closed (returned to the pool).
+ *
+ * <ul>
+ *   <li>Without it every request that needs the database queues inside Hikari for
+ *       up to its {@code connection-timeout}; with virtual threads nothing else
+ *       caps how many do</li>
+ *   <li>Here waiters are served strictly in arrival order, and one that waits
+ *       longer than {@code maxWait} gets a {@link BusyException} straight away,
+ *       which the API answers with 503 + Retry-After</li>
+ * </ul>
+ *
+ * See {@link DatabaseBulkheadConfig} for when it is installed.
+ */
+public class DatabaseBulkhead extends DelegatingDataSource {
+
+    /** No permit came free within the wait budget; the request should be shed. */
+    public static class BusyException extends SQLTransientConnectionException {
+        BusyException(String reason) {
+            super(reason, "08004"); // SQLSTATE: server rejected the connection
+        }
+    }
+
+    private final Semaphore permits;
+    private final int size;
+    private final long maxWaitNanos;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waitedNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public DatabaseBulkhead(DataSource target, int permits, Duration maxWait) {
+        super(target);
+        this.size = Math.max(1, permits);
+        this.permits = new Semaphore(size, true);
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int available() {
+        return permits.availablePermits();
+    }
+
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+
+    public long acquiredCount() {
+        return acquired.sum();
+    }
+
+    public double waitedSeconds() {
+        return waitedNanos.sum() / 1e9;
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean granted;
+        try {
+            // The timed form honours fairness; the untimed tryAcquire() would barge
+            granted = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a database permit", ex);
+        }
+        if (!granted) {
+            rejected.increment();
+            throw new BusyException("All " + size + " database permits busy for "
+                    + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+        }
+        acquired.increment();
+        waitedNanos.add(System.nanoTime() - start);
+    }
+
+    /** The connection, releasing our permit (once) when it is closed. */
+    private Connection guard(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(DatabaseBulkhead.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            target.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,95 @@
+package app.rigsheet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Installs the {@link DatabaseBulkhead} around the application's DataSource.
+ *
+ * <ul>
+ *   <li>{@code rigsheet.db-bulkhead.enabled}: defaults to on in virtual-thread mode
+ *       ({@code rigsheet.threads.virtual}), off otherwise</li>
+ *   <li>{@code .permits}: 0 (default) sizes it to Hikari's {@code maximum-pool-size}</li>
+ *   <li>{@code .max-wait}: queue-wait budget before a request is shed</li>
+ * </ul>
+ *
+ * Occupancy, waits and rejections are published as {@code rigsheet.db.bulkhead.*}.
+ */
+@Configuration
+public class DatabaseBulkheadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseBulkheadConfig.class);
+
+    @Bean
+    static BeanPostProcessor databaseBulkheadInstaller(Environment env) {
+        boolean virtual = env.getProperty("rigsheet.threads.virtual", Boolean.class, false);
+        boolean enabled = env.getProperty("rigsheet.db-bulkhead.enabled", Boolean.class, virtual);
+        int permits = env.getProperty("rigsheet.db-bulkhead.permits", Integer.class, 0);
+        Duration maxWait = env.getProperty("rigsheet.db-bulkhead.max-wait", Duration.class, Duration.ofMillis(500));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource)
+                        || unwrap(dataSource, DatabaseBulkhead.class) != null) {
+                    return bean;
+                }
+                HikariDataSource hikari = unwrap(dataSource, HikariDataSource.class);
+                int size = permits > 0 ? permits : hikari != null ? hikari.getMaximumPoolSize() : 10;
+                log.info("Database bulkhead on '{}': {} permits, {} ms max wait", beanName, size, maxWait.toMillis());
+                return new DatabaseBulkhead(dataSource, size, maxWait);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder databaseBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            DatabaseBulkhead bulkhead = unwrap(dataSource, DatabaseBulkhead.class);
+            if (bulkhead == null) {
+                return;
+            }
+            Gauge.builder("rigsheet.db.bulkhead.permits", bulkhead, DatabaseBulkhead::size)
+                    .description("Database permits (one per pooled connection)")
+                    .register(registry);
+            Gauge.builder("rigsheet.db.bulkhead.available", bulkhead, DatabaseBulkhead::available)
+                    .description("Database permits free right now")
+                    .register(registry);
+            Gauge.builder("rigsheet.db.bulkhead.waiting", bulkhead, DatabaseBulkhead::waiting)
+                    .description("Requests queued for a database permit")
+                    .register(registry);
+            FunctionTimer.builder("rigsheet.db.bulkhead.wait", bulkhead,
+                            DatabaseBulkhead::acquiredCount, DatabaseBulkhead::waitedSeconds, TimeUnit.SECONDS)
+                    .description("Time queued for a database permit, by requests that got one")
+                    .register(registry);
+            FunctionCounter.builder("rigsheet.db.bulkhead.rejected", bulkhead, DatabaseBulkhead::rejectedCount)
+                    .description("Requests shed because no database permit came free in time")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * The {@code type} somewhere in the chain of wrappers (this bulkhead, the
+     * {@link QueryCountingDataSource}, Hikari), or null.
+     */
+    static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+}
@@ -12,6 +12,8 @@ public class GlobalCorsConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("*")  // replaces allowedOrigins
                 .allowedMethods("GET","POST","PUT","PATCH","DELETE","OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag",  // clients echo it back as If-Match
+                        QueryStatsFilter.COUNT_HEADER, QueryStatsFilter.TIME_HEADER)  // non-prod only
                 .allowCredentials(false)
                 .maxAge(3600);
     }
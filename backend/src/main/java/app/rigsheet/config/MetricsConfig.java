@@ -0,0 +1,65 @@
+package app.rigsheet.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.function.Function;
+
+/**
+ * Metrics beyond what Boot binds on its own (HTTP server requests, Hikari, Hibernate,
+ * JVM), all scraped from {@code /actuator/prometheus}.
+ *
+ * <ul>
+ *   <li>{@code http.server.requests} carries a {@code handler} tag naming the controller
+ *       method, e.g. {@code ModificationController.getModById}; percentile histograms
+ *       are switched on in application-*.yml</li>
+ *   <li>{@code @Timed} services publish {@value #SERVICE_TIMER}, tagged {@code service}
+ *       (from the annotation) and {@code operation} (the method name)</li>
+ * </ul>
+ */
+@Configuration
+public class MetricsConfig {
+
+    /** Timer name for the {@code @Timed} service classes. */
+    public static final String SERVICE_TIMER = "rigsheet.service";
+
+    /** Tag value when no controller method handled the request (404s, static resources, the error page). */
+    private static final String NO_HANDLER = "none";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        Function<ProceedingJoinPoint, Iterable<Tag>> operation = pjp -> Tags.of("operation", pjp.getSignature().getName());
+        return new TimedAspect(registry, operation);
+    }
+
+    @Bean
+    public ServerRequestObservationConvention handlerTaggingConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("handler", handler(context.getCarrier())));
+            }
+        };
+    }
+
+    private static String handler(HttpServletRequest request) {
+        Object handler = request == null ? null : request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return NO_HANDLER;
+    }
+}
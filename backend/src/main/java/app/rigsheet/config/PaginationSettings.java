@@ -0,0 +1,31 @@
+package app.rigsheet.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Page-size limits shared by every list endpoint.
+ * Callers may ask for fewer rows, never more than the cap.
+ */
+@Component
+public class PaginationSettings {
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public PaginationSettings(
+            @Value("${rigsheet.pagination.default-page-size:50}") int defaultPageSize,
+            @Value("${rigsheet.pagination.max-page-size:200}") int maxPageSize
+    ) {
+        this.maxPageSize = Math.max(1, maxPageSize);
+        this.defaultPageSize = Math.min(Math.max(1, defaultPageSize), this.maxPageSize);
+    }
+
+    /** @return the requested page size clamped to [1, max], or the default if none was given */
+    public int limit(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        return Math.min(Math.max(1, requested), maxPageSize);
+    }
+}
@@ -0,0 +1,133 @@
+package app.rigsheet.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Times every statement executed through the DataSource and records it in the
+ * thread's {@link QueryStats} (if a scope is open).
+ *
+ * <ul>
+ *   <li>Statements slower than {@code slowThreshold} are logged with their shape and
+ *       the types of their bind parameters, e.g. {@code {1=Long, 2=String}}; values
+ *       are never logged</li>
+ *   <li>The shape of a prepared statement is its SQL; plain statements have their
+ *       literals replaced by {@code ?} so repeats with different values match</li>
+ * </ul>
+ *
+ * See {@link QueryStatsConfig} for when it is installed.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountingDataSource.class);
+
+    private static final Set<String> EXECUTE = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> PREPARE = Set.of("prepareStatement", "prepareCall");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long slowNanos;
+
+    public QueryCountingDataSource(DataSource target, Duration slowThreshold) {
+        super(target);
+        this.slowNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection target) {
+        return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (PREPARE.contains(method.getName())) {
+                        return wrap((Statement) result, method.getReturnType(), (String) args[0]);
+                    }
+                    if (method.getName().equals("createStatement")) {
+                        return wrap((Statement) result, Statement.class, null);
+                    }
+                    return result;
+                });
+    }
+
+    /** @param sql the prepared SQL, or null for a plain statement (SQL comes with each execute) */
+    private Statement wrap(Statement target, Class<?> type, String sql) {
+        // Parameter index -> type of the value last bound there; only read for slow statements
+        TreeMap<Integer, String> binds = new TreeMap<>();
+        return (Statement) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (sql != null && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index) {
+                        binds.put(index, bindType(name, args[1]));
+                    } else if (name.equals("clearParameters")) {
+                        binds.clear();
+                    }
+                    if (!EXECUTE.contains(name)) {
+                        return invoke(target, method, args);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(target, method, args);
+                    } finally {
+                        long elapsed = System.nanoTime() - start;
+                        String shape = sql != null ? sql
+                                : args != null && args.length > 0 ? shape((String) args[0]) : "?";
+                        QueryStats.record(shape, elapsed);
+                        if (elapsed > slowNanos) {
+                            log.warn("Slow query ({} ms): {} binds {}",
+                                    TimeUnit.NANOSECONDS.toMillis(elapsed), shape, binds);
+                        }
+                    }
+                });
+    }
+
+    private static String bindType(String setter, Object value) {
+        if (setter.equals("setNull") || value == null) {
+            return "null";
+        }
+        if (setter.equals("setObject")) {
+            return value.getClass().getSimpleName();
+        }
+        return setter.substring("set".length());
+    }
+
+    /** The SQL with literals as {@code ?} and whitespace collapsed. */
+    static String shape(String sql) {
+        String s = STRING_LITERAL.matcher(sql).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        return WHITESPACE.matcher(s).replaceAll(" ").trim();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package app.rigsheet.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC statements executed on this thread while a scope is open, as recorded by
+ * {@link QueryCountingDataSource}: how many, how long they took in the driver, and
+ * how often each statement shape ran.
+ *
+ * <p>{@link QueryStatsConfig} opens one per HTTP request. Scopes nest: a statement
+ * counts towards every open scope on the thread, so a caller can wrap a request
+ * (e.g. a MockMvc call, which runs on the caller's thread) and cap its queries:</p>
+ *
+ * <pre>{@code
+ * try (QueryStats queries = QueryStats.start()) {
+ *     mockMvc.perform(get("/api/rigs/alice")).andExpect(status().isOk());
+ *     queries.assertAtMost(4);
+ * }
+ * }</pre>
+ *
+ * Work handed to other threads (streamed exports, async dispatches) is not counted.
+ */
+public final class QueryStats implements AutoCloseable {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats parent;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int count;
+    private long nanos;
+    private boolean closed;
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    /** Opens a scope on this thread; close it on the same thread. */
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /** The innermost open scope on this thread, or null. */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /** Adds one executed statement (a batch counts once) to every open scope on this thread. */
+    static void record(String shape, long elapsedNanos) {
+        for (QueryStats s = CURRENT.get(); s != null; s = s.parent) {
+            s.count++;
+            s.nanos += elapsedNanos;
+            s.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public double millis() {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** Statement shapes executed more than {@code threshold} times, most repeated first. */
+    public Map<String, Integer> repeatedMoreThan(int threshold) {
+        return shapes.entrySet().stream()
+                .filter(e -> e.getValue() > threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /** Fails (with the statements that ran) if more than {@code max} were executed. */
+    public void assertAtMost(int max) {
+        if (count > max) {
+            throw new AssertionError("Expected at most " + max + " queries but " + count + " ran: "
+                    + describe(repeatedMoreThan(0)));
+        }
+    }
+
+    /** "3 x select ..., 1 x update ...", for logs and assertion messages. */
+    static String describe(Map<String, Integer> shapes) {
+        return shapes.entrySet().stream()
+                .map(e -> e.getValue() + " x " + e.getKey())
+                .collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() == this) {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
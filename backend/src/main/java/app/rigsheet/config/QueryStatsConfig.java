@@ -0,0 +1,64 @@
+package app.rigsheet.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Per-request JDBC statement counting ({@link QueryCountingDataSource}, {@link QueryStatsFilter}).
+ *
+ * <ul>
+ *   <li>{@code rigsheet.query-stats.enabled}: wrap the DataSource at all (default on)</li>
+ *   <li>{@code .headers}: send {@code X-Query-Count}/{@code X-Query-Time}; dev only</li>
+ *   <li>{@code .slow-threshold}: log statements slower than this</li>
+ *   <li>{@code .repeat-threshold}: log a likely N+1 when one statement runs more often
+ *       than this in a request</li>
+ * </ul>
+ *
+ * Installs in either order with the {@link DatabaseBulkhead}: each finds the other
+ * (and Hikari) through {@link DataSource#unwrap}.
+ */
+@Configuration
+public class QueryStatsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStatsConfig.class);
+
+    @Bean
+    static BeanPostProcessor queryCountingInstaller(Environment env) {
+        boolean enabled = env.getProperty("rigsheet.query-stats.enabled", Boolean.class, true);
+        Duration slowThreshold = env.getProperty("rigsheet.query-stats.slow-threshold", Duration.class,
+                Duration.ofMillis(200));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource)
+                        || DatabaseBulkheadConfig.unwrap(dataSource, QueryCountingDataSource.class) != null) {
+                    return bean;
+                }
+                log.info("Counting queries on '{}': slow above {} ms", beanName, slowThreshold.toMillis());
+                return new QueryCountingDataSource(dataSource, slowThreshold);
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(Environment env) {
+        boolean enabled = env.getProperty("rigsheet.query-stats.enabled", Boolean.class, true);
+        boolean headers = env.getProperty("rigsheet.query-stats.headers", Boolean.class, false);
+        int repeatThreshold = env.getProperty("rigsheet.query-stats.repeat-threshold", Integer.class, 10);
+        FilterRegistrationBean<QueryStatsFilter> registration =
+                new FilterRegistrationBean<>(new QueryStatsFilter(headers, repeatThreshold));
+        registration.setEnabled(enabled);
+        // Ahead of Spring Security, so queries made while authenticating count too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
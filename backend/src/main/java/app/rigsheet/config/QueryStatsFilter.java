@@ -0,0 +1,91 @@
+package app.rigsheet.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Opens a {@link QueryStats} scope around each request.
+ *
+ * <ul>
+ *   <li>Logs a likely N+1 when one statement shape ran more than {@code repeatThreshold}
+ *       times in the request</li>
+ *   <li>With {@code headers} on, answers with {@code X-Query-Count} and
+ *       {@code X-Query-Time} (milliseconds in the driver). They are set just before the
+ *       response commits, so a response streamed past its buffer only reports the
+ *       queries run until then</li>
+ * </ul>
+ */
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-Query-Time";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStatsFilter.class);
+
+    private final boolean headers;
+    private final int repeatThreshold;
+
+    public QueryStatsFilter(boolean headers, int repeatThreshold) {
+        this.headers = headers;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        try (QueryStats stats = QueryStats.start()) {
+            HeaderWriter writer = headers ? new HeaderWriter(response, stats) : null;
+            try {
+                chain.doFilter(request, writer != null ? writer : response);
+            } finally {
+                if (writer != null) {
+                    writer.writeHeaders();
+                }
+                Map<String, Integer> repeated = stats.repeatedMoreThan(repeatThreshold);
+                if (!repeated.isEmpty()) {
+                    log.warn("Likely N+1 in {} {} ({} queries): {}",
+                            request.getMethod(), request.getRequestURI(), stats.count(), QueryStats.describe(repeated));
+                }
+            }
+        }
+    }
+
+    /** Adds the headers once, when the response is about to commit or the request ends. */
+    private static final class HeaderWriter extends OnCommittedResponseWrapper {
+
+        private final HttpServletResponse target;
+        private final QueryStats stats;
+        private boolean written;
+
+        HeaderWriter(HttpServletResponse target, QueryStats stats) {
+            super(target);
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        void writeHeaders() {
+            if (written || target.isCommitted()) {
+                return;
+            }
+            written = true;
+            target.setHeader(COUNT_HEADER, Integer.toString(stats.count()));
+            target.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.2f", stats.millis()));
+        }
+    }
+}
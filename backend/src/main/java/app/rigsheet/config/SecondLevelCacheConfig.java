@@ -0,0 +1,130 @@
+package app.rigsheet.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hibernate second-level cache: in-process JCache regions backed by Caffeine.
+ *
+ * <ul>
+ *   <li>{@value #PROFILES} and {@value #VEHICLES}: UserProfile and VehicleInfo entities</li>
+ *   <li>{@value #LOOKUPS}: results of the cacheable lookup queries
+ *       ({@code findByUsername}, {@code findByUserProfileId})</li>
+ * </ul>
+ *
+ * Each region is bounded by {@code rigsheet.entity-cache.<region>.max-entries} and
+ * {@code .ttl}. Hibernate keeps the regions current for writes made through it
+ * (VersionedWrites schedules the same cleanup for its raw statements); the TTL
+ * bounds how stale another node's copy can get. Regions missing here fail startup
+ * rather than appear unbounded. Hit ratios are published as
+ * {@code rigsheet.entity-cache.*} meters.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String PROFILES = "profiles";
+    public static final String VEHICLES = "vehicles";
+    public static final String LOOKUPS = "lookups";
+
+    /** Hibernate's fallback query region; unused, since every cacheable query names {@value #LOOKUPS}. */
+    private static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    /** Last-write times per table; must outlive every cached query result, so never expires. */
+    private static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(
+            @Value("${rigsheet.entity-cache.profiles.max-entries:10000}") long profileEntries,
+            @Value("${rigsheet.entity-cache.profiles.ttl:10m}") Duration profileTtl,
+            @Value("${rigsheet.entity-cache.vehicles.max-entries:10000}") long vehicleEntries,
+            @Value("${rigsheet.entity-cache.vehicles.ttl:10m}") Duration vehicleTtl,
+            @Value("${rigsheet.entity-cache.lookups.max-entries:20000}") long lookupEntries,
+            @Value("${rigsheet.entity-cache.lookups.ttl:5m}") Duration lookupTtl) {
+        // Not the provider's default manager: that one is JVM-wide, and a second application
+        // context in the same JVM (tests, the bench harness) would collide on the region names
+        CacheManager manager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("rigsheet-entity-cache:" + UUID.randomUUID()),
+                        SecondLevelCacheConfig.class.getClassLoader());
+        manager.createCache(PROFILES, region(profileEntries, profileTtl));
+        manager.createCache(VEHICLES, region(vehicleEntries, vehicleTtl));
+        manager.createCache(LOOKUPS, region(lookupEntries, lookupTtl));
+        manager.createCache(DEFAULT_QUERY_RESULTS, region(1000, lookupTtl));
+        manager.createCache(UPDATE_TIMESTAMPS, region(10_000, null));
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    /** Per-region requests and hit ratio, from Hibernate's statistics. */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : List.of(PROFILES, VEHICLES, LOOKUPS)) {
+                FunctionCounter.builder("rigsheet.entity-cache.requests", statistics,
+                                count(region, CacheRegionStatistics::getHitCount))
+                        .tags("region", region, "result", "hit")
+                        .description("Second-level cache lookups")
+                        .register(registry);
+                FunctionCounter.builder("rigsheet.entity-cache.requests", statistics,
+                                count(region, CacheRegionStatistics::getMissCount))
+                        .tags("region", region, "result", "miss")
+                        .description("Second-level cache lookups")
+                        .register(registry);
+                Gauge.builder("rigsheet.entity-cache.hit-ratio", statistics, hitRatio(region))
+                        .tags("region", region)
+                        .description("Share of second-level cache lookups served from memory since startup")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+        config.setMaximumSize(OptionalLong.of(maxEntries));
+        if (ttl != null) {
+            config.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        config.setStoreByValue(false); // Hibernate caches immutable entries; no copy on read
+        return config;
+    }
+
+    private static ToDoubleFunction<Statistics> count(String region,
+                                                      ToDoubleFunction<CacheRegionStatistics> counter) {
+        return statistics -> {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            return stats == null ? 0 : counter.applyAsDouble(stats);
+        };
+    }
+
+    private static ToDoubleFunction<Statistics> hitRatio(String region) {
+        return statistics -> {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            long lookups = stats == null ? 0 : stats.getHitCount() + stats.getMissCount();
+            return lookups == 0 ? Double.NaN : (double) stats.getHitCount() / lookups;
+        };
+    }
+}
@@ -1,11 +1,17 @@
 // src/main/java/app/rigsheet/config/SecurityConfig.java
 package app.rigsheet.config;
 
-import app.rigsheet.repository.UserProfileRepository;
+import app.rigsheet.security.AuthTokenCache;
 import app.rigsheet.security.JwtAuthFilter;
 import app.rigsheet.security.JwtUtil;
+import app.rigsheet.security.RevokedTokenRegistry;
+import app.rigsheet.security.TokenVersionTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -23,11 +29,24 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 public class SecurityConfig {
 
+    /** Open to anonymous GET and HEAD requests. */
+    private static final String[] PUBLIC_READS = {
+            "/api/user-profiles/**",     // if you expose read-only user info
+            "/api/vehicles/user/**",     // vehicle by user id
+            "/api/vehicles/*/summary",   // build totals
+            "/api/mods/vehicle/**",      // mods by vehicle id
+            "/api/leaderboards/**",      // community leaderboards
+            "/api/rigs/**"               // public rig pages (profile + vehicle + mods)
+    };
+
     @Bean
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
             JwtUtil jwtUtil,
-            UserProfileRepository userRepo
+            AuthTokenCache tokenCache,
+            TokenVersionTable tokenVersions,
+            RevokedTokenRegistry revokedTokens,
+            MeterRegistry meterRegistry
     ) throws Exception {
 
         http
@@ -41,29 +60,41 @@ public class SecurityConfig {
                         // OpenAPI / Swagger
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
 
+                        // Error dispatches, so 4xx/5xx statuses aren't masked as 403
+                        .requestMatchers("/error").permitAll()
+
+                        // Completion of async requests (streamed exports); the original dispatch was authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                        // Probes and the Prometheus scrape (prod serves these on the internal management port)
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+
                         // Auth endpoints (login, later register if you enable it)
                         .requestMatchers("/api/auth/**").permitAll()
 
-                        // Public profile reads
-                        .requestMatchers(
-                                "/api/user-profiles/**",     // if you expose read-only user info
-                                "/api/vehicles/user/**",     // vehicle by user id
-                                "/api/mods/vehicle/**"       // mods by vehicle id
-                        ).permitAll()
+                        // Public profile reads; writes to the same paths need a JWT
+                        .requestMatchers(HttpMethod.GET, PUBLIC_READS).permitAll()
+                        .requestMatchers(HttpMethod.HEAD, PUBLIC_READS).permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/images/*").permitAll()   // uploading needs a JWT
+                        .requestMatchers(HttpMethod.HEAD, "/api/images/*").permitAll()
 
                         // Everything else requires JWT
                         .anyRequest().authenticated()
                 )
 
                 // Register JWT filter before UsernamePasswordAuthenticationFilter
-                .addFilterBefore(new JwtAuthFilter(jwtUtil, userRepo), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new JwtAuthFilter(jwtUtil, tokenCache, tokenVersions, revokedTokens, meterRegistry),
+                        UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
-    /** BCrypt encoder for hashing & verifying passwords. */
+    /**
+     * BCrypt encoder for hashing & verifying passwords.
+     * Changing the strength re-encodes existing hashes on each user's next login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${rigsheet.auth.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package app.rigsheet.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in ({@code rigsheet.threads.virtual=true}): Tomcat runs each request on its
+ * own virtual thread instead of its bounded platform pool, so a request blocked on
+ * the database or network no longer holds an OS thread.
+ *
+ * <p>Nothing then caps how many requests reach the connection pool at once; the
+ * {@link DatabaseBulkhead} (on by default in this mode) does, and sheds the excess.</p>
+ *
+ * <p>Needs a Java 21+ runtime. The build still targets 17, so the executor is looked
+ * up at startup; on an older JVM the mode fails fast rather than silently falling back.
+ * Scheduled jobs and the BCrypt pool stay on platform threads.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "rigsheet.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    /**
+     * Not an executor bean: that would make Boot drop its applicationTaskExecutor,
+     * which the streamed exports run on. A per-task virtual executor holds no threads,
+     * so there is nothing to shut down.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadRequests() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Serving requests on virtual threads");
+        return handler -> handler.setExecutor(executor);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("rigsheet.threads.virtual needs Java 21 or later; running "
+                    + Runtime.version());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Could not create the virtual-thread executor", ex);
+        }
+    }
+}
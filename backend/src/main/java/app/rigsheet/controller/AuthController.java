@@ -3,14 +3,27 @@ package app.rigsheet.controller;
 import app.rigsheet.model.UserProfile;
 import app.rigsheet.repository.UserProfileRepository;
 import app.rigsheet.security.JwtUtil;
+import app.rigsheet.security.PasswordVerificationExecutor;
+import app.rigsheet.security.RevokedTokenRegistry;
+import app.rigsheet.security.TokenVersionTable;
+import app.rigsheet.service.RefreshTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -18,36 +31,109 @@ import java.util.Map;
 public class AuthController {
 
     private final UserProfileRepository userRepo;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerificationExecutor passwordVerifier;
     private final JwtUtil jwtUtil;
+    private final TokenVersionTable tokenVersions;
+    private final RevokedTokenRegistry revokedTokens;
+    private final RefreshTokenService refreshTokens;
+    private final Duration accessTokenTtl;
+    private final long loginRetryAfterSeconds;
 
     public AuthController(UserProfileRepository userRepo,
-                          PasswordEncoder passwordEncoder,
-                          JwtUtil jwtUtil) {
+                          PasswordVerificationExecutor passwordVerifier,
+                          JwtUtil jwtUtil,
+                          TokenVersionTable tokenVersions,
+                          RevokedTokenRegistry revokedTokens,
+                          RefreshTokenService refreshTokens,
+                          @Value("${rigsheet.auth.access-token-ttl:15m}") Duration accessTokenTtl,
+                          @Value("${rigsheet.auth.login.retry-after-seconds:2}") long loginRetryAfterSeconds) {
         this.userRepo = userRepo;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordVerifier = passwordVerifier;
         this.jwtUtil = jwtUtil;
+        this.tokenVersions = tokenVersions;
+        this.revokedTokens = revokedTokens;
+        this.refreshTokens = refreshTokens;
+        this.accessTokenTtl = accessTokenTtl;
+        this.loginRetryAfterSeconds = loginRetryAfterSeconds;
     }
 
     /**
      * POST /api/auth/login
      * Body: { "username": "...", "password": "..." }
-     * Returns: { "token": "...", "user": { id, username, displayName, roles } }
+     * Returns: { "token": "...", "refreshToken": "...", "user": { id, username, displayName, roles } }
+     *
+     * The access token is short-lived; use the refresh token with /api/auth/refresh.
+     * The BCrypt check runs on the bounded login pool (see PasswordVerificationExecutor);
+     * when that pool is saturated we answer 503 + Retry-After instead of queueing forever.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest req) {
-        UserProfile user = userRepo.findByUsername(req.getUsername()).orElse(null);
-        if (user == null) {
-            return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest req) {
+        UserProfile user = userRepo.findForLogin(req.getUsername()).orElse(null);
+        if (user == null || user.getPasswordHash() == null) {
+            return CompletableFuture.completedFuture(invalidCredentials());
         }
-        if (user.getPasswordHash() == null ||
-                !passwordEncoder.matches(req.getPassword(), user.getPasswordHash())) {
-            return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+
+        try {
+            return passwordVerifier.verify(user, req.getPassword())
+                    .thenApply(ok -> ok ? issueTokens(user) : invalidCredentials());
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginRetryAfterSeconds))
+                    .body(Map.of("error", "Too many login attempts, try again shortly")));
+        }
+    }
+
+    /**
+     * POST /api/auth/refresh
+     * Body: { "refreshToken": "..." }
+     * Returns: { "token": "...", "refreshToken": "...", "user": {...} }
+     *
+     * The presented refresh token is used up; the response carries its replacement.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest req) {
+        if (!StringUtils.hasText(req.getRefreshToken())) {
+            return invalidRefreshToken();
+        }
+        return refreshTokens.rotate(req.getRefreshToken())
+                .<ResponseEntity<?>>map(r -> tokenResponse(r.user(), r.refreshToken()))
+                .orElseGet(AuthController::invalidRefreshToken);
+    }
+
+    /**
+     * POST /api/auth/logout
+     * Body (optional): { "refreshToken": "..." }
+     * Revokes the bearer token on this request and the given refresh token's family.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+                                    @RequestBody(required = false) RefreshRequest req) {
+        if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtUtil.validateAndGetClaims(authHeader.substring(7));
+                if (claims.getId() != null) {
+                    revokedTokens.revoke(claims.getId(), claims.getExpiration().toInstant());
+                }
+            } catch (JwtException ex) {
+                // Already invalid/expired → nothing to revoke
+            }
         }
+        if (req != null && StringUtils.hasText(req.getRefreshToken())) {
+            refreshTokens.revoke(req.getRefreshToken());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<?> issueTokens(UserProfile user) {
+        return tokenResponse(user, refreshTokens.issue(user));
+    }
 
-        // 24h token TTL (adjust as needed)
-        long ttl = Duration.ofHours(24).toMillis();
-        String token = jwtUtil.generateToken(user.getUsername(), ttl);
+    private ResponseEntity<?> tokenResponse(UserProfile user, String refreshToken) {
+        // The row is read fresh, but a revocation can land after the read; never issue below the table
+        int tokenVersion = Math.max(user.getTokenVersion() == null ? 0 : user.getTokenVersion(),
+                tokenVersions.current(user.getUsername()));
+        String token = jwtUtil.generateToken(
+                user.getUsername(), user.getRoles(), tokenVersion, accessTokenTtl.toMillis());
 
         // Minimal user payload (omit sensitive fields)
         var userPayload = Map.of(
@@ -59,10 +145,38 @@ public class AuthController {
 
         return ResponseEntity.ok(Map.of(
                 "token", token,
+                "refreshToken", refreshToken,
                 "user", userPayload
         ));
     }
 
+    private static ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+    }
+
+    private static ResponseEntity<?> invalidRefreshToken() {
+        return ResponseEntity.status(401).body(Map.of("error", "Invalid refresh token"));
+    }
+
+    /**
+     * POST /api/auth/logout-all
+     * Revokes every token issued to the caller so far (all devices/sessions),
+     * including refresh tokens.
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth instanceof AnonymousAuthenticationToken || !auth.isAuthenticated()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        UserProfile user = userRepo.findByUsername(auth.getName()).orElse(null);
+        if (user == null || !tokenVersions.revokeAll(user.getUsername())) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        refreshTokens.revokeAllForUser(user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
     // (Optional) quick auth check endpoint
     @GetMapping("/me")
     public ResponseEntity<?> me() {
@@ -75,4 +189,9 @@ public class AuthController {
         @NotBlank private String username;
         @NotBlank private String password;
     }
+
+    @Data
+    public static class RefreshRequest {
+        private String refreshToken;
+    }
 }
\ No newline at end of file
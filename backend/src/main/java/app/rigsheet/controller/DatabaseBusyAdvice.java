@@ -0,0 +1,43 @@
+package app.rigsheet.controller;
+
+import app.rigsheet.config.DatabaseBulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Answers requests shed by the {@link DatabaseBulkhead} with 503 + Retry-After,
+ * like a saturated login pool (see AuthController). The bulkhead's exception reaches
+ * us wrapped by Hibernate and Spring (data access or transaction exceptions);
+ * anything else of those types is rethrown untouched.
+ */
+@RestControllerAdvice
+class DatabaseBusyAdvice {
+
+    private final long retryAfterSeconds;
+
+    DatabaseBusyAdvice(@Value("${rigsheet.db-bulkhead.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @ExceptionHandler({
+            org.springframework.dao.DataAccessException.class,
+            org.springframework.transaction.TransactionException.class,
+            jakarta.persistence.PersistenceException.class
+    })
+    ResponseEntity<Map<String, String>> databaseBusy(RuntimeException ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof DatabaseBulkhead.BusyException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                        .body(Map.of("error", "Server busy, try again shortly"));
+            }
+        }
+        throw ex;
+    }
+}
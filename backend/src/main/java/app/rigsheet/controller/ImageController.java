@@ -0,0 +1,175 @@
+package app.rigsheet.controller;
+
+import app.rigsheet.dto.ImageRef;
+import app.rigsheet.service.ImageStore;
+import app.rigsheet.service.ImageStore.Image;
+import app.rigsheet.service.ImageStore.Upload;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.media.*;
+import io.swagger.v3.oas.annotations.responses.*;
+import io.swagger.v3.oas.annotations.Parameter;
+
+/**
+ * Image uploads and downloads (see {@link ImageStore}).
+ *
+ * An image's URL is its SHA-256, so its bytes never change: responses are cacheable
+ * for a year ({@code immutable}) with the hash as ETag, and single byte ranges are
+ * honoured. Bodies go out through Tomcat's sendfile, straight from the page cache to
+ * the socket; on a connector without it, through {@link FileChannel#transferTo}.
+ */
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = "*") // tighten for prod (domain-based)
+@Tag(name = "Images", description = "Upload and serve build photos")
+public class ImageController {
+
+    // Tomcat's sendfile request attributes (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_FOREVER =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    private final ImageStore images;
+
+    public ImageController(ImageStore images) {
+        this.images = images;
+    }
+
+    @Operation(
+            summary = "Upload an image",
+            description = "The raw image as the body (JPEG, PNG, GIF or WebP, recognised by content). "
+                    + "Returns its `url`, to use as an `imageUrl`/`profileImageUrl`. "
+                    + "Uploading bytes that are already stored returns the existing image."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Stored",
+                    content = @Content(schema = @Schema(implementation = ImageRef.class))),
+            @ApiResponse(responseCode = "200", description = "Already stored",
+                    content = @Content(schema = @Schema(implementation = ImageRef.class))),
+            @ApiResponse(responseCode = "413", description = "Larger than rigsheet.images.max-size"),
+            @ApiResponse(responseCode = "415", description = "Not a supported image")
+    })
+    @PostMapping(consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ImageRef> upload(HttpServletRequest request, InputStream body) throws IOException {
+        if (request.getContentLengthLong() > images.maxBytes()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Images are limited to " + images.maxBytes() + " bytes");
+        }
+        Upload upload = images.store(body);
+        ImageRef image = upload.image();
+        if (!upload.created()) {
+            return ResponseEntity.ok().eTag(image.hash()).body(image);
+        }
+        return ResponseEntity.created(URI.create(image.url())).eTag(image.hash()).body(image);
+    }
+
+    /** GET /api/images/{hash} — the image, or the one byte range asked for. */
+    @Operation(
+            summary = "Get an image",
+            description = "Cacheable forever; the ETag is the hash. A single `Range: bytes=` range is "
+                    + "answered 206; multiple ranges get the whole image."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "206", description = "Partial Content (Range)"),
+            @ApiResponse(responseCode = "304", description = "Not Modified (If-None-Match)"),
+            @ApiResponse(responseCode = "404", description = "No such image"),
+            @ApiResponse(responseCode = "416", description = "Range Not Satisfiable")
+    })
+    @GetMapping("/{hash}")
+    public void getImage(
+            @Parameter(description = "SHA-256 of the image, lowercase hex", required = true)
+            @PathVariable String hash,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            ServletWebRequest webRequest) throws IOException {
+        HttpServletRequest request = webRequest.getRequest();
+        HttpServletResponse response = webRequest.getResponse();
+        // The content behind a hash can't change: a client holding the tag is current
+        if (ImageStore.isHash(hash) && webRequest.checkNotModified(hash)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_FOREVER);
+            return;
+        }
+        Image image = images.find(hash)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        long length = image.size();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_FOREVER);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(image.contentType().toString());
+
+        long start = 0;
+        long end = length - 1;
+        if (range != null && (ifRange == null || ifRange.trim().equals("\"" + hash + "\""))) {
+            Optional<HttpRange> requested = singleRange(range);
+            if (requested.isPresent()) {
+                try {
+                    start = requested.get().getRangeStart(length);
+                    end = requested.get().getRangeEnd(length);
+                } catch (IllegalArgumentException ex) {
+                    start = length; // unsatisfiable
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file once this returns; the path must be canonical
+            request.setAttribute(SENDFILE_FILENAME, image.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(image.path())) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start, remaining = count; remaining > 0; ) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break; // past the end: the file is shorter than it was a moment ago
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /** The range asked for, if exactly one well-formed one; anything else gets the whole image. */
+    private static Optional<HttpRange> singleRange(String header) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? Optional.of(ranges.get(0)) : Optional.empty();
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+}
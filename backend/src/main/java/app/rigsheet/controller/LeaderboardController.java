@@ -0,0 +1,87 @@
+package app.rigsheet.controller;
+
+import app.rigsheet.dto.BrandRank;
+import app.rigsheet.dto.VehicleRank;
+import app.rigsheet.service.LeaderboardService;
+import app.rigsheet.service.LeaderboardService.VehicleBoard;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.media.*;
+import io.swagger.v3.oas.annotations.responses.*;
+import io.swagger.v3.oas.annotations.Parameter;
+
+/**
+ * Public community leaderboards, served from memory (see {@link LeaderboardService}).
+ * Boards reflect committed writes on this node immediately, and other nodes' writes
+ * after the next periodic rebuild.
+ */
+@RestController
+@RequestMapping("/api/leaderboards")
+@CrossOrigin(origins = "*") // tighten for prod (domain-based)
+@Tag(name = "Leaderboards", description = "Top rigs and brands across the community")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboards;
+
+    public LeaderboardController(LeaderboardService leaderboards) {
+        this.leaderboards = leaderboards;
+    }
+
+    /** GET /api/leaderboards/vehicles/{board}?limit= — top vehicles by cost, weight or mods. */
+    @Operation(
+            summary = "Top vehicles",
+            description = "Vehicles ranked by total mod cost (`cost`), total added weight (`weight`) "
+                    + "or number of mods (`mods`), highest first; ties go to the lower vehicle id."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = VehicleRank.class)))),
+            @ApiResponse(responseCode = "400", description = "Unknown leaderboard")
+    })
+    @GetMapping("/vehicles/{board}")
+    public ResponseEntity<List<VehicleRank>> topVehicles(
+            @Parameter(description = "cost, weight or mods", example = "cost")
+            @PathVariable String board,
+            @Parameter(description = "Number of entries (capped server-side)", example = "10")
+            @RequestParam(required = false) Integer limit) {
+        VehicleBoard b = VehicleBoard.fromKey(board)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown leaderboard: " + board));
+        return ResponseEntity.ok(leaderboards.topVehicles(b, limit));
+    }
+
+    /** GET /api/leaderboards/brands — categories with a brand leaderboard. */
+    @Operation(summary = "Brand leaderboard categories", description = "Categories that have at least one branded mod.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK")
+    })
+    @GetMapping("/brands")
+    public ResponseEntity<List<String>> brandCategories() {
+        return ResponseEntity.ok(leaderboards.brandCategories());
+    }
+
+    /** GET /api/leaderboards/brands/{category}?limit= — most used brands in a category. */
+    @Operation(
+            summary = "Top brands in a category",
+            description = "Brands ranked by how many mods in the category use them. "
+                    + "Mods without a category are listed under `uncategorized`; an unknown category is empty."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BrandRank.class))))
+    })
+    @GetMapping("/brands/{category}")
+    public ResponseEntity<List<BrandRank>> topBrands(
+            @Parameter(description = "Mod category", example = "Suspension")
+            @PathVariable String category,
+            @Parameter(description = "Number of entries (capped server-side)", example = "10")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(leaderboards.topBrands(category, limit));
+    }
+}
@@ -1,13 +1,29 @@
 package app.rigsheet.controller;
 
+import app.rigsheet.dto.CursorPage;
+import app.rigsheet.dto.ModBatchRequest;
+import app.rigsheet.dto.ModBatchResult;
+import app.rigsheet.dto.ModImportReport;
+import app.rigsheet.dto.ModSearchCriteria;
+import app.rigsheet.dto.ModView;
 import app.rigsheet.model.Modification;
 import app.rigsheet.model.VehicleInfo;
+import app.rigsheet.service.DataFormat;
+import app.rigsheet.service.ExportService;
+import app.rigsheet.service.ModImportService;
 import app.rigsheet.service.ModificationService;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,52 +39,136 @@ import io.swagger.v3.oas.annotations.Parameter;
 public class ModificationController {
 
     private final ModificationService modService;
+    private final ModImportService importService;
+    private final ExportService exportService;
+    private final PublicReads publicReads;
 
-    public ModificationController(ModificationService modService) {
+    public ModificationController(ModificationService modService,
+                                  ModImportService importService,
+                                  ExportService exportService,
+                                  PublicReads publicReads) {
         this.modService = modService;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.publicReads = publicReads;
     }
 
-    @Operation(summary = "List all modifications")
+    @Operation(
+            summary = "List all modifications (paginated)",
+            description = "Keyset-paginated. Pass the returned `nextCursor` as `cursor` to fetch the next page; "
+                    + "it is null on the last page. A cursor only works with the `sort` it was issued for."
+    )
     @ApiResponse(responseCode = "200", description = "OK",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Modification.class))))
+            content = @Content(schema = @Schema(implementation = CursorPage.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or sort")
     @GetMapping
-    public List<Modification> getAllMods() {
-        return modService.getAllMods();
+    public CursorPage<ModView> getAllMods(
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped server-side)", example = "50")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Ordering: id (default), cost, or -cost (most expensive first)", example = "id")
+            @RequestParam(required = false) String sort) {
+        return modService.getAllMods(cursor, limit, sort);
+    }
+
+    @Operation(
+            summary = "Search modifications",
+            description = "Combines any of the filters below (all optional, ANDed; ranges inclusive). "
+                    + "Keyset-paginated like the list endpoints; a cursor only works with the `sort` it was issued for."
+    )
+    @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = CursorPage.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or sort")
+    @GetMapping("/search")
+    public CursorPage<ModView> searchMods(
+            @Parameter(description = "Category name", example = "Suspension")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Brand name", example = "TrailMaster")
+            @RequestParam(required = false) String brand,
+            @Parameter(description = "Only sponsored (true) or only unsponsored (false) mods")
+            @RequestParam(required = false) Boolean sponsored,
+            @RequestParam(required = false) Double minCost,
+            @RequestParam(required = false) Double maxCost,
+            @RequestParam(required = false) Double minWeight,
+            @RequestParam(required = false) Double maxWeight,
+            @Parameter(description = "Vehicle make", example = "Toyota")
+            @RequestParam(required = false) String make,
+            @Parameter(description = "Vehicle model", example = "4Runner")
+            @RequestParam(required = false) String model,
+            @Parameter(description = "Ordering: id (default), cost, -cost, weight, -weight", example = "-cost")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped server-side)", example = "50")
+            @RequestParam(required = false) Integer limit) {
+        var criteria = new ModSearchCriteria(
+                category, brand, sponsored, minCost, maxCost, minWeight, maxWeight, make, model);
+        return modService.searchMods(criteria, cursor, limit, sort);
+    }
+
+    @Operation(
+            summary = "Full-text search modifications",
+            description = "Ranked search over name, brand and category (best match first). "
+                    + "Supports web-search syntax: \"quoted phrase\", `or`, `-exclude`. Keyset-paginated."
+    )
+    @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = CursorPage.class)))
+    @ApiResponse(responseCode = "400", description = "Missing search text or invalid cursor")
+    @GetMapping("/search/text")
+    public CursorPage<ModView> searchModsByText(
+            @Parameter(description = "Search text", required = true, example = "lift kit")
+            @RequestParam String q,
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped server-side)", example = "50")
+            @RequestParam(required = false) Integer limit) {
+        return modService.searchModsByText(q, cursor, limit);
     }
 
     @Operation(summary = "Get modification by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Found",
-                    content = @Content(schema = @Schema(implementation = Modification.class))),
+                    content = @Content(schema = @Schema(implementation = ModView.class))),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Modification> getModById(
+    public ResponseEntity<ModView> getModById(
             @Parameter(description = "Modification ID", required = true, example = "1")
             @PathVariable Long id) {
         return modService.getModById(id)
-                .map(ResponseEntity::ok)
+                .map(m -> ResponseEntity.ok().eTag(VersionTags.of(m.version())).body(m))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "List modifications by user profile ID")
     @ApiResponse(responseCode = "200", description = "OK",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Modification.class))))
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ModView.class))))
     @GetMapping("/user/{userProfileId}")
-    public List<Modification> getByUserProfileId(
+    public List<ModView> getByUserProfileId(
             @Parameter(description = "User profile ID", example = "1")
             @PathVariable Long userProfileId) {
         return modService.getModByUserId(userProfileId);
     }
 
-    @Operation(summary = "List modifications by vehicle ID")
-    @ApiResponse(responseCode = "200", description = "OK",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Modification.class))))
+    @Operation(
+            summary = "List modifications by vehicle ID",
+            description = "Public and cacheable: send the returned ETag as `If-None-Match` to get a 304 "
+                    + "while the vehicle's mods are unchanged."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = ModView.class)))),
+            @ApiResponse(responseCode = "304", description = "Not Modified")
+    })
     @GetMapping("/vehicle/{vehicleInfoId}")
-    public List<Modification> getByVehicleInfoId(
+    public ResponseEntity<List<ModView>> getByVehicleInfoId(
             @Parameter(description = "Vehicle ID", example = "1")
-            @PathVariable Long vehicleInfoId) {
-        return modService.getModbyVehicleInfoId(vehicleInfoId);
+            @PathVariable Long vehicleInfoId,
+            WebRequest request) {
+        long modsVersion = modService.getVehicleModsVersion(vehicleInfoId);
+        return publicReads.get(request, Optional.of(VersionTags.of(modsVersion)),
+                () -> Optional.of(modService.getModsByVehicleInfoId(vehicleInfoId, modsVersion)));
     }
 
     @Operation(
@@ -77,11 +177,11 @@ public class ModificationController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Created",
-                    content = @Content(schema = @Schema(implementation = Modification.class))),
+                    content = @Content(schema = @Schema(implementation = ModView.class))),
             @ApiResponse(responseCode = "400", description = "Bad Request")
     })
     @PostMapping
-    public ResponseEntity<Modification> createMod(
+    public ResponseEntity<ModView> createMod(
             @RequestBody(
                     description = "Modification to create",
                     required = true,
@@ -106,82 +206,209 @@ public class ModificationController {
         if (vehicle == null || vehicle.getId() == null) {
             return ResponseEntity.badRequest().build();
         }
-        Modification created = modService.createMod(mod);
-        URI location = URI.create(String.format("/api/mods/%d", created.getId()));
-        return ResponseEntity.created(location).body(created);
+        ModView created = modService.createMod(mod);
+        URI location = URI.create(String.format("/api/mods/%d", created.id()));
+        return ResponseEntity.created(location).eTag(VersionTags.of(created.version())).body(created);
     }
 
-    @Operation(summary = "Update a modification")
+    @Operation(
+            summary = "Edit one vehicle's modifications in a single request",
+            description = "Applies a list of create/update/delete operations to the mods of `vehicleInfoId`, "
+                    + "all-or-nothing, in one transaction. `fields` uses the response field names (merge-patch "
+                    + "style); `version` makes an update/delete conditional. The result lists each operation's "
+                    + "status; if any failed, nothing was applied."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "All operations applied",
+                    content = @Content(schema = @Schema(implementation = ModBatchResult.class))),
+            @ApiResponse(responseCode = "400", description = "Malformed batch or operation (nothing applied)"),
+            @ApiResponse(responseCode = "404", description = "Vehicle or a target mod not found (nothing applied)"),
+            @ApiResponse(responseCode = "409", description = "A target mod changed concurrently (nothing applied)")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<ModBatchResult> applyBatch(
+            @RequestBody(
+                    description = "Operations for one vehicle, applied in order",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = ModBatchRequest.class),
+                            examples = @ExampleObject(value = """
+                                {
+                                  "vehicleInfoId": 1,
+                                  "operations": [
+                                    { "op": "create", "fields": { "name": "Rock Sliders", "category": "Armor", "cost": 650 } },
+                                    { "op": "update", "id": 12, "version": 3, "fields": { "category": "Recovery" } },
+                                    { "op": "delete", "id": 15 }
+                                  ]
+                                }
+                                """))
+            )
+            @org.springframework.web.bind.annotation.RequestBody ModBatchRequest batch) {
+        ModBatchResult result = modService.applyBatch(batch);
+        if (result.committed()) {
+            return ResponseEntity.ok(result);
+        }
+        int status = result.results().stream()
+                .filter(ModBatchResult.OperationResult::failed)
+                .mapToInt(ModBatchResult.OperationResult::status)
+                .findFirst().orElse(HttpStatus.CONFLICT.value());
+        return ResponseEntity.status(status).body(result);
+    }
+
+    @Operation(
+            summary = "Bulk import modifications",
+            description = "Streams a CSV (header row, then one mod per record; quoted values may span lines) or NDJSON (one JSON object per line) body. "
+                    + "Columns/fields: name (required), category, brand, sponsored, reviewUrl, cost, weight, imageUrl, "
+                    + "vehicleInfoId, userProfileId. Rows are validated and written in batches; "
+                    + "the report lists failed rows by the line they start on, plus throughput."
+    )
+    @ApiResponse(responseCode = "200", description = "Import finished (check `failed`/`errors` for rejected rows)",
+            content = @Content(schema = @Schema(implementation = ModImportReport.class)))
+    @ApiResponse(responseCode = "400", description = "Unreadable CSV header")
+    @ApiResponse(responseCode = "415", description = "Body is neither text/csv nor application/x-ndjson")
+    @PostMapping(value = "/import", consumes = {DataFormat.TEXT_CSV, DataFormat.APPLICATION_NDJSON})
+    public ModImportReport importMods(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @Parameter(description = "Vehicle for rows that don't set vehicleInfoId", example = "1")
+            @RequestParam(required = false) Long vehicleInfoId,
+            InputStream body) throws IOException {
+        DataFormat format = DataFormat.fromMediaType(contentType)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+        return importService.importMods(body, format, vehicleInfoId);
+    }
+
+    @Operation(
+            summary = "Export all modifications",
+            description = "Streams every modification in id order as NDJSON (default) or CSV, in constant memory. "
+                    + "Associations are flattened to vehicleInfoId/userProfileId; the CSV, line breaks inside values included, re-imports via /api/mods/import."
+    )
+    @ApiResponse(responseCode = "200", description = "OK")
+    @ApiResponse(responseCode = "400", description = "Unsupported format")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMods(
+            @Parameter(description = "ndjson (default) or csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format) {
+        DataFormat f = DataFormat.fromKey(format)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format: " + format));
+        return ResponseEntity.ok()
+                .contentType(f.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"mods." + f.key() + "\"")
+                .body(out -> exportService.exportMods(f, out));
+    }
+
+    @Operation(
+            summary = "Update a modification",
+            description = "Replaces the modification's fields; an omitted `vehicleInfo` keeps the current vehicle. "
+                    + "Send the ETag you read as If-Match (or its `version` in the body) to update only if "
+                    + "nobody else has since."
+    )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Updated",
-                    content = @Content(schema = @Schema(implementation = Modification.class))),
+                    content = @Content(schema = @Schema(implementation = ModView.class))),
             @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)"),
             @ApiResponse(responseCode = "400", description = "Bad Request")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<Modification> updateMod(
+    public ResponseEntity<ModView> updateMod(
             @Parameter(description = "Modification ID to update", example = "1")
             @PathVariable Long id,
+            @Parameter(description = "ETag of the version being replaced, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @org.springframework.web.bind.annotation.RequestBody Modification updatedMod) {
-        var existingOpt = modService.getModById(id);
-        if (existingOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-
-        var existing = existingOpt.get();
-        updatedMod.setId(id);
-
-        if (updatedMod.getVehicleInfo() == null) {
-            updatedMod.setVehicleInfo(existing.getVehicleInfo());
-        } else if (updatedMod.getVehicleInfo().getId() == null) {
+        if (updatedMod.getVehicleInfo() != null && updatedMod.getVehicleInfo().getId() == null) {
             return ResponseEntity.badRequest().build();
         }
+        Long expected = ifMatch != null ? VersionTags.expected(ifMatch) : updatedMod.getVersion();
+        ModView saved = modService.updateMod(id, updatedMod, expected);
+        return ResponseEntity.ok().eTag(VersionTags.of(saved.version())).body(saved);
+    }
 
-        Modification saved = modService.updateMod(updatedMod);
-        return ResponseEntity.ok(saved);
+    @Operation(
+            summary = "Partially update a modification",
+            description = "JSON merge patch over the response fields: only the fields sent change, null clears one. "
+                    + "Links are set by id (`vehicleInfoId`, `userProfileId`). Conditional like PUT."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Updated",
+                    content = @Content(schema = @Schema(implementation = ModView.class))),
+            @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)"),
+            @ApiResponse(responseCode = "400", description = "Unknown field or invalid value")
+    })
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<ModView> patchMod(
+            @Parameter(description = "Modification ID to update", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the version being patched, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody(
+                    description = "Fields to change",
+                    required = true,
+                    content = @Content(examples = @ExampleObject(value = """
+                                {
+                                  "cost": 849.99,
+                                  "brand": null
+                                }
+                                """))
+            )
+            @org.springframework.web.bind.annotation.RequestBody Map<String, Object> changes) {
+        ModView saved = modService.patchMod(id, changes, VersionTags.expected(ifMatch));
+        return ResponseEntity.ok().eTag(VersionTags.of(saved.version())).body(saved);
     }
 
-    @Operation(summary = "Delete a modification")
+    @Operation(summary = "Delete a modification", description = "Conditional on If-Match when sent.")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "No Content"),
-            @ApiResponse(responseCode = "404", description = "Not Found")
+            @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMod(
             @Parameter(description = "Modification ID to delete", example = "1")
-            @PathVariable Long id) {
-        if (modService.getModById(id).isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-        modService.deleteMod(id);
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the version being deleted, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        modService.deleteMod(id, VersionTags.expected(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "List modifications by category")
+    @Operation(summary = "List modifications by category (paginated)")
     @ApiResponse(responseCode = "200", description = "OK",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Modification.class))))
+            content = @Content(schema = @Schema(implementation = CursorPage.class)))
     @GetMapping("/category/{category}")
-    public List<Modification> getModsByCategory(
+    public CursorPage<ModView> getModsByCategory(
             @Parameter(description = "Category name", example = "Suspension")
-            @PathVariable String category) {
-        return modService.getModsByCategory(category);
+            @PathVariable String category,
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped server-side)", example = "50")
+            @RequestParam(required = false) Integer limit) {
+        return modService.getModsByCategory(category, cursor, limit);
     }
 
-    @Operation(summary = "List modifications by brand")
+    @Operation(summary = "List modifications by brand (paginated)")
     @ApiResponse(responseCode = "200", description = "OK",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Modification.class))))
+            content = @Content(schema = @Schema(implementation = CursorPage.class)))
     @GetMapping("/brand/{brand}")
-    public List<Modification> getModsByBrand(
+    public CursorPage<ModView> getModsByBrand(
             @Parameter(description = "Brand name", example = "TrailMaster")
-            @PathVariable String brand) {
-        return modService.getModsByBrand(brand);
+            @PathVariable String brand,
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped server-side)", example = "50")
+            @RequestParam(required = false) Integer limit) {
+        return modService.getModsByBrand(brand, cursor, limit);
     }
 
-    @Operation(summary = "List sponsored modifications")
+    @Operation(summary = "List sponsored modifications (paginated)")
     @ApiResponse(responseCode = "200", description = "OK",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Modification.class))))
+            content = @Content(schema = @Schema(implementation = CursorPage.class)))
     @GetMapping("/sponsored")
-    public List<Modification> getSponsoredMods() {
-        return modService.getSponsoredMods();
+    public CursorPage<ModView> getSponsoredMods(
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped server-side)", example = "50")
+            @RequestParam(required = false) Integer limit) {
+        return modService.getSponsoredMods(cursor, limit);
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package app.rigsheet.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GETs for the public reads that shared build links hit over and over
+ * (profiles, a user's vehicle, a vehicle's mods and summary, whole rigs).
+ *
+ * Each has a strong ETag made of versions the write path keeps in the database,
+ * fetched with one indexed lookup, so a matching {@code If-None-Match} is answered
+ * 304 before the view is loaded or serialized. The tag is read before the body: a
+ * write racing the read can only leave the tag older than the body, which costs
+ * the client a 200 next time, never a stale 304.
+ *
+ * Browsers always revalidate ({@code max-age=0}); CDNs and proxies may serve a copy
+ * for {@code rigsheet.http-cache.shared-max-age}, and a bit longer while they revalidate.
+ */
+@Component
+class PublicReads {
+
+    private final CacheControl cacheControl;
+
+    PublicReads(@Value("${rigsheet.http-cache.shared-max-age:30s}") Duration sharedMaxAge,
+                @Value("${rigsheet.http-cache.stale-while-revalidate:60s}") Duration staleWhileRevalidate) {
+        this.cacheControl = CacheControl.maxAge(Duration.ZERO)
+                .sMaxAge(sharedMaxAge)
+                .staleWhileRevalidate(staleWhileRevalidate)
+                .cachePublic();
+    }
+
+    /**
+     * @param tag  the resource's current ETag; empty if unknown, and the read decides (e.g. 404)
+     * @param read the full read, run only when the client has no current copy
+     */
+    <T> ResponseEntity<T> get(WebRequest request, Optional<String> tag, Supplier<Optional<T>> read) {
+        // checkNotModified also sets the ETag header, on the 304 and on the 200 below
+        if (tag.isPresent() && request.checkNotModified(tag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return read.get()
+                .map(body -> ResponseEntity.ok().cacheControl(cacheControl).body(body))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
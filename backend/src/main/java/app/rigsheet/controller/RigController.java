@@ -0,0 +1,55 @@
+package app.rigsheet.controller;
+
+import app.rigsheet.dto.RigView;
+import app.rigsheet.service.RigService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.media.*;
+import io.swagger.v3.oas.annotations.responses.*;
+import io.swagger.v3.oas.annotations.Parameter;
+
+/**
+ * Public rig pages: a user's profile, vehicle and mods in one response,
+ * instead of three serial calls.
+ */
+@RestController
+@RequestMapping("/api/rigs")
+@CrossOrigin(origins = "*") // tighten for prod (domain-based)
+@Tag(name = "Rigs", description = "Public build sheets")
+public class RigController {
+
+    private final RigService rigService;
+    private final PublicReads publicReads;
+
+    public RigController(RigService rigService, PublicReads publicReads) {
+        this.rigService = rigService;
+        this.publicReads = publicReads;
+    }
+
+    /** GET /api/rigs/{username} — the whole public build sheet. */
+    @Operation(
+            summary = "Get a user's rig",
+            description = "The profile, the user's vehicle with its build totals, and the vehicle's mods. "
+                    + "`vehicle` is null (and `mods` empty) for a user without a vehicle."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Found",
+                    content = @Content(schema = @Schema(implementation = RigView.class))),
+            @ApiResponse(responseCode = "304", description = "Not Modified (If-None-Match)"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @GetMapping("/{username}")
+    public ResponseEntity<RigView> getRig(
+            @Parameter(description = "Username", required = true, example = "trailboss")
+            @PathVariable String username,
+            WebRequest request) {
+        Optional<RigView> header = rigService.getRigHeader(username);
+        return publicReads.get(request, header.map(RigService::tag), () -> header.map(rigService::withMods));
+    }
+}
@@ -1,13 +1,16 @@
 package app.rigsheet.controller;
 
+import app.rigsheet.dto.CursorPage;
+import app.rigsheet.dto.UserProfileView;
 import app.rigsheet.model.UserProfile;
 import app.rigsheet.service.UserProfileService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
-import java.util.List;
+import java.util.Map;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -20,7 +23,7 @@ import io.swagger.v3.oas.annotations.Parameter;
  * REST controller for UserProfile CRUD/read operations.
  *
  * Notes:
- * - Uses entities directly (no DTOs) to match existing project style.
+ * - Accepts the entity as the request body; responses are {@link UserProfileView}s.
  * - POST is for create (201 Created), PUT is for update (200 OK).
  * - A "list all" endpoint is included for admin/testing convenience.
  */
@@ -31,24 +34,31 @@ import io.swagger.v3.oas.annotations.Parameter;
 public class UserProfileController {
 
     private final UserProfileService userProfileService;
+    private final PublicReads publicReads;
 
     @Autowired
-    public UserProfileController(UserProfileService userProfileService){
+    public UserProfileController(UserProfileService userProfileService, PublicReads publicReads){
         this.userProfileService = userProfileService;
+        this.publicReads = publicReads;
     }
 
-    /** GET /api/user-profiles */
+    /** GET /api/user-profiles?cursor=&limit= */
     @Operation(
             summary = "List all user profiles",
-            description = "Returns all user profiles. Useful for admin/testing. Consider pagination if this grows."
+            description = "Returns a page of user profiles. Useful for admin/testing. Keyset-paginated: pass the returned `nextCursor` as `cursor` for the next page."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "OK",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = UserProfile.class))))
+                    content = @Content(schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
     @GetMapping
-    public ResponseEntity<List<UserProfile>> getAll() {
-        return ResponseEntity.ok(userProfileService.getAllUserProfiles());
+    public ResponseEntity<CursorPage<UserProfileView>> getAll(
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped server-side)", example = "50")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userProfileService.getAllUserProfiles(cursor, limit));
     }
 
     /** GET /api/user-profiles/username/{username} */
@@ -58,16 +68,18 @@ public class UserProfileController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Found",
-                    content = @Content(schema = @Schema(implementation = UserProfile.class))),
+                    content = @Content(schema = @Schema(implementation = UserProfileView.class))),
+            @ApiResponse(responseCode = "304", description = "Not Modified (If-None-Match)"),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/username/{username}")
-    public ResponseEntity<UserProfile> getByUsername(
+    public ResponseEntity<UserProfileView> getByUsername(
             @Parameter(description = "Unique username/handle", required = true)
-            @PathVariable String username) {
-        return userProfileService.getUserProfileByUsername(username)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+            @PathVariable String username,
+            WebRequest request) {
+        return publicReads.get(request,
+                userProfileService.getVersionByUsername(username).map(VersionTags::of),
+                () -> userProfileService.getUserProfileByUsername(username));
     }
 
     /** GET /api/user-profiles/{id} */
@@ -77,21 +89,23 @@ public class UserProfileController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Found",
-                    content = @Content(schema = @Schema(implementation = UserProfile.class))),
+                    content = @Content(schema = @Schema(implementation = UserProfileView.class))),
+            @ApiResponse(responseCode = "304", description = "Not Modified (If-None-Match)"),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<UserProfile> getById(
+    public ResponseEntity<UserProfileView> getById(
             @Parameter(description = "User profile ID", required = true, example = "1")
-            @PathVariable Long id) {
-        return userProfileService.getUserProfileById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+            @PathVariable Long id,
+            WebRequest request) {
+        return publicReads.get(request,
+                userProfileService.getVersionById(id).map(VersionTags::of),
+                () -> userProfileService.getUserProfileById(id));
     }
 
     /**
      * POST /api/user-profiles  — Create a new user profile.
-     * Returns 201 Created with the saved entity in the body.
+     * Returns 201 Created with the saved profile in the body.
      *
      * Tip: callers should omit "id" for create; if present, JPA may treat this as an update.
      */
@@ -101,11 +115,11 @@ public class UserProfileController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Created",
-                    content = @Content(schema = @Schema(implementation = UserProfile.class))),
+                    content = @Content(schema = @Schema(implementation = UserProfileView.class))),
             @ApiResponse(responseCode = "400", description = "Bad Request")
     })
     @PostMapping
-    public ResponseEntity<UserProfile> create(
+    public ResponseEntity<UserProfileView> create(
             @RequestBody(
                     description = "User profile to create",
                     required = true,
@@ -125,29 +139,33 @@ public class UserProfileController {
             )
             @org.springframework.web.bind.annotation.RequestBody UserProfile profile
     ) {
-        UserProfile saved = userProfileService.saveUserProfile(profile);
-        URI location = URI.create(String.format("/api/user-profiles/%d", saved.getId()));
-        return ResponseEntity.created(location).body(saved);
+        UserProfileView saved = userProfileService.saveUserProfile(profile);
+        URI location = URI.create(String.format("/api/user-profiles/%d", saved.id()));
+        return ResponseEntity.created(location).eTag(VersionTags.of(saved.version())).body(saved);
     }
 
     /**
      * PUT /api/user-profiles/{id} — Update an existing user profile.
-     * Returns 200 OK if updated, 404 if the id does not exist.
+     * Returns 200 OK if updated, 404 if the id does not exist, 409 if If-Match names an older version.
      */
     @Operation(
             summary = "Update an existing user profile",
-            description = "Updates all provided fields of the user profile identified by the path ID."
+            description = "Updates all provided fields of the user profile identified by the path ID. "
+                    + "Send the ETag you read as If-Match to update only if nobody else has since."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Updated",
-                    content = @Content(schema = @Schema(implementation = UserProfile.class))),
+                    content = @Content(schema = @Schema(implementation = UserProfileView.class))),
             @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)"),
             @ApiResponse(responseCode = "400", description = "Bad Request")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<UserProfile> update(
+    public ResponseEntity<UserProfileView> update(
             @Parameter(description = "User profile ID to update", required = true, example = "1")
             @PathVariable Long id,
+            @Parameter(description = "ETag of the version being replaced, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody(
                     description = "Updated user profile data (ID is taken from path)",
                     required = true,
@@ -167,32 +185,60 @@ public class UserProfileController {
             )
             @org.springframework.web.bind.annotation.RequestBody UserProfile profile
     ) {
-        return userProfileService.getUserProfileById(id)
-                .map(existing -> {
-                    profile.setId(id);
-                    UserProfile updated = userProfileService.saveUserProfile(profile);
-                    return ResponseEntity.ok(updated);
-                })
-                .orElse(ResponseEntity.notFound().build());
+        Long expected = ifMatch != null ? VersionTags.expected(ifMatch) : profile.getVersion();
+        UserProfileView updated = userProfileService.updateUserProfile(id, profile, expected);
+        return ResponseEntity.ok().eTag(VersionTags.of(updated.version())).body(updated);
     }
 
-    /** DELETE /api/user-profiles/{id} — 204 No Content (idempotent). */
+    /** PATCH /api/user-profiles/{id} — change only the fields sent (JSON merge patch). */
+    @Operation(
+            summary = "Partially update a user profile",
+            description = "JSON merge patch: only the fields sent change, null clears one. Conditional like PUT."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Updated",
+                    content = @Content(schema = @Schema(implementation = UserProfileView.class))),
+            @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)"),
+            @ApiResponse(responseCode = "400", description = "Unknown field or invalid value")
+    })
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<UserProfileView> patch(
+            @Parameter(description = "User profile ID to update", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the version being patched, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody(
+                    description = "Fields to change",
+                    required = true,
+                    content = @Content(examples = @ExampleObject(value = """
+                                    {
+                                      "location": "UT, USA"
+                                    }
+                                    """))
+            )
+            @org.springframework.web.bind.annotation.RequestBody Map<String, Object> changes) {
+        UserProfileView updated = userProfileService.patchUserProfile(id, changes, VersionTags.expected(ifMatch));
+        return ResponseEntity.ok().eTag(VersionTags.of(updated.version())).body(updated);
+    }
+
+    /** DELETE /api/user-profiles/{id} — 204 No Content. */
     @Operation(
             summary = "Delete a user profile",
             description = "Deletes the user profile by ID. Returns 204 if deleted, 404 if not found."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "No Content"),
-            @ApiResponse(responseCode = "404", description = "Not Found")
+            @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(
             @Parameter(description = "User profile ID to delete", required = true, example = "1")
-            @PathVariable Long id) {
-        if (userProfileService.getUserProfileById(id).isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-        userProfileService.deleteUserProfile(id);
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the version being deleted, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userProfileService.deleteUserProfile(id, VersionTags.expected(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -1,13 +1,22 @@
 package app.rigsheet.controller;
 
+import app.rigsheet.dto.CursorPage;
+import app.rigsheet.dto.VehicleView;
+import app.rigsheet.model.VehicleBuildSummary;
 import app.rigsheet.model.VehicleInfo;
+import app.rigsheet.service.BuildSummaryService;
+import app.rigsheet.service.DataFormat;
+import app.rigsheet.service.ExportService;
 import app.rigsheet.service.VehicleInfoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
-import java.util.List;
+import java.util.Map;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,7 +30,7 @@ import io.swagger.v3.oas.annotations.Parameter;
  *
  * <p>Notes:</p>
  * <ul>
- *   <li>Uses entities directly (no DTOs) to match the project’s current style.</li>
+ *   <li>Accepts the entity as the request body; responses are {@link VehicleView}s.</li>
  *   <li>POST returns 201 Created and includes a Location header.</li>
  *   <li>PUT enforces the path id and preserves existing relationships when omitted.</li>
  *   <li>DELETE returns 404 if the vehicle does not exist (friendlier than silent no-op).</li>
@@ -34,24 +43,60 @@ import io.swagger.v3.oas.annotations.Parameter;
 public class VehicleInfoController {
 
     private final VehicleInfoService vehicleInfoService;
+    private final BuildSummaryService buildSummaryService;
+    private final ExportService exportService;
+    private final PublicReads publicReads;
 
     @Autowired
-    public VehicleInfoController(VehicleInfoService vehicleInfoService) {
+    public VehicleInfoController(VehicleInfoService vehicleInfoService,
+                                 BuildSummaryService buildSummaryService,
+                                 ExportService exportService,
+                                 PublicReads publicReads) {
         this.vehicleInfoService = vehicleInfoService;
+        this.buildSummaryService = buildSummaryService;
+        this.exportService = exportService;
+        this.publicReads = publicReads;
     }
 
-    /** GET /api/vehicles — list all vehicles (handy for admin/testing). */
+    /** GET /api/vehicles?cursor=&limit= — page through all vehicles (handy for admin/testing). */
     @Operation(
             summary = "List all vehicles",
-            description = "Returns all vehicle records. Useful for admin/testing. Consider pagination if this grows."
+            description = "Returns a page of vehicle records. Useful for admin/testing. Keyset-paginated: pass the returned `nextCursor` as `cursor` for the next page."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "OK",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = VehicleInfo.class))))
+                    content = @Content(schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
     @GetMapping
-    public ResponseEntity<List<VehicleInfo>> getAllVehicles() {
-        return ResponseEntity.ok(vehicleInfoService.getAllVehicles());
+    public ResponseEntity<CursorPage<VehicleView>> getAllVehicles(
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped server-side)", example = "50")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(vehicleInfoService.getAllVehicles(cursor, limit));
+    }
+
+    /** GET /api/vehicles/export?format=ndjson|csv — stream every vehicle (analytics exports). */
+    @Operation(
+            summary = "Export all vehicles",
+            description = "Streams every vehicle in id order as NDJSON (default) or CSV, in constant memory. "
+                    + "The owning user is flattened to userProfileId."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Unsupported format")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportVehicles(
+            @Parameter(description = "ndjson (default) or csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format) {
+        DataFormat f = DataFormat.fromKey(format)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format: " + format));
+        return ResponseEntity.ok()
+                .contentType(f.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"vehicles." + f.key() + "\"")
+                .body(out -> exportService.exportVehicles(f, out));
     }
 
     /** GET /api/vehicles/{id} — fetch a vehicle by id. */
@@ -61,18 +106,40 @@ public class VehicleInfoController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Found",
-                    content = @Content(schema = @Schema(implementation = VehicleInfo.class))),
+                    content = @Content(schema = @Schema(implementation = VehicleView.class))),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<VehicleInfo> getVehicleById(
+    public ResponseEntity<VehicleView> getVehicleById(
             @Parameter(description = "Vehicle ID", required = true, example = "1")
             @PathVariable Long id) {
         return vehicleInfoService.getVehicleById(id)
-                .map(ResponseEntity::ok)
+                .map(v -> ResponseEntity.ok().eTag(VersionTags.of(v.version())).body(v))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /** GET /api/vehicles/{id}/summary — build totals (count, cost, weight, per category). */
+    @Operation(
+            summary = "Get a vehicle's build summary",
+            description = "Mod count, total cost and weight, and the same per category. "
+                    + "Maintained incrementally on every mod write, so this is a single-row read."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Found",
+                    content = @Content(schema = @Schema(implementation = VehicleBuildSummary.class))),
+            @ApiResponse(responseCode = "304", description = "Not Modified (If-None-Match)"),
+            @ApiResponse(responseCode = "404", description = "Vehicle not found")
+    })
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<VehicleBuildSummary> getBuildSummary(
+            @Parameter(description = "Vehicle ID", required = true, example = "1")
+            @PathVariable Long id,
+            WebRequest request) {
+        return publicReads.get(request,
+                buildSummaryService.getModsVersion(id).map(VersionTags::of),
+                () -> buildSummaryService.getSummary(id));
+    }
+
     /** GET /api/vehicles/user/{userProfileId} — fetch a vehicle by owning user id (assumes 1:1). */
     @Operation(
             summary = "Get vehicle by User Profile ID",
@@ -80,16 +147,18 @@ public class VehicleInfoController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Found",
-                    content = @Content(schema = @Schema(implementation = VehicleInfo.class))),
+                    content = @Content(schema = @Schema(implementation = VehicleView.class))),
+            @ApiResponse(responseCode = "304", description = "Not Modified (If-None-Match)"),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/user/{userProfileId}")
-    public ResponseEntity<VehicleInfo> getByUserProfileId(
+    public ResponseEntity<VehicleView> getByUserProfileId(
             @Parameter(description = "User profile ID", required = true, example = "1")
-            @PathVariable Long userProfileId) {
-        return vehicleInfoService.getVehicleByUserProfileId(userProfileId)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+            @PathVariable Long userProfileId,
+            WebRequest request) {
+        return publicReads.get(request,
+                vehicleInfoService.getViewTagByUserProfileId(userProfileId),
+                () -> vehicleInfoService.getVehicleByUserProfileId(userProfileId));
     }
 
     /**
@@ -109,11 +178,11 @@ public class VehicleInfoController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Created",
-                    content = @Content(schema = @Schema(implementation = VehicleInfo.class))),
+                    content = @Content(schema = @Schema(implementation = VehicleView.class))),
             @ApiResponse(responseCode = "400", description = "Bad Request")
     })
     @PostMapping
-    public ResponseEntity<VehicleInfo> createVehicle(
+    public ResponseEntity<VehicleView> createVehicle(
             @RequestBody(
                     description = "Vehicle to create (must include userProfile.id)",
                     required = true,
@@ -142,30 +211,35 @@ public class VehicleInfoController {
             return ResponseEntity.badRequest().build();
         }
 
-        VehicleInfo saved = vehicleInfoService.saveVehicleInfo(vehicleInfo);
-        URI location = URI.create(String.format("/api/vehicles/%d", saved.getId()));
-        return ResponseEntity.created(location).body(saved);
+        VehicleView saved = vehicleInfoService.saveVehicleInfo(vehicleInfo);
+        URI location = URI.create(String.format("/api/vehicles/%d", saved.id()));
+        return ResponseEntity.created(location).eTag(VersionTags.of(saved.version())).body(saved);
     }
 
     /**
      * PUT /api/vehicles/{id} — update an existing vehicle.
      *
      * If the request body omits userProfile, we preserve the existing relationship.
+     * With If-Match (or a body "version"), only applies to that version.
      */
     @Operation(
             summary = "Update a vehicle",
-            description = "Updates a vehicle by ID. Preserves existing user link if not provided in the request."
+            description = "Updates a vehicle by ID. Preserves existing user link if not provided in the request. "
+                    + "Send the ETag you read as If-Match to update only if nobody else has since."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Updated",
-                    content = @Content(schema = @Schema(implementation = VehicleInfo.class))),
+                    content = @Content(schema = @Schema(implementation = VehicleView.class))),
             @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)"),
             @ApiResponse(responseCode = "400", description = "Bad Request")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<VehicleInfo> updateVehicle(
+    public ResponseEntity<VehicleView> updateVehicle(
             @Parameter(description = "Vehicle ID to update", required = true, example = "1")
             @PathVariable Long id,
+            @Parameter(description = "ETag of the version being replaced, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody(
                     description = "Updated vehicle data (ID taken from path). If userProfile is omitted it will be preserved.",
                     required = true,
@@ -188,25 +262,48 @@ public class VehicleInfoController {
             )
             @org.springframework.web.bind.annotation.RequestBody VehicleInfo updatedVehicle
     ) {
-        return vehicleInfoService.getVehicleById(id)
-                .map(existing -> {
-                    // Enforce path id
-                    updatedVehicle.setId(id);
-
-                    // Preserve user relationship if not provided in the update
-                    if (updatedVehicle.getUserProfile() == null) {
-                        updatedVehicle.setUserProfile(existing.getUserProfile());
-                    }
-
-                    VehicleInfo saved = vehicleInfoService.saveVehicleInfo(updatedVehicle);
-                    return ResponseEntity.ok(saved);
-                })
-                .orElse(ResponseEntity.notFound().build());
+        Long expected = ifMatch != null ? VersionTags.expected(ifMatch) : updatedVehicle.getVersion();
+        VehicleView saved = vehicleInfoService.updateVehicleInfo(id, updatedVehicle, expected);
+        return ResponseEntity.ok().eTag(VersionTags.of(saved.version())).body(saved);
+    }
+
+    /** PATCH /api/vehicles/{id} — change only the fields sent (JSON merge patch). */
+    @Operation(
+            summary = "Partially update a vehicle",
+            description = "JSON merge patch: only the fields sent change, null clears one. "
+                    + "The owner is set by `userProfileId`. Conditional like PUT."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Updated",
+                    content = @Content(schema = @Schema(implementation = VehicleView.class))),
+            @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)"),
+            @ApiResponse(responseCode = "400", description = "Unknown field or invalid value")
+    })
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<VehicleView> patchVehicle(
+            @Parameter(description = "Vehicle ID to update", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the version being patched, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody(
+                    description = "Fields to change",
+                    required = true,
+                    content = @Content(examples = @ExampleObject(value = """
+                                {
+                                  "color": "Lunar Rock",
+                                  "nickname": null
+                                }
+                                """))
+            )
+            @org.springframework.web.bind.annotation.RequestBody Map<String, Object> changes) {
+        VehicleView saved = vehicleInfoService.patchVehicleInfo(id, changes, VersionTags.expected(ifMatch));
+        return ResponseEntity.ok().eTag(VersionTags.of(saved.version())).body(saved);
     }
 
     /**
      * DELETE /api/vehicles/{id} — delete a vehicle.
-     * Returns 404 if the vehicle does not exist.
+     * Returns 404 if the vehicle does not exist, 409 if If-Match names an older version.
      */
     @Operation(
             summary = "Delete a vehicle",
@@ -214,16 +311,16 @@ public class VehicleInfoController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "No Content"),
-            @ApiResponse(responseCode = "404", description = "Not Found")
+            @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "409", description = "Version mismatch (modified concurrently)")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteVehicle(
             @Parameter(description = "Vehicle ID to delete", required = true, example = "1")
-            @PathVariable Long id) {
-        if (vehicleInfoService.getVehicleById(id).isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build(); // 404
-        }
-        vehicleInfoService.deleteVehicleInfo(id);
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the version being deleted, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        vehicleInfoService.deleteVehicleInfo(id, VersionTags.expected(ifMatch));
         return ResponseEntity.noContent().build(); // 204
     }
 }
\ No newline at end of file
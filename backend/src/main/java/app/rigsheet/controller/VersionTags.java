@@ -0,0 +1,44 @@
+package app.rigsheet.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Row versions (V11) as HTTP entity tags: version 3 is {@code "3"}.
+ * Clients send back what they read in {@code If-Match} to make a write conditional.
+ */
+final class VersionTags {
+
+    private VersionTags() {
+    }
+
+    /** The ETag value for a version (ResponseEntity adds the quotes). */
+    static String of(Long version) {
+        return String.valueOf(version);
+    }
+
+    /**
+     * The version an {@code If-Match} header demands, or null when the header is
+     * absent or {@code *} (any current version). Weak tags are accepted, since
+     * compressing proxies weaken ours.
+     *
+     * @throws ResponseStatusException 400 if the header isn't a single tag of ours
+     */
+    static Long expected(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // fall through
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed If-Match: " + ifMatch);
+    }
+}
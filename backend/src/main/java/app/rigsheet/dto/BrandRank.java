@@ -0,0 +1,9 @@
+package app.rigsheet.dto;
+
+/** One row of a category's brand leaderboard: a brand and how many mods in the category use it. */
+public record BrandRank(
+        int rank,
+        String brand,
+        long mods
+) {
+}
@@ -0,0 +1,25 @@
+package app.rigsheet.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list.
+ *
+ * @param items      rows on this page (at most the requested limit)
+ * @param nextCursor pass back as {@code cursor} to get the next page; null on the last page
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Build a page from a query that fetched {@code limit + 1} rows; the extra row
+     * only tells us whether another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, PageCursor> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new CursorPage<>(List.copyOf(items), cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
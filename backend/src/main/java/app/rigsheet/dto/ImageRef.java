@@ -0,0 +1,13 @@
+package app.rigsheet.dto;
+
+/**
+ * An uploaded image. Its {@code url} ({@code /api/images/{hash}}) is what goes in a
+ * mod's or vehicle's {@code imageUrl}, or a profile's {@code profileImageUrl}.
+ */
+public record ImageRef(
+        String hash,
+        String url,
+        String contentType,
+        long size
+) {
+}
@@ -0,0 +1,32 @@
+package app.rigsheet.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Edits to one vehicle's mods, applied all-or-nothing by {@code POST /api/mods/batch}.
+ *
+ * @param vehicleInfoId the vehicle every operation is scoped to
+ * @param operations    applied in order
+ */
+public record ModBatchRequest(Long vehicleInfoId, List<Operation> operations) {
+
+    public enum Op {
+        @JsonProperty("create") CREATE,
+        @JsonProperty("update") UPDATE,
+        @JsonProperty("delete") DELETE
+    }
+
+    /**
+     * One edit.
+     *
+     * @param op      what to do
+     * @param id      target mod (update/delete only)
+     * @param version apply only if the mod is still at this version (optional)
+     * @param fields  {@link ModView} fields to set, merge-patch style (create/update only;
+     *                the vehicle is implied by the batch)
+     */
+    public record Operation(Op op, Long id, Long version, Map<String, Object> fields) {}
+}
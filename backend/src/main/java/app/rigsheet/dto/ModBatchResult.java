@@ -0,0 +1,23 @@
+package app.rigsheet.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a mod batch. Either every operation was applied ({@code committed})
+ * or none was; then the failed operations say why.
+ */
+public record ModBatchResult(boolean committed, List<OperationResult> results) {
+
+    /**
+     * @param index  position in the request
+     * @param status HTTP-style status of this operation (201/200/204, or 400/404/409)
+     * @param mod    the mod as written; null for deletes and uncommitted batches
+     * @param error  why the operation failed, if it did
+     */
+    public record OperationResult(int index, ModBatchRequest.Op op, Long id, int status, ModView mod, String error) {
+
+        public boolean failed() {
+            return status >= 400;
+        }
+    }
+}
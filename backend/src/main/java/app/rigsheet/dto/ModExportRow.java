@@ -0,0 +1,41 @@
+package app.rigsheet.dto;
+
+import app.rigsheet.model.Modification;
+
+/**
+ * Flat export shape of a modification: associations become ids.
+ * Field names match {@link ModImportRow}, so an export can be re-imported.
+ */
+public record ModExportRow(
+        Long id,
+        String name,
+        String category,
+        String brand,
+        boolean sponsored,
+        String reviewUrl,
+        Double cost,
+        Double weight,
+        String imageUrl,
+        Long vehicleInfoId,
+        Long userProfileId
+) {
+    /** CSV header, in component order (snake_case, as the importer accepts). */
+    public static final String[] CSV_HEADER = {
+            "id", "name", "category", "brand", "sponsored", "review_url",
+            "cost", "weight", "image_url", "vehicle_info_id", "user_profile_id"
+    };
+
+    public static ModExportRow of(Modification m) {
+        return new ModExportRow(
+                m.getId(), m.getName(), m.getCategory(), m.getBrand(), m.isSponsored(), m.getReviewUrl(),
+                m.getCost(), m.getWeight(), m.getImageUrl(),
+                m.getVehicleInfo() == null ? null : m.getVehicleInfo().getId(),
+                m.getUserProfile() == null ? null : m.getUserProfile().getId());
+    }
+
+    /** Values in {@link #CSV_HEADER} order. */
+    public Object[] csvValues() {
+        return new Object[]{id, name, category, brand, sponsored, reviewUrl, cost, weight, imageUrl,
+                vehicleInfoId, userProfileId};
+    }
+}
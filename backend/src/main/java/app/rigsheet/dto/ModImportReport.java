@@ -0,0 +1,27 @@
+package app.rigsheet.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk mod import.
+ *
+ * @param rowsRead        data rows seen (header and blank lines excluded)
+ * @param imported        rows written
+ * @param failed          rows rejected or not written
+ * @param errors          the first failures, by source line number
+ * @param errorsTruncated true if more rows failed than are listed
+ * @param elapsedMillis   wall time for the whole import
+ * @param rowsPerSecond   rows read per second of wall time
+ */
+public record ModImportReport(
+        long rowsRead,
+        long imported,
+        long failed,
+        List<RowError> errors,
+        boolean errorsTruncated,
+        long elapsedMillis,
+        double rowsPerSecond
+) {
+    /** Why a row was not imported. {@code line} is 1-based in the uploaded body. */
+    public record RowError(long line, String message) {}
+}
@@ -0,0 +1,20 @@
+package app.rigsheet.dto;
+
+/**
+ * One row of a bulk mod import (a CSV record or an NDJSON line).
+ *
+ * <p>{@code vehicleInfoId} may be omitted when the import names a default
+ * vehicle; {@code userProfileId} defaults to that vehicle's owner.</p>
+ */
+public record ModImportRow(
+        String name,
+        String category,
+        String brand,
+        Boolean sponsored,
+        String reviewUrl,
+        Double cost,
+        Double weight,
+        String imageUrl,
+        Long vehicleInfoId,
+        Long userProfileId
+) {}
@@ -0,0 +1,17 @@
+package app.rigsheet.dto;
+
+/**
+ * Filters for the multi-criteria mod search. Every field is optional;
+ * null means "don't filter on this". Ranges are inclusive.
+ */
+public record ModSearchCriteria(
+        String category,
+        String brand,
+        Boolean sponsored,
+        Double minCost,
+        Double maxCost,
+        Double minWeight,
+        Double maxWeight,
+        String make,
+        String model
+) {}
@@ -0,0 +1,35 @@
+package app.rigsheet.dto;
+
+import app.rigsheet.model.Modification;
+
+/**
+ * API read model of a modification. The vehicle and owner are referenced by id
+ * rather than embedded, so a page of mods doesn't repeat the same rig and profile
+ * on every row. List queries build it straight from columns (JPQL {@code select new}),
+ * which needs this canonical constructor.
+ */
+public record ModView(
+        Long id,
+        String name,
+        String category,
+        String brand,
+        boolean sponsored,
+        String reviewUrl,
+        Double cost,
+        Double weight,
+        String imageUrl,
+        Long userId,
+        Long vehicleInfoId,
+        Long userProfileId,
+        Long version
+) {
+    /** Only reads the links' ids, so lazy proxies stay uninitialized. */
+    public static ModView of(Modification m) {
+        return new ModView(
+                m.getId(), m.getName(), m.getCategory(), m.getBrand(), m.isSponsored(), m.getReviewUrl(),
+                m.getCost(), m.getWeight(), m.getImageUrl(), m.getUserId(),
+                m.getVehicleInfo() == null ? null : m.getVehicleInfo().getId(),
+                m.getUserProfile() == null ? null : m.getUserProfile().getId(),
+                m.getVersion());
+    }
+}
@@ -0,0 +1,53 @@
+package app.rigsheet.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated list: the sort key and id of the last row
+ * already returned. Clients only ever see it as an opaque string.
+ *
+ * @param sort   which ordering the cursor belongs to (e.g. "id", "cost")
+ * @param value  the last row's sort value, or null when sorting by id
+ * @param lastId the last row's id (tie-breaker for non-unique sort values)
+ */
+public record PageCursor(String sort, Double value, long lastId) {
+
+    /** Cursor for the first page of the given ordering. */
+    public static PageCursor first(String sort, double initialValue) {
+        return new PageCursor(sort, initialValue, Long.MIN_VALUE);
+    }
+
+    public String encode() {
+        String raw = sort + "|" + (value == null ? "" : value) + "|" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client-supplied cursor.
+     *
+     * @param token        opaque cursor from a previous page, or null/blank for the first page
+     * @param expectedSort the ordering of the current request
+     * @param initialValue sort value to start from on the first page
+     * @throws ResponseStatusException 400 if the cursor is malformed or from another ordering
+     */
+    public static PageCursor decode(String token, String expectedSort, double initialValue) {
+        if (token == null || token.isBlank()) {
+            return first(expectedSort, initialValue);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("cursor/sort mismatch");
+            }
+            Double value = parts[1].isEmpty() ? null : Double.valueOf(parts[1]);
+            return new PageCursor(parts[0], value == null ? initialValue : value, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package app.rigsheet.dto;
+
+import java.util.List;
+
+/**
+ * Everything a public rig page shows, in one payload: the owner's profile, their
+ * vehicle with its build totals, and its mods. The vehicle carries no owner card
+ * (that is {@link #profile}), and mods reference both by id as everywhere else.
+ */
+public record RigView(
+        UserProfileView profile,
+        Vehicle vehicle,
+        List<ModView> mods
+) {
+    /**
+     * The rig's vehicle and build totals. {@code modsVersion} is the version of
+     * its mod list (see {@code /api/mods/vehicle/{id}}).
+     */
+    public record Vehicle(Long id, String vehicleYear, String make, String model, String trim, String color,
+                          String nickname, String imageUrl, Long version,
+                          int modCount, double totalCost, double totalWeight, long modsVersion) {}
+
+    /**
+     * Flat form for JPQL {@code select new}, without the mods: a user without a
+     * vehicle comes back with all vehicle columns null, a vehicle without a
+     * build summary with null totals.
+     */
+    public RigView(Long userId, String username, String displayName, String bio, String profileImageUrl,
+                   String location, String roles, Long userVersion,
+                   Long vehicleId, String vehicleYear, String make, String model, String trim, String color,
+                   String nickname, String imageUrl, Long vehicleVersion,
+                   Integer modCount, Double totalCost, Double totalWeight, Long modsVersion) {
+        this(new UserProfileView(userId, username, displayName, bio, profileImageUrl, location, roles, userVersion),
+                vehicleId == null ? null
+                        : new Vehicle(vehicleId, vehicleYear, make, model, trim, color, nickname, imageUrl,
+                                vehicleVersion,
+                                modCount == null ? 0 : modCount,
+                                totalCost == null ? 0 : totalCost,
+                                totalWeight == null ? 0 : totalWeight,
+                                modsVersion == null ? 0 : modsVersion),
+                List.of());
+    }
+
+    public RigView withMods(List<ModView> mods) {
+        return new RigView(profile, vehicle, mods);
+    }
+}
@@ -0,0 +1,20 @@
+package app.rigsheet.dto;
+
+import app.rigsheet.model.UserProfile;
+
+/** API read model of a user profile; credentials and token state never leave the entity. */
+public record UserProfileView(
+        Long id,
+        String username,
+        String displayName,
+        String bio,
+        String profileImageUrl,
+        String location,
+        String roles,
+        Long version
+) {
+    public static UserProfileView of(UserProfile u) {
+        return new UserProfileView(u.getId(), u.getUsername(), u.getDisplayName(), u.getBio(),
+                u.getProfileImageUrl(), u.getLocation(), u.getRoles(), u.getVersion());
+    }
+}
@@ -0,0 +1,33 @@
+package app.rigsheet.dto;
+
+import app.rigsheet.model.VehicleInfo;
+
+/** Flat export shape of a vehicle: the owner becomes an id. */
+public record VehicleExportRow(
+        Long id,
+        String vehicleYear,
+        String make,
+        String model,
+        String trim,
+        String color,
+        String nickname,
+        String imageUrl,
+        Long userProfileId
+) {
+    /** CSV header, in component order. */
+    public static final String[] CSV_HEADER = {
+            "id", "vehicle_year", "make", "model", "trim", "color", "nickname", "image_url", "user_profile_id"
+    };
+
+    public static VehicleExportRow of(VehicleInfo v) {
+        return new VehicleExportRow(
+                v.getId(), v.getVehicleYear(), v.getMake(), v.getModel(), v.getTrim(), v.getColor(),
+                v.getNickname(), v.getImageUrl(),
+                v.getUserProfile() == null ? null : v.getUserProfile().getId());
+    }
+
+    /** Values in {@link #CSV_HEADER} order. */
+    public Object[] csvValues() {
+        return new Object[]{id, vehicleYear, make, model, trim, color, nickname, imageUrl, userProfileId};
+    }
+}
@@ -0,0 +1,14 @@
+package app.rigsheet.dto;
+
+/**
+ * One row of a vehicle leaderboard: the vehicle (fetch it from
+ * {@code /api/vehicles/{id}} for the card) and its build totals.
+ */
+public record VehicleRank(
+        int rank,
+        Long vehicleInfoId,
+        int modCount,
+        double totalCost,
+        double totalWeight
+) {
+}
@@ -0,0 +1,49 @@
+package app.rigsheet.dto;
+
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.model.VehicleInfo;
+
+/**
+ * API read model of a vehicle with a compact owner card (what the rig page shows),
+ * not the whole profile.
+ */
+public record VehicleView(
+        Long id,
+        String vehicleYear,
+        String make,
+        String model,
+        String trim,
+        String color,
+        String nickname,
+        String imageUrl,
+        Owner userProfile,
+        Long version
+) {
+    /** The owner fields a vehicle response carries. */
+    public record Owner(Long id, String username, String displayName, String location, String profileImageUrl) {
+
+        public static Owner of(UserProfile u) {
+            return u == null ? null
+                    : new Owner(u.getId(), u.getUsername(), u.getDisplayName(), u.getLocation(), u.getProfileImageUrl());
+        }
+    }
+
+    /**
+     * Flat form for JPQL {@code select new} (which can't nest constructors);
+     * a vehicle without an owner comes back with all owner columns null.
+     */
+    public VehicleView(Long id, String vehicleYear, String make, String model, String trim, String color,
+                       String nickname, String imageUrl,
+                       Long ownerId, String username, String displayName, String location, String profileImageUrl,
+                       Long version) {
+        this(id, vehicleYear, make, model, trim, color, nickname, imageUrl,
+                ownerId == null ? null : new Owner(ownerId, username, displayName, location, profileImageUrl),
+                version);
+    }
+
+    /** Reads the owner, so call it while the session is open. */
+    public static VehicleView of(VehicleInfo v) {
+        return new VehicleView(v.getId(), v.getVehicleYear(), v.getMake(), v.getModel(), v.getTrim(),
+                v.getColor(), v.getNickname(), v.getImageUrl(), Owner.of(v.getUserProfile()), v.getVersion());
+    }
+}
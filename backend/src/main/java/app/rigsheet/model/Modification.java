@@ -3,14 +3,21 @@ package app.rigsheet.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+/**
+ * Both links are lazy. API reads don't load this entity at all; they select
+ * {@link app.rigsheet.dto.ModView} rows, which carry the links as ids.
+ */
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Modification {
+
+    /** Pooled sequence (see V10) so inserts can be JDBC-batched. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "modification_seq")
+    @SequenceGenerator(name = "modification_seq", sequenceName = "modification_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -23,12 +30,16 @@ public class Modification {
     private String imageUrl;
     private Long userId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_profile_id", referencedColumnName = "id")
     private UserProfile userProfile;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_info_id", referencedColumnName = "id")
     private VehicleInfo vehicleInfo;
 
+    /** Optimistic-locking version (V11); echoed to clients as the ETag. */
+    @Version
+    private Long version;
+
 }
\ No newline at end of file
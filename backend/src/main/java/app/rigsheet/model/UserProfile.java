@@ -1,10 +1,15 @@
 package app.rigsheet.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "profiles") // see SecondLevelCacheConfig
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // when serialized through a lazy proxy
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,4 +39,16 @@ public class UserProfile {
     /** Comma-separated roles, e.g. "ROLE_USER,ROLE_ADMIN" */
     @Column
     private String roles;          // nullable for now; default later to 'ROLE_USER'
+
+    /**
+     * Embedded in issued JWTs; tokens carrying an older version are rejected.
+     * Only ever changed via {@code UserProfileRepository.incrementTokenVersion}.
+     */
+    @JsonIgnore
+    @Column(name = "token_version", insertable = false, updatable = false)
+    private Integer tokenVersion;
+
+    /** Optimistic-locking version (V11); echoed to clients as the ETag. */
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package app.rigsheet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running totals for one vehicle's build: mod count, cost, weight, and the
+ * same per category. Kept current by the mod write path; see BuildSummaryService.
+ */
+@Entity
+@Table(name = "vehicle_build_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VehicleBuildSummary {
+
+    /** Totals for one category within a build. */
+    public record CategoryTotals(long count, double cost, double weight) {}
+
+    @Id
+    @Column(name = "vehicle_info_id")
+    private Long vehicleInfoId;
+
+    @Column(name = "mod_count", nullable = false)
+    private int modCount;
+
+    @Column(name = "total_cost", nullable = false)
+    private double totalCost;
+
+    @Column(name = "total_weight", nullable = false)
+    private double totalWeight;
+
+    @Builder.Default
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Map<String, CategoryTotals> categories = new TreeMap<>();
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    /** Bumped on every change to the vehicle's mods (V12); the ETag of its mod list and summary. */
+    @Column(name = "mods_version", nullable = false)
+    private long modsVersion;
+
+    /** A build with no mods yet. */
+    public static VehicleBuildSummary empty(Long vehicleInfoId) {
+        return VehicleBuildSummary.builder()
+                .vehicleInfoId(vehicleInfoId)
+                .updatedAt(Instant.now())
+                .build();
+    }
+}
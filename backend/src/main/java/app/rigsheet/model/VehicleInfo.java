@@ -1,10 +1,15 @@
 package app.rigsheet.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicles") // see SecondLevelCacheConfig
 @Table(name = "vehicle_info")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // when serialized through a lazy proxy
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,8 +28,12 @@ public class VehicleInfo {
     private String nickname;
     private String imageUrl;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_profile_id", referencedColumnName = "id")
     private UserProfile userProfile;
 
+    /** Optimistic-locking version (V11); echoed to clients as the ETag. */
+    @Version
+    private Long version;
+
 }
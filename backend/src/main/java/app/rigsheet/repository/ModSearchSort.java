@@ -0,0 +1,44 @@
+package app.rigsheet.repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Orderings supported by mod search. Cost/weight sorts treat a missing
+ * value as 0 and break ties by id, so every ordering is total and seekable.
+ */
+public enum ModSearchSort {
+    ID("id", null, false),
+    COST("cost", "cost", false),
+    COST_DESC("-cost", "cost", true),
+    WEIGHT("weight", "weight", false),
+    WEIGHT_DESC("-weight", "weight", true);
+
+    private final String key;
+    private final String attribute;
+    private final boolean descending;
+
+    ModSearchSort(String key, String attribute, boolean descending) {
+        this.key = key;
+        this.attribute = attribute;
+        this.descending = descending;
+    }
+
+    /** Value used in the {@code sort} request parameter and inside cursors. */
+    public String key() {
+        return key;
+    }
+
+    /** Sorted entity attribute, or null when ordering by id only. */
+    public String attribute() {
+        return attribute;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+
+    public static Optional<ModSearchSort> fromKey(String key) {
+        return Arrays.stream(values()).filter(s -> s.key.equals(key)).findFirst();
+    }
+}
@@ -1,16 +1,181 @@
 package app.rigsheet.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import app.rigsheet.dto.ModView;
 import app.rigsheet.model.Modification;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Keyset ("seek") page queries take the last row's sort key(s) and a
+ * {@link Pageable} that only carries the row limit, so each page is an index
+ * range scan no matter how deep it is. A null cost sorts as 0.
+ *
+ * Queries whose rows reach the API select {@link ModView}s directly
+ * ({@link #MOD_VIEW}): one statement over the modification table alone, no
+ * entities hydrated or tracked. Entity reads are for writes.
+ *
+ * Multi-criteria search lives in {@link ModificationSearchRepository}.
+ */
 @Repository
-public interface ModificationRepository extends JpaRepository<Modification, Long> {
-    List<Modification> findBySponsored(boolean sponsored);
-    List<Modification> findByCategory(String category);
-    List<Modification> findByBrand(String brand);
-    List<Modification> findByUserId(Long userId);
-    List<Modification> findByVehicleInfoId(Long vehicleInfoId);
-}
\ No newline at end of file
+public interface ModificationRepository extends JpaRepository<Modification, Long>, ModificationSearchRepository {
+
+    /** Rows per round-trip when streaming exports. */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Select clause for {@link ModView} queries; the link ids are the FK columns,
+     * so no join is needed.
+     */
+    String MOD_VIEW = """
+            select new app.rigsheet.dto.ModView(
+                m.id, m.name, m.category, m.brand, m.sponsored, m.reviewUrl, m.cost, m.weight,
+                m.imageUrl, m.userId, m.vehicleInfo.id, m.userProfile.id, m.version)
+            from Modification m
+            """;
+
+    @Query(MOD_VIEW + "where m.id = :id")
+    Optional<ModView> findViewById(@Param("id") Long id);
+
+    /** Used to hydrate ranked text-search hits (in no particular order). */
+    @Query(MOD_VIEW + "where m.id in :ids")
+    List<ModView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(MOD_VIEW + "where m.userId = :userId")
+    List<ModView> findViewsByUserId(@Param("userId") Long userId);
+
+    @Query(MOD_VIEW + "where m.vehicleInfo.id = :vehicleInfoId")
+    List<ModView> findViewsByVehicleInfoId(@Param("vehicleInfoId") Long vehicleInfoId);
+
+    /** Managed entities for batch edits: the given mods, if they belong to the vehicle. */
+    @Query("select m from Modification m where m.vehicleInfo.id = :vehicleInfoId and m.id in :ids")
+    List<Modification> findAllOnVehicle(@Param("vehicleInfoId") Long vehicleInfoId,
+                                        @Param("ids") Collection<Long> ids);
+
+    @Query(MOD_VIEW + "where m.id > :afterId order by m.id")
+    List<ModView> findPageAfter(@Param("afterId") long afterId, Pageable limit);
+
+    @Query(MOD_VIEW + """
+            where coalesce(m.cost, 0) > :afterCost
+               or (coalesce(m.cost, 0) = :afterCost and m.id > :afterId)
+            order by coalesce(m.cost, 0), m.id
+            """)
+    List<ModView> findPageByCostAfter(@Param("afterCost") double afterCost,
+                                      @Param("afterId") long afterId,
+                                      Pageable limit);
+
+    @Query(MOD_VIEW + """
+            where coalesce(m.cost, 0) < :beforeCost
+               or (coalesce(m.cost, 0) = :beforeCost and m.id < :beforeId)
+            order by coalesce(m.cost, 0) desc, m.id desc
+            """)
+    List<ModView> findPageByCostDescBefore(@Param("beforeCost") double beforeCost,
+                                           @Param("beforeId") long beforeId,
+                                           Pageable limit);
+
+    @Query(MOD_VIEW + "where m.category = :category and m.id > :afterId order by m.id")
+    List<ModView> findPageByCategoryAfter(@Param("category") String category,
+                                          @Param("afterId") long afterId,
+                                          Pageable limit);
+
+    @Query(MOD_VIEW + "where m.brand = :brand and m.id > :afterId order by m.id")
+    List<ModView> findPageByBrandAfter(@Param("brand") String brand,
+                                       @Param("afterId") long afterId,
+                                       Pageable limit);
+
+    @Query(MOD_VIEW + "where m.sponsored = true and m.id > :afterId order by m.id")
+    List<ModView> findSponsoredPageAfter(@Param("afterId") long afterId, Pageable limit);
+
+    /**
+     * Ranked full-text match over name/brand/category (search_vector is kept
+     * current by trigger, see V8). Best rank first, ties by id; seeks past the
+     * given (rank, id) so pages stay cheap. Accepts web-search syntax:
+     * quoted phrases, {@code or}, {@code -exclude}.
+     */
+    @Query(value = """
+            select m.id as id, cast(ts_rank(m.search_vector, tsq) as float8) as rank
+            from modification m, websearch_to_tsquery('english', :text) tsq
+            where m.search_vector @@ tsq
+              and (cast(ts_rank(m.search_vector, tsq) as float8) < :beforeRank
+                   or (cast(ts_rank(m.search_vector, tsq) as float8) = :beforeRank and m.id > :afterId))
+            order by rank desc, m.id
+            limit :limit
+            """, nativeQuery = true)
+    List<RankedId> searchText(@Param("text") String text,
+                              @Param("beforeRank") double beforeRank,
+                              @Param("afterId") long afterId,
+                              @Param("limit") int limit);
+
+    /**
+     * Every mod in id order, for exports. Must be consumed inside a (read-only)
+     * transaction and closed; rows arrive in fetch-size chunks from a server-side
+     * cursor rather than as one big result. Associations stay lazy: exports only
+     * read their ids, which the proxies carry without a query.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            select m from Modification m order by m.id
+            """)
+    Stream<Modification> streamAllForExport();
+
+    /**
+     * Per-vehicle, per-category totals straight from the mod rows; the source
+     * of truth the build rollups are reconciled against.
+     */
+    @Query("""
+            select m.vehicleInfo.id as vehicleInfoId, m.category as category, count(m) as mods,
+                   sum(coalesce(m.cost, 0.0)) as cost, sum(coalesce(m.weight, 0.0)) as weight
+            from Modification m
+            where m.vehicleInfo.id in :vehicleInfoIds
+            group by m.vehicleInfo.id, m.category
+            """)
+    List<CategoryRollup> rollupByVehicleInfoIds(@Param("vehicleInfoIds") Collection<Long> vehicleInfoIds);
+
+    /**
+     * Mods per (category, brand), over mods on a vehicle with a brand: what the
+     * brand leaderboards are rebuilt from.
+     */
+    @Query("""
+            select m.category as category, m.brand as brand, count(m) as mods
+            from Modification m
+            where m.vehicleInfo.id is not null and m.brand is not null
+            group by m.category, m.brand
+            """)
+    List<BrandCount> countByCategoryAndBrand();
+
+    /** Projection for {@link #countByCategoryAndBrand}. */
+    interface BrandCount {
+        String getCategory();
+        String getBrand();
+        Long getMods();
+    }
+
+    /** Projection for {@link #rollupByVehicleInfoIds}. */
+    interface CategoryRollup {
+        Long getVehicleInfoId();
+        String getCategory();
+        Long getMods();
+        Double getCost();
+        Double getWeight();
+    }
+
+    /** Projection for {@link #searchText}. */
+    interface RankedId {
+        Long getId();
+        Double getRank();
+    }
+}
@@ -0,0 +1,19 @@
+package app.rigsheet.repository;
+
+import app.rigsheet.dto.ModSearchCriteria;
+import app.rigsheet.dto.ModView;
+import app.rigsheet.dto.PageCursor;
+
+import java.util.List;
+
+/** Custom fragment of {@link ModificationRepository} for keyset-paginated search. */
+public interface ModificationSearchRepository {
+
+    /**
+     * Rows matching every set criterion that come after {@code after} in the given ordering.
+     *
+     * @param limit maximum rows to return (no count query is issued)
+     */
+    List<ModView> searchPage(ModSearchCriteria criteria, ModSearchSort sort,
+                             PageCursor after, int limit);
+}
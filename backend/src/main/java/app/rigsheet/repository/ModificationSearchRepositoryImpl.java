@@ -0,0 +1,74 @@
+package app.rigsheet.repository;
+
+import app.rigsheet.dto.ModSearchCriteria;
+import app.rigsheet.dto.ModView;
+import app.rigsheet.dto.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dynamic-JPQL implementation of {@link ModificationSearchRepository}.
+ *
+ * Only the criteria that are set end up in the WHERE clause, so the planner can
+ * pick the narrowest index. The keyset predicate is
+ * (key > k) OR (key = k AND id > lastId), mirrored for descending orders, and the
+ * sort key is written exactly as in the V6/V7 expression indexes
+ * ({@code coalesce(col, 0)}, inlined rather than bound) so those indexes apply.
+ */
+class ModificationSearchRepositoryImpl implements ModificationSearchRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<ModView> searchPage(ModSearchCriteria c, ModSearchSort sort,
+                                    PageCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(ModificationRepository.MOD_VIEW);
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (c.make() != null || c.model() != null) {
+            jpql.append(" join m.vehicleInfo v");
+        }
+        jpql.append(" where 1 = 1");
+
+        filter(jpql, params, "m.category =", "category", c.category());
+        filter(jpql, params, "m.brand =", "brand", c.brand());
+        filter(jpql, params, "m.sponsored =", "sponsored", c.sponsored());
+        filter(jpql, params, "m.cost >=", "minCost", c.minCost());
+        filter(jpql, params, "m.cost <=", "maxCost", c.maxCost());
+        filter(jpql, params, "m.weight >=", "minWeight", c.minWeight());
+        filter(jpql, params, "m.weight <=", "maxWeight", c.maxWeight());
+        filter(jpql, params, "v.make =", "make", c.make());
+        filter(jpql, params, "v.model =", "model", c.model());
+
+        params.put("lastId", after.lastId());
+        if (sort.attribute() == null) {
+            jpql.append(" and m.id > :lastId order by m.id");
+        } else {
+            String key = "coalesce(m." + sort.attribute() + ", 0)";
+            String cmp = sort.descending() ? "<" : ">";
+            String dir = sort.descending() ? " desc" : "";
+            jpql.append(" and (").append(key).append(' ').append(cmp).append(" :k")
+                    .append(" or (").append(key).append(" = :k and m.id ").append(cmp).append(" :lastId))")
+                    .append(" order by ").append(key).append(dir).append(", m.id").append(dir);
+            params.put("k", after.value());
+        }
+
+        TypedQuery<ModView> query = em.createQuery(jpql.toString(), ModView.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static void filter(StringBuilder jpql, Map<String, Object> params,
+                               String clause, String param, Object value) {
+        if (value != null) {
+            jpql.append(" and ").append(clause).append(" :").append(param);
+            params.put(param, value);
+        }
+    }
+}
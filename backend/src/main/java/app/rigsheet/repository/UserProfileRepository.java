@@ -1,10 +1,101 @@
 package app.rigsheet.repository;
 
+import app.rigsheet.dto.RigView;
+import app.rigsheet.dto.UserProfileView;
+import app.rigsheet.config.SecondLevelCacheConfig;
 import app.rigsheet.model.UserProfile;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
+
+    /** Select clause for {@link UserProfileView} queries (API reads; no entity hydration). */
+    String PROFILE_VIEW = """
+            select new app.rigsheet.dto.UserProfileView(
+                u.id, u.username, u.displayName, u.bio, u.profileImageUrl, u.location, u.roles, u.version)
+            from UserProfile u
+            """;
+
+    /**
+     * Public profile reads: query-cached, entity from the second-level cache, so up to
+     * a TTL stale. Never mint tokens from it; see {@link #findForLogin}.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.LOOKUPS)
+    })
     Optional<UserProfile> findByUsername(String username);
+
+    /**
+     * Login: the row as it is now, past the second-level cache, so the password hash,
+     * roles and token version put in a token are current and from the same row.
+     */
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"))
+    @Query("select u from UserProfile u where u.username = :username")
+    Optional<UserProfile> findForLogin(@Param("username") String username);
+
+    /** Token refresh: as {@link #findForLogin}, by id. */
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"))
+    @Query("select u from UserProfile u where u.id = :id")
+    Optional<UserProfile> findForRefresh(@Param("id") Long id);
+
+    /**
+     * A public rig page without its mods, in one statement: the profile, its vehicle
+     * and the vehicle's build totals. Left joins, so a user without a vehicle (or a
+     * vehicle without mods) still matches; with several vehicles the oldest comes first.
+     */
+    @Query("""
+            select new app.rigsheet.dto.RigView(
+                u.id, u.username, u.displayName, u.bio, u.profileImageUrl, u.location, u.roles, u.version,
+                v.id, v.vehicleYear, v.make, v.model, v.trim, v.color, v.nickname, v.imageUrl, v.version,
+                s.modCount, s.totalCost, s.totalWeight, s.modsVersion)
+            from UserProfile u
+            left join VehicleInfo v on v.userProfile = u
+            left join VehicleBuildSummary s on s.vehicleInfoId = v.id
+            where u.username = :username
+            order by v.id
+            """)
+    List<RigView> findRigsByUsername(@Param("username") String username, Pageable limit);
+
+    /** Keyset page: rows after the given id, {@code limit} carries only the page size. */
+    @Query(PROFILE_VIEW + "where u.id > :afterId order by u.id")
+    List<UserProfileView> findPageAfter(@Param("afterId") long afterId, Pageable limit);
+
+    /** Users whose tokens have been revoked at least once (everyone else is at version 0). */
+    List<TokenVersionRow> findByTokenVersionGreaterThan(Integer tokenVersion);
+
+    @Transactional
+    @Modifying
+    @Query("update UserProfile u set u.tokenVersion = u.tokenVersion + 1 where u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
+
+    @Transactional
+    @Modifying
+    @Query("update UserProfile u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+    int incrementTokenVersionById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update UserProfile u set u.passwordHash = :hash where u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("hash") String hash);
+
+    @Query("select u.tokenVersion from UserProfile u where u.username = :username")
+    Optional<Integer> findTokenVersionByUsername(@Param("username") String username);
+
+    /** Projection used to refresh the in-memory token version table. */
+    interface TokenVersionRow {
+        String getUsername();
+        Integer getTokenVersion();
+    }
 }
@@ -0,0 +1,65 @@
+package app.rigsheet.repository;
+
+import app.rigsheet.model.VehicleBuildSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface VehicleBuildSummaryRepository extends JpaRepository<VehicleBuildSummary, Long> {
+
+    /** Row-locks the summary so concurrent mod writes on one vehicle apply in turn. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from VehicleBuildSummary s where s.vehicleInfoId = :vehicleInfoId")
+    Optional<VehicleBuildSummary> findForUpdate(@Param("vehicleInfoId") Long vehicleInfoId);
+
+    /** Row-locks several summaries, in id order (same order as single-row writers). */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from VehicleBuildSummary s where s.vehicleInfoId in :ids order by s.vehicleInfoId")
+    List<VehicleBuildSummary> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    /** The vehicle's mods version (V12), without loading the summary. */
+    @Query("select s.modsVersion from VehicleBuildSummary s where s.vehicleInfoId = :vehicleInfoId")
+    Optional<Long> findModsVersion(@Param("vehicleInfoId") Long vehicleInfoId);
+
+    /** Marks the vehicle's mods as changed when the totals don't move; 0 if there is no row yet. */
+    @Modifying
+    @Query("update VehicleBuildSummary s set s.modsVersion = s.modsVersion + 1 where s.vehicleInfoId = :vehicleInfoId")
+    int bumpModsVersion(@Param("vehicleInfoId") Long vehicleInfoId);
+
+    /** Creates an all-zero row unless one exists; safe when two writers race. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "vehicle_build_summary")) // else it clears every cache region
+    @Query(value = """
+            insert into vehicle_build_summary (vehicle_info_id, mod_count, total_cost, total_weight, categories, updated_at)
+            values (:vehicleInfoId, 0, 0, 0, '{}', now())
+            on conflict (vehicle_info_id) do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("vehicleInfoId") Long vehicleInfoId);
+
+    /** Every vehicle's totals and mods version, without the category breakdown (leaderboard rebuilds). */
+    @Query("""
+            select s.vehicleInfoId as vehicleInfoId, s.modsVersion as modsVersion, s.modCount as modCount,
+                   s.totalCost as totalCost, s.totalWeight as totalWeight
+            from VehicleBuildSummary s
+            """)
+    List<Totals> findAllTotals();
+
+    /** Projection for {@link #findAllTotals}. */
+    interface Totals {
+        Long getVehicleInfoId();
+        Long getModsVersion();
+        Integer getModCount();
+        Double getTotalCost();
+        Double getTotalWeight();
+    }
+}
@@ -1,10 +1,67 @@
 package app.rigsheet.repository;
 
+import app.rigsheet.config.SecondLevelCacheConfig;
+import app.rigsheet.dto.VehicleView;
 import app.rigsheet.model.VehicleInfo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * API reads select {@link VehicleView}s ({@link #VEHICLE_VIEW}): the vehicle and
+ * its owner's card in one joined statement, without hydrating either entity.
+ * The exception is the hot public read, {@link #findByUserProfileId}, which is
+ * served from the second-level cache instead.
+ */
 public interface VehicleInfoRepository extends JpaRepository<VehicleInfo, Long> {
-    Optional<VehicleInfo> findByUserProfileId(Long userProfileId);
+
+    /** Select clause for {@link VehicleView} queries, via its flat constructor. */
+    String VEHICLE_VIEW = """
+            select new app.rigsheet.dto.VehicleView(
+                v.id, v.vehicleYear, v.make, v.model, v.trim, v.color, v.nickname, v.imageUrl,
+                u.id, u.username, u.displayName, u.location, u.profileImageUrl, v.version)
+            from VehicleInfo v left join v.userProfile u
+            """;
+
+    @Query(VEHICLE_VIEW + "where v.id = :id")
+    Optional<VehicleView> findViewById(@Param("id") Long id);
+
+    /**
+     * A user's vehicle as an entity, for the public read: query-cached, and the vehicle
+     * and its owner then come from the second-level cache.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.LOOKUPS)
+    })
+    @Query("select v from VehicleInfo v where v.userProfile.id = :userProfileId")
+    Optional<VehicleInfo> findByUserProfileId(@Param("userProfileId") Long userProfileId);
+
+    /** Keyset page: rows after the given id, {@code limit} carries only the page size. */
+    @Query(VEHICLE_VIEW + "where v.id > :afterId order by v.id")
+    List<VehicleView> findPageAfter(@Param("afterId") long afterId, Pageable limit);
+
+    /**
+     * Every vehicle in id order, for exports; same contract as
+     * {@link ModificationRepository#streamAllForExport()}.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ModificationRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select v from VehicleInfo v order by v.id")
+    Stream<VehicleInfo> streamAllForExport();
+
+    /** Keyset page of ids only, for batch jobs that walk every vehicle. */
+    @Query("select v.id from VehicleInfo v where v.id > :afterId order by v.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable limit);
 }
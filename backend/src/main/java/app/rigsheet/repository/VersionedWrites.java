@@ -0,0 +1,187 @@
+package app.rigsheet.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Conditional single-statement writes against tables with a {@code version}
+ * column (see V11), so a PUT/PATCH/DELETE is one round-trip whatever the outcome.
+ *
+ * Each call is one Postgres statement: a CTE locks the row and snapshots the
+ * requested "previous" columns, the UPDATE/DELETE applies only if the version
+ * still matches, and the outer select reports which of the three cases happened
+ * (missing row, stale version, done) plus the new row.
+ *
+ * Table and column names come from callers' whitelists, never from request input.
+ * Runs on the transaction's connection but bypasses the persistence context, so
+ * don't mix it with managed copies of the same row. A successful write schedules
+ * Hibernate's bulk-operation cleanup for the table, as native SQL would, so the
+ * second-level and query caches don't keep serving the old row.
+ *
+ * A foreign-key or unique violation is reported as a status too, but it has
+ * aborted the Postgres transaction: the caller must fail (see Patch.checked)
+ * so that it rolls back.
+ */
+@Repository
+public class VersionedWrites {
+
+    public enum Status {
+        DONE, NOT_FOUND, VERSION_MISMATCH,
+        /** An update set a foreign key to a row that doesn't exist. */
+        MISSING_REFERENCE,
+        /** An update collided with another row on a unique column. */
+        DUPLICATE,
+        /** A delete hit a row that other rows still reference. */
+        STILL_REFERENCED
+    }
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    /**
+     * @param version  the row's version after the write (DONE) or the one that didn't match
+     * @param previous requested columns as they were before the write
+     * @param row      every column after an update; empty for deletes and failures
+     */
+    public record Result(Status status, long version, Map<String, Object> previous, Map<String, Object> row) {
+
+        public boolean done() {
+            return status == Status.DONE;
+        }
+    }
+
+    private static final String PREVIOUS_PREFIX = "prev_";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Set {@code columns} and bump the version on row {@code id}.
+     *
+     * @param expectedVersion apply only at this version; null for "whatever is current"
+     * @param previous        columns to report as they were before the update
+     */
+    public Result update(String table, long id, Long expectedVersion,
+                         Map<String, ?> columns, Collection<String> previous) {
+        StringBuilder sql = new StringBuilder(lockCurrent(table, previous))
+                .append(", upd as (update ").append(table).append(" t set ");
+        List<Object> params = new ArrayList<>();
+        params.add(id);
+        columns.forEach((column, value) -> {
+            sql.append(column).append(" = ?, ");
+            params.add(value);
+        });
+        sql.append("version = t.version + 1 from cur where t.id = cur.id");
+        if (expectedVersion != null) {
+            sql.append(" and t.version = ?");
+            params.add(expectedVersion);
+        }
+        sql.append(" returning t.*)")
+                .append(" select cur.version as current_version").append(previousColumns(previous))
+                .append(", upd.* from cur left join upd on true");
+        return run(table, sql.toString(), params, previous, true);
+    }
+
+    /** Delete row {@code id}; same contract as {@link #update}. */
+    public Result delete(String table, long id, Long expectedVersion, Collection<String> previous) {
+        StringBuilder sql = new StringBuilder(lockCurrent(table, previous))
+                .append(", del as (delete from ").append(table).append(" t using cur where t.id = cur.id");
+        List<Object> params = new ArrayList<>();
+        params.add(id);
+        if (expectedVersion != null) {
+            sql.append(" and t.version = ?");
+            params.add(expectedVersion);
+        }
+        sql.append(" returning t.id as deleted_id)")
+                .append(" select cur.version as current_version").append(previousColumns(previous))
+                .append(", del.deleted_id from cur left join del on true");
+        return run(table, sql.toString(), params, previous, false);
+    }
+
+    private static String lockCurrent(String table, Collection<String> previous) {
+        StringBuilder cte = new StringBuilder("with cur as (select id, version");
+        previous.forEach(column -> cte.append(", ").append(column));
+        return cte.append(" from ").append(table).append(" where id = ? for update)").toString();
+    }
+
+    private static String previousColumns(Collection<String> previous) {
+        StringBuilder select = new StringBuilder();
+        previous.forEach(column -> select.append(", cur.").append(column)
+                .append(" as ").append(PREVIOUS_PREFIX).append(column));
+        return select.toString();
+    }
+
+    private Result run(String table, String sql, List<Object> params, Collection<String> previous,
+                       boolean update) {
+        em.flush(); // anything pending must land before we write around Hibernate
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        Result result = session.doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return new Result(Status.NOT_FOUND, 0, Map.of(), Map.of());
+                    }
+                    return read(rs, previous, update);
+                }
+            } catch (SQLException ex) {
+                Status violated = violation(ex, update);
+                if (violated == null) {
+                    throw ex;
+                }
+                return new Result(violated, 0, Map.of(), Map.of());
+            }
+        });
+        if (result.done()) {
+            BulkOperationCleanupAction.schedule(session, Set.of(table));
+        }
+        return result;
+    }
+
+    private static Status violation(SQLException ex, boolean update) {
+        if (FOREIGN_KEY_VIOLATION.equals(ex.getSQLState())) {
+            return update ? Status.MISSING_REFERENCE : Status.STILL_REFERENCED;
+        }
+        if (UNIQUE_VIOLATION.equals(ex.getSQLState())) {
+            return Status.DUPLICATE;
+        }
+        return null;
+    }
+
+    private static Result read(ResultSet rs, Collection<String> previous, boolean update) throws SQLException {
+        long current = rs.getLong("current_version");
+        Map<String, Object> before = new LinkedHashMap<>();
+        for (String column : previous) {
+            before.put(column, rs.getObject(PREVIOUS_PREFIX + column));
+        }
+        if (rs.getObject(update ? "id" : "deleted_id") == null) {
+            return new Result(Status.VERSION_MISMATCH, current, before, Map.of());
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        if (update) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int first = 2 + previous.size(); // after current_version and prev_*
+            for (int i = first; i <= meta.getColumnCount(); i++) {
+                row.put(meta.getColumnLabel(i), rs.getObject(i));
+            }
+        }
+        long version = row.isEmpty() ? current : ((Number) row.get("version")).longValue();
+        return new Result(Status.DONE, version, before, row);
+    }
+}
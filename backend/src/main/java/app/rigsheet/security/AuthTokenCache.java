@@ -0,0 +1,102 @@
+package app.rigsheet.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of already-validated bearer tokens.
+ *
+ * Maps the raw token string to the principal and authorities resolved the first
+ * time it was seen, so repeat requests skip the signature check and claim parsing.
+ * - Entries expire with the token's own "exp" claim
+ * - Size is capped (expired entries are purged first, then arbitrary ones)
+ *
+ * Revocation (role changes, "log out everywhere", single-token logout) is still
+ * checked on every hit via {@link TokenVersionTable} and {@link RevokedTokenRegistry},
+ * so entries never need to be invalidated.
+ */
+@Component
+public class AuthTokenCache {
+
+    /** What the filter needs to rebuild an Authentication without touching the DB. */
+    public record CachedAuthentication(
+            String tokenId,
+            String username,
+            List<GrantedAuthority> authorities,
+            int tokenVersion,
+            long expiresAtMillis
+    ) {
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+
+    private final Map<String, CachedAuthentication> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public AuthTokenCache(
+            @Value("${rigsheet.auth.token-cache.max-entries:10000}") int maxEntries,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("rigsheet.auth.token.cache")
+                .description("Bearer token cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("rigsheet.auth.token.cache")
+                .description("Bearer token cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("rigsheet.auth.token.cache.size", List.of(), entries);
+    }
+
+    /**
+     * @return the cached authentication for this token, or null if absent/expired
+     */
+    public CachedAuthentication get(String token) {
+        CachedAuthentication cached = entries.get(token);
+        if (cached != null && cached.isExpired(System.currentTimeMillis())) {
+            entries.remove(token, cached);
+            cached = null;
+        }
+        (cached == null ? misses : hits).increment();
+        return cached;
+    }
+
+    /** Remember a freshly validated token until its expiry. */
+    public void put(String token, CachedAuthentication authentication) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(token, authentication);
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> e.isExpired(now));
+        if (entries.size() < maxEntries) {
+            return;
+        }
+
+        // Still full: shed an arbitrary ~10% so we don't evict on every put
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -1,35 +1,77 @@
 package app.rigsheet.security;
 
-import app.rigsheet.model.UserProfile;
-import app.rigsheet.repository.UserProfileRepository;
+import app.rigsheet.security.AuthTokenCache.CachedAuthentication;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Reads Authorization: Bearer <token>, validates via JwtUtil,
- * loads the user, and sets Authentication in the SecurityContext.
+ * and sets Authentication in the SecurityContext.
  *
- * If the header is missing/invalid/expired, the request proceeds unauthenticated.
+ * Tokens are self-contained: roles come from the "roles" claim, the "tv"
+ * claim is checked against {@link TokenVersionTable}, and the token ID against
+ * {@link RevokedTokenRegistry}, so revoked tokens are rejected without a
+ * database lookup in the common case. Validated tokens are remembered in
+ * {@link AuthTokenCache} until they expire, so repeat requests skip the
+ * signature check as well.
+ *
+ * If the header is missing/invalid/expired/revoked, the request proceeds unauthenticated.
+ *
+ * The filter's own work (not the rest of the chain) is timed as {@code rigsheet.auth.filter},
+ * tagged by outcome: anonymous (no bearer token), cached, validated or rejected.
  */
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserProfileRepository userRepo;
+    private final AuthTokenCache tokenCache;
+    private final TokenVersionTable tokenVersions;
+    private final RevokedTokenRegistry revokedTokens;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UserProfileRepository userRepo) {
+    private final Timer anonymous;
+    private final Timer cachedHit;
+    private final Timer validated;
+    private final Timer rejected;
+
+    public JwtAuthFilter(JwtUtil jwtUtil,
+                         AuthTokenCache tokenCache,
+                         TokenVersionTable tokenVersions,
+                         RevokedTokenRegistry revokedTokens,
+                         MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
-        this.userRepo = userRepo;
+        this.tokenCache = tokenCache;
+        this.tokenVersions = tokenVersions;
+        this.revokedTokens = revokedTokens;
+        this.anonymous = filterTimer(meterRegistry, "anonymous");
+        this.cachedHit = filterTimer(meterRegistry, "cached");
+        this.validated = filterTimer(meterRegistry, "validated");
+        this.rejected = filterTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer filterTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("rigsheet.auth.filter")
+                .description("Bearer token handling per request, excluding the rest of the chain")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))  // a cache hit takes microseconds
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(registry);
     }
 
     @Override
@@ -39,33 +81,57 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             FilterChain chain
     ) throws ServletException, IOException {
 
+        long start = System.nanoTime();
+        Timer outcome = anonymous;
         String authHeader = request.getHeader("Authorization");
         if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
+            outcome = rejected;
             try {
-                String username = jwtUtil.validateAndGetUsername(token);
-
-                // Load the user (optional for MVP, but useful to attach roles)
-                UserProfile user = userRepo.findByUsername(username).orElse(null);
-                if (user != null) {
-                    var authorities = Arrays.stream(
-                                    (user.getRoles() == null ? "ROLE_USER" : user.getRoles())
-                                            .split(","))
-                            .map(String::trim)
-                            .filter(s -> !s.isEmpty())
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(Collectors.toList());
-
-                    var authentication =
-                            new UsernamePasswordAuthenticationToken(username, null, authorities);
+                CachedAuthentication cached = tokenCache.get(token);
+                boolean hit = cached != null;
+                if (!hit) {
+                    cached = resolve(token);
+                }
+                if (tokenVersions.isCurrent(cached.username(), cached.tokenVersion())
+                        && !revokedTokens.isRevoked(cached.tokenId())) {
+                    var authentication = new UsernamePasswordAuthenticationToken(
+                            cached.username(), null, cached.authorities());
 
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = hit ? cachedHit : validated;
                 }
             } catch (Exception ex) {
                 // Invalid/expired token → leave unauthenticated, no hard fail
             }
         }
+        outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /** Full validation path: verify signature, read roles/version claims, cache the result. */
+    private CachedAuthentication resolve(String token) {
+        Claims claims = jwtUtil.validateAndGetClaims(token);
+
+        String roles = claims.get(JwtUtil.ROLES_CLAIM, String.class);
+        List<GrantedAuthority> authorities = Arrays.stream(
+                        (roles == null ? "ROLE_USER" : roles).split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(SimpleGrantedAuthority::new)
+                .map(GrantedAuthority.class::cast)
+                .toList();
+
+        Integer tokenVersion = claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class);
+
+        var resolved = new CachedAuthentication(
+                claims.getId(),
+                claims.getSubject(),
+                authorities,
+                tokenVersion == null ? 0 : tokenVersion,
+                claims.getExpiration().getTime());
+        tokenCache.put(token, resolved);
+        return resolved;
+    }
+}
@@ -1,7 +1,9 @@
 package app.rigsheet.security;
 
-import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
@@ -9,6 +11,7 @@ import org.springframework.stereotype.Component;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * Minimal JWT utility for issuing and validating HS256 tokens.
@@ -20,6 +23,9 @@ public class JwtUtil {
 
     private final Key key;
 
+    /** Parsers are immutable and thread-safe, so build once instead of per request. */
+    private final JwtParser parser;
+
     public JwtUtil() {
         // Ensure at least 32+ chars for HS256
         String secret = System.getenv().getOrDefault(
@@ -27,15 +33,27 @@ public class JwtUtil {
                 "dev-secret-please-change-this-dev-secret-please-change-this"
         );
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
+    /** Claim holding the comma-separated roles, e.g. "ROLE_USER,ROLE_ADMIN". */
+    public static final String ROLES_CLAIM = "roles";
+
+    /** Claim holding the user's token version at issue time (see TokenVersionTable). */
+    public static final String TOKEN_VERSION_CLAIM = "tv";
+
     /**
-     * Issue a JWT with subject = username and given TTL in milliseconds.
+     * Issue a self-contained JWT: subject = username plus roles and token version,
+     * so requests can be authorized without loading the user. Each token gets a
+     * random ID (jti) so it can be revoked individually.
      */
-    public String generateToken(String username, long ttlMillis) {
+    public String generateToken(String username, String roles, int tokenVersion, long ttlMillis) {
         long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
+                .claim(ROLES_CLAIM, roles)
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + ttlMillis))
                 .signWith(key, SignatureAlgorithm.HS256)
@@ -47,11 +65,14 @@ public class JwtUtil {
      * Throws JwtException on invalid/expired tokens.
      */
     public String validateAndGetUsername(String token) throws JwtException {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return validateAndGetClaims(token).getSubject();
+    }
+
+    /**
+     * Validate the token and return all of its claims (subject, expiration, ...).
+     * Throws JwtException on invalid/expired tokens.
+     */
+    public Claims validateAndGetClaims(String token) throws JwtException {
+        return parser.parseClaimsJws(token).getBody();
     }
 }
\ No newline at end of file
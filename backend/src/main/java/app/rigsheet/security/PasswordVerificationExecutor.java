@@ -0,0 +1,151 @@
+package app.rigsheet.security;
+
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.repository.UserProfileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt password checks on a dedicated, bounded pool instead of the
+ * Tomcat request threads, so a login burst cannot starve the read endpoints.
+ *
+ * - Pool size and queue length are capped; when the queue is full
+ *   {@link #verify} throws {@link RejectedExecutionException} (callers answer 503)
+ * - After a successful match, hashes with a cost factor other than the
+ *   configured one are re-encoded and stored
+ * - Verification latency (queue wait + hashing) is timed per outcome, and the
+ *   BCrypt comparison on its own as {@code rigsheet.auth.bcrypt}
+ */
+@Component
+public class PasswordVerificationExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordVerificationExecutor.class);
+
+    /** e.g. $2a$10$... → cost 10 */
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserProfileRepository userRepo;
+    private final int bcryptStrength;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer matched;
+    private final Timer mismatched;
+    private final Timer hashing;
+    private final Counter rejected;
+    private final Counter rehashed;
+
+    public PasswordVerificationExecutor(
+            PasswordEncoder passwordEncoder,
+            UserProfileRepository userRepo,
+            MeterRegistry meterRegistry,
+            @Value("${rigsheet.auth.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${rigsheet.auth.login.threads:0}") int threads,
+            @Value("${rigsheet.auth.login.queue-capacity:64}") int queueCapacity
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepo = userRepo;
+        this.bcryptStrength = bcryptStrength;
+
+        // Default: half the cores, so logins can never take the whole CPU
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "login-bcrypt-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.matched = loginTimer(meterRegistry, "success");
+        this.mismatched = loginTimer(meterRegistry, "invalid");
+        this.hashing = Timer.builder("rigsheet.auth.bcrypt")
+                .description("BCrypt password comparison alone, on the login pool")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("rigsheet.auth.login.rejected")
+                .description("Logins refused because the password-check queue was full")
+                .register(meterRegistry);
+        this.rehashed = Counter.builder("rigsheet.auth.login.rehashed")
+                .description("Password hashes re-encoded with the configured BCrypt cost")
+                .register(meterRegistry);
+        meterRegistry.gauge("rigsheet.auth.login.queue", List.of(), executor, e -> e.getQueue().size());
+        meterRegistry.gauge("rigsheet.auth.login.active", List.of(), executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    private static Timer loginTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("rigsheet.auth.login")
+                .description("Password verification latency, including time queued")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Check the password against the user's stored hash on the login pool.
+     *
+     * @return future completing with true if the password matches
+     * @throws RejectedExecutionException if the pool's queue is full
+     */
+    public CompletableFuture<Boolean> verify(UserProfile user, String rawPassword) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long hashStart = System.nanoTime();
+                boolean ok = passwordEncoder.matches(rawPassword, user.getPasswordHash());
+                hashing.record(System.nanoTime() - hashStart, TimeUnit.NANOSECONDS);
+                if (ok && needsRehash(user.getPasswordHash())) {
+                    rehash(user, rawPassword);
+                }
+                (ok ? matched : mismatched).record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return ok;
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw ex;
+        }
+    }
+
+    /** True if the hash was produced with a cost factor other than the configured one. */
+    boolean needsRehash(String hash) {
+        Matcher m = BCRYPT_COST.matcher(hash);
+        return !m.find() || Integer.parseInt(m.group(1)) != bcryptStrength;
+    }
+
+    private void rehash(UserProfile user, String rawPassword) {
+        try {
+            userRepo.updatePasswordHash(user.getId(), passwordEncoder.encode(rawPassword));
+            rehashed.increment();
+        } catch (Exception ex) {
+            // Login still succeeds; we'll try again next time
+            log.warn("Password re-hash failed for user {}: {}", user.getId(), ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
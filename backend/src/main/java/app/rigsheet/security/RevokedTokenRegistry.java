@@ -0,0 +1,98 @@
+package app.rigsheet.security;
+
+import app.rigsheet.model.RevokedToken;
+import app.rigsheet.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access-token IDs (jti), checked on every authenticated request.
+ *
+ * - A Bloom filter rebuilt from revoked_token answers "definitely not revoked"
+ *   for almost every request without touching the database
+ * - Only a filter hit costs an exact lookup; confirmed IDs are remembered
+ * - Local revocations go into the current filter immediately; they and the swap
+ *   in {@link #rebuild} hold the same lock, so none lands in a retired filter
+ */
+@Component
+public class RevokedTokenRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokenRegistry.class);
+
+    private final RevokedTokenRepository revokedRepo;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile Set<String> confirmed = ConcurrentHashMap.newKeySet();
+
+    public RevokedTokenRegistry(
+            RevokedTokenRepository revokedRepo,
+            @Value("${rigsheet.auth.revocation.expected-insertions:100000}") int expectedInsertions,
+            @Value("${rigsheet.auth.revocation.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.revokedRepo = revokedRepo;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * @return true if the token ID has been revoked (null IDs never are)
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        if (confirmed.contains(jti)) {
+            return true;
+        }
+        boolean revoked = revokedRepo.existsById(jti);
+        if (revoked) {
+            confirmed.add(jti);
+        }
+        return revoked;
+    }
+
+    /** Revoke a single access token until it would have expired anyway. */
+    public void revoke(String jti, Instant expiresAt) {
+        revokedRepo.save(RevokedToken.builder().jti(jti).expiresAt(expiresAt).build());
+        synchronized (this) {
+            filter.put(jti);
+            confirmed.add(jti);
+        }
+    }
+
+    /** Rebuild the filter from the database (also drops rows past their expiry). */
+    @Scheduled(
+            initialDelayString = "0",
+            fixedDelayString = "${rigsheet.auth.revocation.rebuild-ms:60000}"
+    )
+    public void rebuild() {
+        try {
+            Instant now = Instant.now();
+            revokedRepo.deleteExpired(now);
+            List<String> active = revokedRepo.findActiveJtis(now);
+
+            BloomFilter fresh = new BloomFilter(Math.max(expectedInsertions, active.size() * 2), falsePositiveRate);
+            active.forEach(fresh::put);
+            synchronized (this) {
+                // Local revocations that raced with the query
+                confirmed.forEach(fresh::put);
+                filter = fresh;
+                confirmed = ConcurrentHashMap.newKeySet();
+            }
+        } catch (Exception ex) {
+            // Keep the previous filter; it only ever errs toward an exact lookup
+            log.warn("Revoked token filter rebuild failed: {}", ex.getMessage());
+        }
+    }
+}
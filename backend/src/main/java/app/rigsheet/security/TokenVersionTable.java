@@ -0,0 +1,103 @@
+package app.rigsheet.security;
+
+import app.rigsheet.repository.UserProfileRepository;
+import app.rigsheet.repository.UserProfileRepository.TokenVersionRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of user_profile.token_version, used to revoke tokens
+ * without a per-request database lookup.
+ *
+ * - Only users with a version above 0 are kept (the default needs no entry)
+ * - Refreshed periodically so bumps made on other nodes are picked up
+ * - Local bumps are applied immediately
+ */
+@Component
+public class TokenVersionTable {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionTable.class);
+
+    private final UserProfileRepository userRepo;
+    private volatile Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    public TokenVersionTable(UserProfileRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * @return true if a token carrying this version is still valid for the user
+     */
+    public boolean isCurrent(String username, int tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(username, 0);
+    }
+
+    /** The lowest token version currently accepted for the user. */
+    public int current(String username) {
+        return versions.getOrDefault(username, 0);
+    }
+
+    /**
+     * Revoke every token issued to the user so far ("log out everywhere").
+     * @return false if the user does not exist
+     */
+    public boolean revokeAll(String username) {
+        if (userRepo.incrementTokenVersion(username) == 0) {
+            return false;
+        }
+        userRepo.findTokenVersionByUsername(username)
+                .ifPresent(v -> versions.merge(username, v, Math::max));
+        return true;
+    }
+
+    /**
+     * Revoke every token issued to the user so far after a write that may have changed
+     * the name they were issued under: bumps the row by id, and the previous name here.
+     * @param previousUsername  the name before the write
+     * @param previousVersion   the row's token version before the write
+     * @throws IllegalStateException if the user does not exist
+     */
+    public void revokeAll(Long userId, String previousUsername, int previousVersion) {
+        if (userRepo.incrementTokenVersionById(userId) == 0) {
+            throw new IllegalStateException("Cannot revoke the tokens of missing user " + userId);
+        }
+        revokeName(previousUsername, previousVersion);
+    }
+
+    /**
+     * Revoke every token issued under a name that no longer has a row (the user was
+     * deleted or renamed). Kept on this node only: there is nothing left to bump.
+     * Tokens later minted for the name start above it (see AuthController).
+     * @param tokenVersion the token version the name's row last had
+     */
+    public void revokeName(String username, int tokenVersion) {
+        Objects.requireNonNull(username, "username");
+        versions.compute(username, (name, current) -> Math.max(current == null ? 0 : current, tokenVersion) + 1);
+    }
+
+    /** Reload the table from the database. */
+    @Scheduled(
+            initialDelayString = "0",
+            fixedDelayString = "${rigsheet.auth.token-version.refresh-ms:30000}"
+    )
+    public void refresh() {
+        try {
+            Map<String, Integer> fresh = new ConcurrentHashMap<>();
+            for (TokenVersionRow row : userRepo.findByTokenVersionGreaterThan(0)) {
+                fresh.put(row.getUsername(), row.getTokenVersion());
+            }
+            // Versions only ever go up; keep local bumps that raced with the query
+            versions.forEach((username, v) -> fresh.merge(username, v, Math::max));
+            versions = fresh;
+        } catch (Exception ex) {
+            // Keep serving the last known table; next run will retry
+            log.warn("Token version refresh failed: {}", ex.getMessage());
+        }
+    }
+}
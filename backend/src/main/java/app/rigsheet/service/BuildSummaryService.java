@@ -0,0 +1,321 @@
+package app.rigsheet.service;
+
+import app.rigsheet.model.Modification;
+import app.rigsheet.model.VehicleBuildSummary;
+import app.rigsheet.model.VehicleBuildSummary.CategoryTotals;
+import app.rigsheet.repository.ModificationRepository;
+import app.rigsheet.repository.ModificationRepository.CategoryRollup;
+import app.rigsheet.repository.VehicleBuildSummaryRepository;
+import app.rigsheet.repository.VehicleInfoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Per-vehicle build rollups (see {@link VehicleBuildSummary}).
+ *
+ * <ul>
+ *   <li>{@link ModificationService} calls {@link #record} inside each mod write,
+ *       so the rollup commits or rolls back with the mod itself</li>
+ *   <li>Writers lock the summary row, so concurrent edits to one rig apply in turn</li>
+ *   <li>Every mod write also bumps the row's {@code modsVersion}, which serves as
+ *       the ETag of the vehicle's public mod list and summary</li>
+ *   <li>{@link #reconcile()} periodically recomputes every rollup from the mod rows
+ *       and repairs any drift (manual SQL, float rounding, bugs)</li>
+ *   <li>Every change is handed on to {@link LeaderboardService}, which applies it
+ *       once the write commits</li>
+ * </ul>
+ */
+@Service
+public class BuildSummaryService {
+
+    /** Category key used for mods without a category. */
+    public static final String UNCATEGORIZED = "uncategorized";
+
+    private static final Logger log = LoggerFactory.getLogger(BuildSummaryService.class);
+
+    /** Tolerance when comparing stored totals with recomputed ones. */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * What one mod adds to its vehicle's rollup (and, by brand, to the leaderboards).
+     * Snapshot this before mutating a managed mod; {@code null} means "counts nowhere".
+     */
+    public record Contribution(Long vehicleInfoId, String category, String brand, double cost, double weight) {
+
+        public static Contribution of(Modification mod) {
+            if (mod == null || mod.getVehicleInfo() == null) {
+                return null;
+            }
+            return of(mod.getVehicleInfo().getId(), mod.getCategory(), mod.getBrand(), mod.getCost(), mod.getWeight());
+        }
+
+        /** From raw column values, e.g. a row returned by a conditional update. */
+        public static Contribution of(Long vehicleInfoId, String category, String brand, Double cost, Double weight) {
+            if (vehicleInfoId == null) {
+                return null;
+            }
+            return new Contribution(
+                    vehicleInfoId,
+                    category == null ? UNCATEGORIZED : category,
+                    brand,
+                    cost == null ? 0 : cost,
+                    weight == null ? 0 : weight);
+        }
+    }
+
+    private final VehicleBuildSummaryRepository summaryRepo;
+    private final ModificationRepository modRepo;
+    private final VehicleInfoRepository vehicleRepo;
+    private final LeaderboardService leaderboards;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final Counter repaired;
+
+    public BuildSummaryService(VehicleBuildSummaryRepository summaryRepo,
+                               ModificationRepository modRepo,
+                               VehicleInfoRepository vehicleRepo,
+                               LeaderboardService leaderboards,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${rigsheet.rollups.reconcile-batch-size:500}") int batchSize) {
+        this.summaryRepo = summaryRepo;
+        this.modRepo = modRepo;
+        this.vehicleRepo = vehicleRepo;
+        this.leaderboards = leaderboards;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.repaired = Counter.builder("rigsheet.rollups.repaired")
+                .description("Vehicle build rollups corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The rollup for a vehicle: a single primary-key read.
+     * @return empty only if the vehicle does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<VehicleBuildSummary> getSummary(Long vehicleInfoId) {
+        return summaryRepo.findById(vehicleInfoId)
+                .or(() -> vehicleRepo.existsById(vehicleInfoId)
+                        ? Optional.of(VehicleBuildSummary.empty(vehicleInfoId))
+                        : Optional.empty());
+    }
+
+    /**
+     * The vehicle's mods version: one primary-key read, for conditional GETs.
+     * @return empty if no mod was ever recorded for the vehicle (or it does not exist)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getModsVersion(Long vehicleInfoId) {
+        return summaryRepo.findModsVersion(vehicleInfoId);
+    }
+
+    /**
+     * Move a mod's contribution from {@code before} to {@code after}.
+     * Pass {@code null} before for a create and {@code null} after for a delete.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Contribution before, Contribution after) {
+        if (Objects.equals(before, after)) {
+            // e.g. only the name or links changed: totals and rankings stay, the mod list didn't
+            if (before != null && summaryRepo.bumpModsVersion(before.vehicleInfoId()) == 0) {
+                lockOrCreate(before.vehicleInfoId()).setModsVersion(1);
+            }
+            return;
+        }
+        // Lock in id order so a mod moving between two rigs can't deadlock
+        TreeSet<Long> vehicleIds = new TreeSet<>();
+        if (before != null) vehicleIds.add(before.vehicleInfoId());
+        if (after != null) vehicleIds.add(after.vehicleInfoId());
+
+        List<VehicleBuildSummary> changed = new ArrayList<>(vehicleIds.size());
+        for (Long vehicleId : vehicleIds) {
+            VehicleBuildSummary summary = lockOrCreate(vehicleId);
+            Map<String, CategoryTotals> categories = new TreeMap<>(summary.getCategories());
+            if (before != null && vehicleId.equals(before.vehicleInfoId())) {
+                apply(summary, categories, before, -1);
+            }
+            if (after != null && vehicleId.equals(after.vehicleInfoId())) {
+                apply(summary, categories, after, 1);
+            }
+            summary.setCategories(categories);
+            summary.setUpdatedAt(Instant.now());
+            summary.setModsVersion(summary.getModsVersion() + 1);
+            changed.add(summary);
+        }
+        leaderboards.afterCommit(changed,
+                before == null ? List.of() : List.of(before), after == null ? List.of() : List.of(after));
+    }
+
+    /**
+     * Add many new mods at once (bulk import): one locked read-modify-write
+     * per vehicle instead of one per mod.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Collection<Contribution> added) {
+        recordAll(List.of(), added);
+    }
+
+    /**
+     * Apply many changes at once (batch edits): take out every {@code removed}
+     * contribution and add every {@code added} one, locking each vehicle once, in id order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Collection<Contribution> removed, Collection<Contribution> added) {
+        Map<Long, List<Contribution>> removedByVehicle = byVehicle(removed);
+        Map<Long, List<Contribution>> addedByVehicle = byVehicle(added);
+        TreeSet<Long> vehicleIds = new TreeSet<>(removedByVehicle.keySet());
+        vehicleIds.addAll(addedByVehicle.keySet());
+
+        List<VehicleBuildSummary> changed = new ArrayList<>(vehicleIds.size());
+        for (Long vehicleId : vehicleIds) {
+            VehicleBuildSummary summary = lockOrCreate(vehicleId);
+            Map<String, CategoryTotals> categories = new TreeMap<>(summary.getCategories());
+            removedByVehicle.getOrDefault(vehicleId, List.of()).forEach(c -> apply(summary, categories, c, -1));
+            addedByVehicle.getOrDefault(vehicleId, List.of()).forEach(c -> apply(summary, categories, c, 1));
+            summary.setCategories(categories);
+            summary.setUpdatedAt(Instant.now());
+            summary.setModsVersion(summary.getModsVersion() + 1);
+            changed.add(summary);
+        }
+        leaderboards.afterCommit(changed, removed, added);
+    }
+
+    /**
+     * Recompute every rollup from the mod rows and overwrite the ones that drifted.
+     * Walks vehicles in id batches, one short transaction each.
+     */
+    @Scheduled(
+            initialDelayString = "${rigsheet.rollups.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${rigsheet.rollups.reconcile-ms:3600000}"
+    )
+    public void reconcile() {
+        try {
+            long afterId = 0;
+            int fixed = 0;
+            List<Long> ids;
+            while (!(ids = vehicleRepo.findIdsAfter(afterId, PageRequest.of(0, batchSize))).isEmpty()) {
+                List<Long> batch = ids;
+                fixed += Objects.requireNonNull(tx.execute(status -> reconcileBatch(batch)));
+                afterId = ids.get(ids.size() - 1);
+            }
+            if (fixed > 0) {
+                repaired.increment(fixed);
+                log.info("Build rollup reconciliation repaired {} vehicle(s)", fixed);
+            }
+        } catch (Exception ex) {
+            // Next run tries again; live writes keep rollups current meanwhile
+            log.warn("Build rollup reconciliation failed: {}", ex.getMessage());
+        }
+    }
+
+    private int reconcileBatch(List<Long> vehicleIds) {
+        // Lock first, then read the mods: any writer still in flight applies its delta after us
+        Map<Long, VehicleBuildSummary> stored = new HashMap<>();
+        summaryRepo.findAllForUpdate(vehicleIds).forEach(s -> stored.put(s.getVehicleInfoId(), s));
+        if (stored.size() < vehicleIds.size()) {
+            vehicleIds.stream().filter(id -> !stored.containsKey(id)).forEach(summaryRepo::insertIfAbsent);
+            summaryRepo.findAllForUpdate(vehicleIds).forEach(s -> stored.put(s.getVehicleInfoId(), s));
+        }
+
+        Map<Long, VehicleBuildSummary> expected = new HashMap<>();
+        for (CategoryRollup row : modRepo.rollupByVehicleInfoIds(vehicleIds)) {
+            VehicleBuildSummary s = expected.computeIfAbsent(row.getVehicleInfoId(), VehicleBuildSummary::empty);
+            String category = row.getCategory() == null ? UNCATEGORIZED : row.getCategory();
+            CategoryTotals totals = new CategoryTotals(row.getMods(), row.getCost(), row.getWeight());
+            s.getCategories().merge(category, totals, BuildSummaryService::sum);
+            s.setModCount(s.getModCount() + row.getMods().intValue());
+            s.setTotalCost(s.getTotalCost() + row.getCost());
+            s.setTotalWeight(s.getTotalWeight() + row.getWeight());
+        }
+
+        int fixed = 0;
+        for (Long vehicleId : vehicleIds) {
+            VehicleBuildSummary actual = stored.get(vehicleId);
+            VehicleBuildSummary want = expected.getOrDefault(vehicleId, VehicleBuildSummary.empty(vehicleId));
+            if (actual == null || matches(actual, want)) {
+                continue;
+            }
+            actual.setModCount(want.getModCount());
+            actual.setTotalCost(want.getTotalCost());
+            actual.setTotalWeight(want.getTotalWeight());
+            actual.setCategories(new TreeMap<>(want.getCategories()));
+            actual.setUpdatedAt(Instant.now());
+            actual.setModsVersion(actual.getModsVersion() + 1);
+            fixed++;
+        }
+        return fixed;
+    }
+
+    private static Map<Long, List<Contribution>> byVehicle(Collection<Contribution> contributions) {
+        return contributions.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Contribution::vehicleInfoId));
+    }
+
+    private VehicleBuildSummary lockOrCreate(Long vehicleId) {
+        return summaryRepo.findForUpdate(vehicleId).orElseGet(() -> {
+            summaryRepo.insertIfAbsent(vehicleId);
+            return summaryRepo.findForUpdate(vehicleId).orElseThrow();
+        });
+    }
+
+    private static void apply(VehicleBuildSummary summary, Map<String, CategoryTotals> categories,
+                              Contribution c, int sign) {
+        summary.setModCount(summary.getModCount() + sign);
+        summary.setTotalCost(summary.getTotalCost() + sign * c.cost());
+        summary.setTotalWeight(summary.getTotalWeight() + sign * c.weight());
+
+        CategoryTotals delta = new CategoryTotals(sign, sign * c.cost(), sign * c.weight());
+        CategoryTotals merged = sum(categories.getOrDefault(c.category(), new CategoryTotals(0, 0, 0)), delta);
+        if (merged.count() <= 0) {
+            categories.remove(c.category());
+        } else {
+            categories.put(c.category(), merged);
+        }
+    }
+
+    private static CategoryTotals sum(CategoryTotals a, CategoryTotals b) {
+        return new CategoryTotals(a.count() + b.count(), a.cost() + b.cost(), a.weight() + b.weight());
+    }
+
+    private static boolean matches(VehicleBuildSummary actual, VehicleBuildSummary want) {
+        if (actual.getModCount() != want.getModCount()
+                || !close(actual.getTotalCost(), want.getTotalCost())
+                || !close(actual.getTotalWeight(), want.getTotalWeight())
+                || !actual.getCategories().keySet().equals(want.getCategories().keySet())) {
+            return false;
+        }
+        return want.getCategories().entrySet().stream().allMatch(e -> {
+            CategoryTotals a = actual.getCategories().get(e.getKey());
+            CategoryTotals w = e.getValue();
+            return a.count() == w.count() && close(a.cost(), w.cost()) && close(a.weight(), w.weight());
+        });
+    }
+
+    private static boolean close(double a, double b) {
+        return Math.abs(a - b) < EPSILON;
+    }
+}
@@ -0,0 +1,150 @@
+package app.rigsheet.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Just enough RFC 4180: comma separated, fields optionally double-quoted,
+ * {@code ""} for a literal quote inside quotes, line breaks allowed inside quotes.
+ * {@link #line} writes what {@link RecordReader} and {@link #parseRecord} read back.
+ */
+final class Csv {
+
+    private Csv() {}
+
+    /**
+     * Split one record, as returned by {@link RecordReader#next}, into its fields.
+     * @throws IllegalArgumentException on an unterminated quoted field
+     */
+    static List<String> parseRecord(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** One CSV record (no line terminator); nulls become empty fields. */
+    static String line(Object... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (fields[i] != null) {
+                String v = fields[i].toString();
+                if (v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0
+                        || (!v.isEmpty() && (Character.isWhitespace(v.charAt(0))
+                                || Character.isWhitespace(v.charAt(v.length() - 1))))) {
+                    sb.append('"').append(v.replace("\"", "\"\"")).append('"');
+                } else {
+                    sb.append(v);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads a stream record by record. A line break ({@code \n}, {@code \r\n} or
+     * {@code \r}) inside a quoted field is kept as is; one outside ends the record.
+     */
+    static final class RecordReader {
+
+        private static final int NONE = -2;
+
+        private final BufferedReader in;
+        private final int maxLength;
+        private final StringBuilder record = new StringBuilder();
+        private long line;
+        private long nextLine = 1;
+        private int pending = NONE;
+
+        /**
+         * @param maxLength past this many characters a record ends at the next line
+         *                  break even inside quotes, so an unbalanced quote costs one
+         *                  bad record instead of buffering the rest of the stream
+         */
+        RecordReader(BufferedReader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        /** The next record without its line break; null at the end of the stream. */
+        String next() throws IOException {
+            record.setLength(0);
+            line = nextLine;
+            boolean quoted = false;
+            int c = read();
+            if (c < 0) {
+                return null;
+            }
+            for (; c >= 0; c = read()) {
+                if (c == '\r' || c == '\n') {
+                    String lineBreak = "\n";
+                    if (c == '\r') {
+                        int following = read();
+                        if (following == '\n') {
+                            lineBreak = "\r\n";
+                        } else {
+                            pending = following;
+                            lineBreak = "\r";
+                        }
+                    }
+                    nextLine++;
+                    if (!quoted || record.length() >= maxLength) {
+                        return record.toString();
+                    }
+                    record.append(lineBreak);
+                    continue;
+                }
+                if (c == '"') {
+                    quoted = !quoted; // "" inside quotes flips twice
+                }
+                record.append((char) c);
+            }
+            return record.toString();
+        }
+
+        /** The (1-based) line the last record returned by {@link #next} started on. */
+        long line() {
+            return line;
+        }
+
+        private int read() throws IOException {
+            if (pending != NONE) {
+                int c = pending;
+                pending = NONE;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
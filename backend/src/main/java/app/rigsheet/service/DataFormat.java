@@ -0,0 +1,51 @@
+package app.rigsheet.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/** Line-oriented bulk formats used by mod import and the export endpoints. */
+public enum DataFormat {
+
+    /** Header row naming the columns, then one record per line. */
+    CSV("csv", DataFormat.TEXT_CSV),
+
+    /** One JSON object per line. */
+    NDJSON("ndjson", DataFormat.APPLICATION_NDJSON);
+
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final String key;
+    private final MediaType mediaType;
+
+    DataFormat(String key, String mediaType) {
+        this.key = key;
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    /** Short name, used as a query parameter value and file extension. */
+    public String key() {
+        return key;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /** @return the format for "csv" / "ndjson" (case-insensitive), if any */
+    public static Optional<DataFormat> fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(f -> f.key.equals(key == null ? null : key.toLowerCase(Locale.ROOT)))
+                .findFirst();
+    }
+
+    /** @return the format whose media type matches (parameters such as charset are ignored), if any */
+    public static Optional<DataFormat> fromMediaType(MediaType type) {
+        return Arrays.stream(values())
+                .filter(f -> f.mediaType.isCompatibleWith(type))
+                .findFirst();
+    }
+}
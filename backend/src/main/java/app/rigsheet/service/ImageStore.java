@@ -0,0 +1,194 @@
+package app.rigsheet.service;
+
+import app.rigsheet.dto.ImageRef;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image files on local disk: an image lives at
+ * {@code <dir>/<first two hex digits>/<sha-256>}, so uploading the same bytes twice
+ * stores them once, and a stored file never changes.
+ *
+ * <ul>
+ *   <li>Uploads are streamed to a temp file under {@code <dir>/tmp} while hashing, then
+ *       renamed into place, so readers never see a partial file</li>
+ *   <li>Only JPEG, PNG, GIF and WebP are accepted, recognised by their leading bytes
+ *       (not the declared type); SVG is refused since it can carry script</li>
+ *   <li>The type is not stored; it is read off the file's first bytes when served</li>
+ * </ul>
+ *
+ * Uploads are counted as {@code rigsheet.images.uploads}, tagged stored or duplicate.
+ */
+@Service
+public class ImageStore {
+
+    /** Path of the serving endpoint; an image's URL is this plus its hash. */
+    public static final String URL_PREFIX = "/api/images/";
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    /** Enough leading bytes to tell the accepted formats apart. */
+    private static final int SIGNATURE_BYTES = 12;
+
+    /** An image on disk, ready to serve. */
+    public record Image(String hash, Path path, MediaType contentType, long size) {}
+
+    /** The stored image, and whether these bytes were new. */
+    public record Upload(ImageRef image, boolean created) {}
+
+    private final Path root;
+    private final Path tmp;
+    private final long maxBytes;
+    private final Counter stored;
+    private final Counter duplicates;
+
+    public ImageStore(@Value("${rigsheet.images.dir:./data/images}") Path dir,
+                      @Value("${rigsheet.images.max-size:10MB}") DataSize maxSize,
+                      MeterRegistry meterRegistry) throws IOException {
+        this.root = Files.createDirectories(dir).toRealPath();
+        this.tmp = Files.createDirectories(root.resolve("tmp"));
+        this.maxBytes = maxSize.toBytes();
+        this.stored = Counter.builder("rigsheet.images.uploads")
+                .description("Image uploads")
+                .tag("result", "stored")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("rigsheet.images.uploads")
+                .description("Image uploads")
+                .tag("result", "duplicate")
+                .register(meterRegistry);
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Stores the image read from {@code body} (closing it) unless identical bytes are already stored.
+     *
+     * @throws ResponseStatusException 413 past the size limit, 415 if not a supported image
+     */
+    public Upload store(InputStream body) throws IOException {
+        Path part = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            MessageDigest sha256 = sha256();
+            byte[] signature = new byte[SIGNATURE_BYTES];
+            long size = 0;
+            try (InputStream in = body; OutputStream out = Files.newOutputStream(part)) {
+                byte[] buffer = new byte[64 * 1024];
+                for (int n; (n = in.read(buffer)) != -1; ) {
+                    if (size < SIGNATURE_BYTES) {
+                        System.arraycopy(buffer, 0, signature, (int) size, (int) Math.min(n, SIGNATURE_BYTES - size));
+                    }
+                    size += n;
+                    if (size > maxBytes) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "Images are limited to " + maxBytes + " bytes");
+                    }
+                    sha256.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            }
+            MediaType type = sniff(size < SIGNATURE_BYTES ? Arrays.copyOf(signature, (int) size) : signature)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                            "Only JPEG, PNG, GIF and WebP images are accepted"));
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path target = pathOf(hash);
+            boolean created = !Files.exists(target);
+            if (created) {
+                Files.createDirectories(target.getParent());
+                // A concurrent upload of the same bytes may win the rename; it wrote the same content
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+                stored.increment();
+            } else {
+                duplicates.increment();
+            }
+            return new Upload(new ImageRef(hash, URL_PREFIX + hash, type.toString(), size), created);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    /** The stored image with this hash; empty if unknown or not a hash at all. */
+    public Optional<Image> find(String hash) throws IOException {
+        if (!isHash(hash)) {
+            return Optional.empty();
+        }
+        Path path = pathOf(hash);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path)) {
+            ByteBuffer signature = ByteBuffer.allocate(SIGNATURE_BYTES);
+            channel.read(signature, 0);
+            MediaType type = sniff(Arrays.copyOf(signature.array(), signature.position()))
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+            return Optional.of(new Image(hash, path, type, channel.size()));
+        }
+    }
+
+    /** Whether {@code value} is shaped like an image hash (lowercase hex SHA-256). */
+    public static boolean isHash(String value) {
+        return HASH.matcher(value).matches();
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static Optional<MediaType> sniff(byte[] b) {
+        if (startsWith(b, 0xFF, 0xD8, 0xFF)) {
+            return Optional.of(MediaType.IMAGE_JPEG);
+        }
+        if (startsWith(b, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return Optional.of(MediaType.IMAGE_PNG);
+        }
+        if (startsWith(b, 'G', 'I', 'F', '8')) {
+            return Optional.of(MediaType.IMAGE_GIF);
+        }
+        if (startsWith(b, 'R', 'I', 'F', 'F') && b.length >= 12
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return Optional.of(MediaType.parseMediaType("image/webp"));
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package app.rigsheet.service;
+
+import app.rigsheet.dto.BrandRank;
+import app.rigsheet.dto.VehicleRank;
+import app.rigsheet.model.VehicleBuildSummary;
+import app.rigsheet.repository.ModificationRepository;
+import app.rigsheet.repository.VehicleBuildSummaryRepository;
+import app.rigsheet.service.BuildSummaryService.Contribution;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Community leaderboards, kept in memory: top vehicles by total mod cost, total
+ * added weight and mod count, and top brands (by mods) within each category.
+ *
+ * <ul>
+ *   <li>Each board is a sorted index over every ranked vehicle (or brand), so a
+ *       change moves one entry in O(log n); the first {@code rigsheet.leaderboards.size}
+ *       entries are then republished as an immutable list, and reads just slice it</li>
+ *   <li>{@link BuildSummaryService} hands over every rollup change; it is applied once
+ *       the write commits. Vehicle totals carry the summary's mods version, so an older
+ *       update arriving late never overwrites a newer one</li>
+ *   <li>The boards are loaded at startup and rebuilt every
+ *       {@code rigsheet.leaderboards.rebuild-ms} from the build summaries and one
+ *       grouped count over the mods. That picks up other nodes' writes and repairs any drift</li>
+ *   <li>Both are read in one repeatable-read snapshot. Brand deltas have no version of
+ *       their own, so each carries the mods version the write gave its vehicle; one the
+ *       snapshot already saw (however late it arrives) is not added on top again</li>
+ * </ul>
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    /** The vehicle leaderboards. */
+    public enum VehicleBoard {
+        COST("cost", Totals::totalCost),
+        WEIGHT("weight", Totals::totalWeight),
+        MODS("mods", Totals::modCount);
+
+        private final String key;
+        private final Comparator<Totals> order;
+
+        VehicleBoard(String key, ToDoubleFunction<Totals> score) {
+            this.key = key;
+            this.order = Comparator.comparingDouble(score).reversed().thenComparing(Totals::vehicleInfoId);
+        }
+
+        /** Value used in the request path. */
+        public String key() {
+            return key;
+        }
+
+        public static Optional<VehicleBoard> fromKey(String key) {
+            return Arrays.stream(values()).filter(b -> b.key.equals(key)).findFirst();
+        }
+    }
+
+    /** A vehicle's totals as of one mods version. */
+    private record Totals(Long vehicleInfoId, long modsVersion, int modCount, double totalCost, double totalWeight) {
+
+        static Totals of(VehicleBuildSummary s) {
+            return new Totals(s.getVehicleInfoId(), s.getModsVersion(), s.getModCount(),
+                    s.getTotalCost(), s.getTotalWeight());
+        }
+
+        static Totals of(VehicleBuildSummaryRepository.Totals row) {
+            return new Totals(row.getVehicleInfoId(), row.getModsVersion(), row.getModCount(),
+                    row.getTotalCost(), row.getTotalWeight());
+        }
+    }
+
+    private record BrandKey(String category, String brand) {}
+
+    /** A brand count changed by one write to a vehicle's mods, as of the version it made. */
+    private record BrandChange(BrandKey key, Long vehicleInfoId, long modsVersion) {}
+
+    private record BrandCount(String brand, long mods) {}
+
+    private static final Comparator<BrandCount> BRAND_ORDER =
+            Comparator.comparingLong(BrandCount::mods).reversed().thenComparing(BrandCount::brand);
+
+    /** What committed while a rebuild was reading, to lay over what it read. */
+    private static final class Pending {
+        final Set<Long> vehicles = new HashSet<>();
+        final List<Map.Entry<BrandChange, Long>> brands = new ArrayList<>();
+    }
+
+    /** One consistent read of the summaries and brand counts. */
+    private record Snapshot(List<Totals> totals, List<ModificationRepository.BrandCount> brands) {}
+
+    private final VehicleBuildSummaryRepository summaryRepo;
+    private final ModificationRepository modRepo;
+    private final TransactionTemplate snapshotTx;
+    private final int size;
+    private final int defaultLimit;
+
+    // Indexes; guarded by this
+    private final Map<Long, Totals> vehicles = new HashMap<>();
+    private final Map<VehicleBoard, TreeSet<Totals>> vehicleRankings = new EnumMap<>(VehicleBoard.class);
+    private final Map<String, Map<String, Long>> brandCounts = new HashMap<>();
+    private final Map<String, TreeSet<BrandCount>> brandRankings = new HashMap<>();
+    // Each vehicle's mods version as of the count the brand indexes were rebuilt from
+    private Map<Long, Long> countedVersions = Map.of();
+    private Pending pending;
+
+    // Published top entries; read without locking
+    private volatile Map<VehicleBoard, List<VehicleRank>> topVehicles = Map.of();
+    private final Map<String, List<BrandRank>> topBrands = new ConcurrentHashMap<>();
+
+    public LeaderboardService(VehicleBuildSummaryRepository summaryRepo,
+                              ModificationRepository modRepo,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${rigsheet.leaderboards.size:100}") int size,
+                              @Value("${rigsheet.leaderboards.default-limit:10}") int defaultLimit) {
+        this.summaryRepo = summaryRepo;
+        this.modRepo = modRepo;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setReadOnly(true);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.size = Math.max(1, size);
+        this.defaultLimit = Math.min(this.size, Math.max(1, defaultLimit));
+        for (VehicleBoard board : VehicleBoard.values()) {
+            vehicleRankings.put(board, new TreeSet<>(board.order));
+        }
+    }
+
+    /** The top vehicles on a board; {@code limit} is clamped to the board size. */
+    public List<VehicleRank> topVehicles(VehicleBoard board, Integer limit) {
+        return head(topVehicles.getOrDefault(board, List.of()), limit);
+    }
+
+    /** The top brands within a category (empty for an unknown one). */
+    public List<BrandRank> topBrands(String category, Integer limit) {
+        return head(topBrands.getOrDefault(category, List.of()), limit);
+    }
+
+    /** Categories that have a brand leaderboard, sorted. */
+    public List<String> brandCategories() {
+        return topBrands.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * Queue rollup changes made by the current transaction, applied if it commits:
+     * the changed vehicles' new totals, and the contributions taken out and put in.
+     * Every contribution's vehicle must be among {@code changed}.
+     */
+    void afterCommit(Collection<VehicleBuildSummary> changed,
+                     Collection<Contribution> removed, Collection<Contribution> added) {
+        List<Totals> totals = changed.stream().map(Totals::of).toList();
+        Map<Long, Long> versions = new HashMap<>();
+        totals.forEach(t -> versions.put(t.vehicleInfoId(), t.modsVersion()));
+        Map<BrandChange, Long> brands = new LinkedHashMap<>();
+        removed.stream().filter(c -> c != null && c.brand() != null)
+                .forEach(c -> brands.merge(brandChange(c, versions), -1L, Long::sum));
+        added.stream().filter(c -> c != null && c.brand() != null)
+                .forEach(c -> brands.merge(brandChange(c, versions), 1L, Long::sum));
+        brands.values().removeIf(delta -> delta == 0);
+        if (totals.isEmpty() && brands.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(totals, brands);
+            }
+        });
+    }
+
+    private static BrandChange brandChange(Contribution c, Map<Long, Long> versions) {
+        return new BrandChange(new BrandKey(c.category(), c.brand()), c.vehicleInfoId(),
+                versions.getOrDefault(c.vehicleInfoId(), Long.MAX_VALUE));
+    }
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    /** Reload every board from the database; live updates keep flowing meanwhile. */
+    @Scheduled(
+            initialDelayString = "${rigsheet.leaderboards.rebuild-ms:300000}",
+            fixedDelayString = "${rigsheet.leaderboards.rebuild-ms:300000}"
+    )
+    public void rebuild() {
+        synchronized (this) {
+            pending = new Pending();
+        }
+        try {
+            Snapshot snapshot = Objects.requireNonNull(snapshotTx.execute(status -> new Snapshot(
+                    summaryRepo.findAllTotals().stream().map(Totals::of).toList(),
+                    modRepo.countByCategoryAndBrand())));
+            synchronized (this) {
+                Map<Long, Totals> fresh = new HashMap<>();
+                snapshot.totals().forEach(t -> fresh.put(t.vehicleInfoId(), t));
+                Map<Long, Long> readVersions = new HashMap<>();
+                fresh.forEach((id, t) -> readVersions.put(id, t.modsVersion()));
+                // A live update newer than what we read wins (the versions tell)
+                for (Long id : pending.vehicles) {
+                    Totals live = vehicles.get(id);
+                    Totals read = fresh.get(id);
+                    if (live != null && (read == null || live.modsVersion() > read.modsVersion())) {
+                        fresh.put(id, live);
+                    }
+                }
+                vehicles.clear();
+                vehicleRankings.values().forEach(TreeSet::clear);
+                fresh.values().forEach(this::putVehicle);
+
+                brandCounts.clear();
+                brandRankings.clear();
+                for (ModificationRepository.BrandCount row : snapshot.brands()) {
+                    String category = row.getCategory() == null ? BuildSummaryService.UNCATEGORIZED : row.getCategory();
+                    addBrand(new BrandKey(category, row.getBrand()), row.getMods());
+                }
+                countedVersions = readVersions;
+                pending.brands.forEach(e -> addBrandUncounted(e.getKey(), e.getValue()));
+
+                publishVehicles();
+                topBrands.keySet().retainAll(brandRankings.keySet());
+                brandRankings.keySet().forEach(this::publishBrands);
+                log.debug("Leaderboards rebuilt: {} vehicles, {} brand categories", vehicles.size(), brandRankings.size());
+            }
+        } catch (Exception ex) {
+            // Keep serving the current boards; next run tries again
+            log.warn("Leaderboard rebuild failed: {}", ex.getMessage());
+        } finally {
+            synchronized (this) {
+                pending = null;
+            }
+        }
+    }
+
+    private synchronized void apply(List<Totals> totals, Map<BrandChange, Long> brands) {
+        for (Totals t : totals) {
+            Totals current = vehicles.get(t.vehicleInfoId());
+            if (current == null || current.modsVersion() < t.modsVersion()) {
+                putVehicle(t);
+            }
+            if (pending != null) {
+                pending.vehicles.add(t.vehicleInfoId());
+            }
+        }
+        brands.forEach((change, delta) -> {
+            addBrandUncounted(change, delta);
+            if (pending != null) {
+                pending.brands.add(Map.entry(change, delta));
+            }
+        });
+        if (!totals.isEmpty()) {
+            publishVehicles();
+        }
+        brands.keySet().stream().map(c -> c.key().category()).distinct().forEach(this::publishBrands);
+    }
+
+    private void putVehicle(Totals t) {
+        Totals previous = vehicles.put(t.vehicleInfoId(), t);
+        for (VehicleBoard board : VehicleBoard.values()) {
+            TreeSet<Totals> ranking = vehicleRankings.get(board);
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            if (t.modCount() > 0) {
+                ranking.add(t);
+            }
+        }
+    }
+
+    /** The count already holds a delta if it was read with the vehicle at (or past) the delta's version. */
+    private void addBrandUncounted(BrandChange change, long delta) {
+        if (countedVersions.getOrDefault(change.vehicleInfoId(), 0L) < change.modsVersion()) {
+            addBrand(change.key(), delta);
+        }
+    }
+
+    private void addBrand(BrandKey key, long delta) {
+        Map<String, Long> counts = brandCounts.computeIfAbsent(key.category(), c -> new HashMap<>());
+        TreeSet<BrandCount> ranking = brandRankings.computeIfAbsent(key.category(), c -> new TreeSet<>(BRAND_ORDER));
+        long before = counts.getOrDefault(key.brand(), 0L);
+        long after = before + delta;
+        if (before > 0) {
+            ranking.remove(new BrandCount(key.brand(), before));
+        }
+        if (after > 0) {
+            counts.put(key.brand(), after);
+            ranking.add(new BrandCount(key.brand(), after));
+        } else {
+            counts.remove(key.brand());
+        }
+        if (counts.isEmpty()) {
+            brandCounts.remove(key.category());
+            brandRankings.remove(key.category());
+        }
+    }
+
+    private void publishVehicles() {
+        Map<VehicleBoard, List<VehicleRank>> top = new EnumMap<>(VehicleBoard.class);
+        vehicleRankings.forEach((board, ranking) -> {
+            List<VehicleRank> rows = new ArrayList<>(Math.min(size, ranking.size()));
+            for (Totals t : ranking) {
+                if (rows.size() == size) {
+                    break;
+                }
+                rows.add(new VehicleRank(rows.size() + 1, t.vehicleInfoId(), t.modCount(), t.totalCost(), t.totalWeight()));
+            }
+            top.put(board, List.copyOf(rows));
+        });
+        topVehicles = top;
+    }
+
+    private void publishBrands(String category) {
+        TreeSet<BrandCount> ranking = brandRankings.get(category);
+        if (ranking == null) {
+            topBrands.remove(category);
+            return;
+        }
+        List<BrandRank> rows = new ArrayList<>(Math.min(size, ranking.size()));
+        for (BrandCount b : ranking) {
+            if (rows.size() == size) {
+                break;
+            }
+            rows.add(new BrandRank(rows.size() + 1, b.brand(), b.mods()));
+        }
+        topBrands.put(category, List.copyOf(rows));
+    }
+
+    private <T> List<T> head(List<T> rows, Integer limit) {
+        int n = limit == null ? defaultLimit : Math.min(size, Math.max(1, limit));
+        return rows.subList(0, Math.min(n, rows.size()));
+    }
+}
@@ -0,0 +1,390 @@
+package app.rigsheet.service;
+
+import app.rigsheet.dto.ModImportReport;
+import app.rigsheet.dto.ModImportReport.RowError;
+import app.rigsheet.dto.ModImportRow;
+import app.rigsheet.model.Modification;
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.model.VehicleInfo;
+import app.rigsheet.repository.UserProfileRepository;
+import app.rigsheet.repository.VehicleInfoRepository;
+import app.rigsheet.service.BuildSummaryService.Contribution;
+import app.rigsheet.service.ModListCache.Listing;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import of modifications from CSV or NDJSON.
+ *
+ * <ul>
+ *   <li>The body is read record by record (a CSV record may span lines inside quotes);
+ *       only the current batch is held in memory</li>
+ *   <li>Rows are validated up front; bad rows are reported by line number and skipped</li>
+ *   <li>Each batch is one transaction of JDBC-batched inserts (pooled ids, see V10),
+ *       plus one build-rollup update per vehicle</li>
+ *   <li>Batches commit independently, so a failure never loses earlier rows</li>
+ * </ul>
+ */
+@Service
+public class ModImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ModImportService.class);
+
+    /** varchar(255) columns on modification. */
+    private static final int MAX_TEXT = 255;
+
+    /** Longest CSV record read across line breaks; far above what ten such columns need. */
+    private static final int MAX_CSV_RECORD = 64 * 1024;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final ObjectMapper objectMapper;
+    private final VehicleInfoRepository vehicleRepo;
+    private final UserProfileRepository userRepo;
+    private final BuildSummaryService buildSummaries;
+    private final ModListInvalidator listInvalidator;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public ModImportService(ObjectMapper objectMapper,
+                            VehicleInfoRepository vehicleRepo,
+                            UserProfileRepository userRepo,
+                            BuildSummaryService buildSummaries,
+                            ModListInvalidator listInvalidator,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${rigsheet.import.batch-size:500}") int batchSize,
+                            @Value("${rigsheet.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.objectMapper = objectMapper;
+        this.vehicleRepo = vehicleRepo;
+        this.userRepo = userRepo;
+        this.buildSummaries = buildSummaries;
+        this.listInvalidator = listInvalidator;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedErrors = Math.max(0, maxReportedErrors);
+        this.importedRows = rowCounter(meterRegistry, "imported");
+        this.failedRows = rowCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Import every row of the body.
+     *
+     * @param defaultVehicleId vehicle for rows that don't name one (may be null)
+     */
+    public ModImportReport importMods(InputStream body, DataFormat format, Long defaultVehicleId) throws IOException {
+        long started = System.nanoTime();
+        Run run = new Run(defaultVehicleId);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            List<PendingRow> batch = new ArrayList<>(batchSize);
+            Csv.RecordReader records = format == DataFormat.CSV ? new Csv.RecordReader(reader, MAX_CSV_RECORD) : null;
+            String line;
+            long lineNo = 0;
+            while ((line = records != null ? records.next() : reader.readLine()) != null) {
+                lineNo = records != null ? records.line() : lineNo + 1;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == DataFormat.CSV && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+                run.rowsRead++;
+                try {
+                    ModImportRow row = format == DataFormat.CSV ? fromCsv(header, line) : fromJson(line);
+                    batch.add(new PendingRow(lineNo, validate(row, defaultVehicleId)));
+                } catch (IllegalArgumentException ex) {
+                    run.fail(lineNo, ex.getMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    write(batch, run);
+                    batch.clear();
+                }
+            }
+            write(batch, run);
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        double seconds = elapsedNanos / 1e9;
+        ModImportReport report = new ModImportReport(
+                run.rowsRead, run.imported, run.failed, run.errors, run.failed > run.errors.size(),
+                elapsedNanos / 1_000_000, seconds > 0 ? run.rowsRead / seconds : 0);
+        log.info("Mod import: {} read, {} imported, {} failed in {} ms ({} rows/s)",
+                report.rowsRead(), report.imported(), report.failed(), report.elapsedMillis(),
+                Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    /** Resolve references for a batch, then insert the valid rows in one transaction. */
+    private void write(List<PendingRow> batch, Run run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        run.resolve(batch);
+
+        List<PendingRow> ready = new ArrayList<>(batch.size());
+        for (PendingRow p : batch) {
+            Long vehicleId = p.row().vehicleInfoId();
+            Long ownerId = run.vehicleOwners.get(vehicleId);
+            Long userId = p.row().userProfileId() != null ? p.row().userProfileId() : ownerId;
+            if (!run.vehicleOwners.containsKey(vehicleId)) {
+                run.fail(p.line(), "vehicleInfoId " + vehicleId + " not found");
+            } else if (userId != null && !run.knownUsers.contains(userId)) {
+                run.fail(p.line(), "userProfileId " + userId + " not found");
+            } else {
+                ready.add(new PendingRow(p.line(), p.row(), userId));
+            }
+        }
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        try {
+            tx.executeWithoutResult(status -> {
+                em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                List<Contribution> added = new ArrayList<>(ready.size());
+                Set<String> lists = new HashSet<>();
+                for (PendingRow p : ready) {
+                    Modification mod = toEntity(p);
+                    em.persist(mod);
+                    added.add(Contribution.of(mod));
+                    lists.addAll(Listing.of(mod).lists());
+                }
+                em.flush();
+                buildSummaries.recordAll(added);
+                listInvalidator.afterCommit(lists);
+            });
+            run.imported += ready.size();
+            importedRows.increment(ready.size());
+        } catch (RuntimeException ex) {
+            String reason = "not saved: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            ready.forEach(p -> run.fail(p.line(), reason));
+        }
+    }
+
+    private Modification toEntity(PendingRow p) {
+        ModImportRow r = p.row();
+        return Modification.builder()
+                .name(r.name())
+                .category(r.category())
+                .brand(r.brand())
+                .sponsored(Boolean.TRUE.equals(r.sponsored()))
+                .reviewUrl(r.reviewUrl())
+                .cost(r.cost())
+                .weight(r.weight())
+                .imageUrl(r.imageUrl())
+                .vehicleInfo(em.getReference(VehicleInfo.class, r.vehicleInfoId()))
+                .userProfile(p.userProfileId() == null ? null : em.getReference(UserProfile.class, p.userProfileId()))
+                .build();
+    }
+
+    private ModImportRow fromJson(String line) {
+        try {
+            return objectMapper.readValue(line, ModImportRow.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("invalid JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private static List<String> parseHeader(String line) {
+        try {
+            return Csv.parseRecord(line).stream().map(ModImportService::columnKey).toList();
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid CSV header: " + ex.getMessage());
+        }
+    }
+
+    private static ModImportRow fromCsv(List<String> header, String line) {
+        List<String> fields = Csv.parseRecord(line);
+        if (fields.size() > header.size()) {
+            throw new IllegalArgumentException("expected " + header.size() + " columns, got " + fields.size());
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String v = fields.get(i).trim();
+            if (!v.isEmpty()) {
+                values.put(header.get(i), v);
+            }
+        }
+        return new ModImportRow(
+                values.get("name"),
+                values.get("category"),
+                values.get("brand"),
+                parse(values, "sponsored", ModImportService::parseBoolean),
+                values.get("reviewurl"),
+                parse(values, "cost", Double::valueOf),
+                parse(values, "weight", Double::valueOf),
+                values.get("imageurl"),
+                parse(values, "vehicleinfoid", Long::valueOf),
+                parse(values, "userprofileid", Long::valueOf));
+    }
+
+    /** Normalized row with the default vehicle applied; throws on the first problem found. */
+    private static ModImportRow validate(ModImportRow r, Long defaultVehicleId) {
+        if (r.name() == null || r.name().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        requireLength("name", r.name());
+        requireLength("category", r.category());
+        requireLength("brand", r.brand());
+        requireLength("reviewUrl", r.reviewUrl());
+        requireLength("imageUrl", r.imageUrl());
+        requireNonNegative("cost", r.cost());
+        requireNonNegative("weight", r.weight());
+
+        Long vehicleId = r.vehicleInfoId() != null ? r.vehicleInfoId() : defaultVehicleId;
+        if (vehicleId == null) {
+            throw new IllegalArgumentException("vehicleInfoId is required");
+        }
+        return new ModImportRow(r.name().trim(), r.category(), r.brand(), r.sponsored(), r.reviewUrl(),
+                r.cost(), r.weight(), r.imageUrl(), vehicleId, r.userProfileId());
+    }
+
+    private static void requireLength(String field, String value) {
+        if (value != null && value.length() > MAX_TEXT) {
+            throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT + " characters");
+        }
+    }
+
+    private static void requireNonNegative(String field, Double value) {
+        if (value != null && (value.isNaN() || value.isInfinite() || value < 0)) {
+            throw new IllegalArgumentException(field + " must be a non-negative number");
+        }
+    }
+
+    private static <T> T parse(Map<String, String> values, String column, Function<String, T> parser) {
+        String raw = values.get(column);
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return parser.apply(raw);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(column + ": cannot parse '" + raw + "'");
+        }
+    }
+
+    private static Boolean parseBoolean(String raw) {
+        return switch (raw.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1" -> true;
+            case "false", "no", "n", "0" -> false;
+            default -> throw new IllegalArgumentException(raw);
+        };
+    }
+
+    /** "Review URL", "review_url" and "reviewUrl" all map to "reviewurl". */
+    private static String columnKey(String header) {
+        return header.replaceAll("[\\s_\\-]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter rowCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("rigsheet.import.rows")
+                .description("Bulk-imported modification rows")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /** A validated row waiting for its batch; {@code userProfileId} is resolved at write time. */
+    private record PendingRow(long line, ModImportRow row, Long userProfileId) {
+        PendingRow(long line, ModImportRow row) {
+            this(line, row, null);
+        }
+    }
+
+    /** Counters and lookup caches for one import. */
+    private final class Run {
+        long rowsRead;
+        long imported;
+        long failed;
+        final List<RowError> errors = new ArrayList<>();
+        /** vehicle id -> owner id (null owner allowed); absent = not checked or not found */
+        final Map<Long, Long> vehicleOwners = new HashMap<>();
+        final Set<Long> knownUsers = new HashSet<>();
+        private final Set<Long> checkedVehicles = new HashSet<>();
+        private final Set<Long> checkedUsers = new HashSet<>();
+
+        Run(Long defaultVehicleId) {
+            if (defaultVehicleId != null) {
+                lookUpVehicles(Set.of(defaultVehicleId));
+            }
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        /** Look up vehicles and users this import hasn't seen yet, one query each. */
+        void resolve(List<PendingRow> batch) {
+            Set<Long> vehicles = batch.stream().map(p -> p.row().vehicleInfoId())
+                    .filter(id -> !checkedVehicles.contains(id))
+                    .collect(Collectors.toSet());
+            lookUpVehicles(vehicles);
+
+            Set<Long> users = new HashSet<>();
+            for (PendingRow p : batch) {
+                Long userId = p.row().userProfileId() != null
+                        ? p.row().userProfileId() : vehicleOwners.get(p.row().vehicleInfoId());
+                if (userId != null && !checkedUsers.contains(userId) && !knownUsers.contains(userId)) {
+                    users.add(userId);
+                }
+            }
+            if (!users.isEmpty()) {
+                checkedUsers.addAll(users);
+                userRepo.findAllById(users).forEach(u -> knownUsers.add(u.getId()));
+            }
+        }
+
+        private void lookUpVehicles(Set<Long> ids) {
+            if (ids.isEmpty()) {
+                return;
+            }
+            checkedVehicles.addAll(ids);
+            for (VehicleInfo v : vehicleRepo.findAllById(ids)) {
+                Long ownerId = v.getUserProfile() == null ? null : v.getUserProfile().getId();
+                vehicleOwners.put(v.getId(), ownerId);
+                if (ownerId != null) {
+                    knownUsers.add(ownerId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package app.rigsheet.service;
+
+import app.rigsheet.dto.CursorPage;
+import app.rigsheet.dto.ModView;
+import app.rigsheet.model.Modification;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the hot mod lists: a vehicle's mods, and the category,
+ * brand and sponsored pages.
+ *
+ * <ul>
+ *   <li>Vehicle lists are keyed by the vehicle's mods version (V12), which every mod
+ *       write bumps in its own transaction, so they never need invalidating: after a
+ *       write the new version simply misses</li>
+ *   <li>Category, brand and sponsored pages are keyed by a per-list generation.
+ *       Writers name the lists they touched ({@link Listing#lists}) and
+ *       {@link ModListInvalidator} bumps those generations once the write has
+ *       committed, on this node and, via Postgres NOTIFY, on every other one</li>
+ *   <li>Bumping only after commit means a read racing a write can at worst park its
+ *       stale page under the old generation, where nobody looks any more</li>
+ *   <li>Entries are capped by count and expire after a TTL, the backstop for a
+ *       notification that never arrived</li>
+ * </ul>
+ */
+@Component
+public class ModListCache {
+
+    /** The sponsored list; see {@link Listing#lists}. */
+    public static final String SPONSORED = "sponsored";
+
+    /** Where a mod shows up besides its vehicle's list; a change to it invalidates these lists. */
+    public record Listing(String category, String brand, boolean sponsored) {
+
+        public static Listing of(Modification mod) {
+            return new Listing(mod.getCategory(), mod.getBrand(), mod.isSponsored());
+        }
+
+        /** From raw column values, e.g. a row reported by a conditional write. */
+        public static Listing of(Map<String, Object> columns) {
+            return new Listing((String) columns.get("category"), (String) columns.get("brand"),
+                    Boolean.TRUE.equals(columns.get("sponsored")));
+        }
+
+        public List<String> lists() {
+            List<String> lists = new ArrayList<>(3);
+            if (category != null) lists.add(categoryList(category));
+            if (brand != null) lists.add(brandList(brand));
+            if (sponsored) lists.add(SPONSORED);
+            return lists;
+        }
+    }
+
+    /** One cached list page; {@code version} is the mods version or the list's generation. */
+    private record Key(String list, long epoch, long version, String cursor, int limit) {}
+
+    private final Cache<Key, Object> entries;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    /** Bumped by {@link #invalidateAll}, which retires every generation at once. */
+    private final AtomicLong epoch = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public ModListCache(@Value("${rigsheet.mod-cache.max-entries:10000}") long maxEntries,
+                        @Value("${rigsheet.mod-cache.ttl:10m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        this.hits = Counter.builder("rigsheet.mod-lists.cache")
+                .description("Mod list cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("rigsheet.mod-lists.cache")
+                .description("Mod list cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        meterRegistry.gauge("rigsheet.mod-lists.cache.size", List.of(), entries, Cache::estimatedSize);
+    }
+
+    public static String categoryList(String category) {
+        return "category:" + category;
+    }
+
+    public static String brandList(String brand) {
+        return "brand:" + brand;
+    }
+
+    /** A vehicle's mods as of {@code modsVersion}, loaded on a miss. */
+    public List<ModView> vehicleMods(Long vehicleInfoId, long modsVersion, Supplier<List<ModView>> loader) {
+        return get(new Key("vehicle:" + vehicleInfoId, 0, modsVersion, null, 0), loader);
+    }
+
+    /** One page of a category, brand or sponsored list, loaded on a miss. */
+    public CursorPage<ModView> page(String list, String cursor, int limit, Supplier<CursorPage<ModView>> loader) {
+        AtomicLong generation = generations.get(list); // no entry: never written since startup
+        return get(new Key(list, epoch.get(), generation == null ? 0 : generation.get(), cursor, limit), loader);
+    }
+
+    /** Retire the current pages of these lists; call only once the write is committed. */
+    public void invalidate(Collection<String> lists) {
+        lists.forEach(list -> generations.computeIfAbsent(list, l -> new AtomicLong()).incrementAndGet());
+    }
+
+    /** Retire everything, e.g. when invalidations may have been missed. */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key key, Supplier<T> loader) {
+        boolean[] loaded = {false};
+        T value = (T) entries.get(key, k -> {
+            loaded[0] = true;
+            return loader.get();
+        });
+        (loaded[0] ? misses : hits).increment();
+        return value;
+    }
+}
@@ -0,0 +1,201 @@
+package app.rigsheet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps every node's {@link ModListCache} coherent over Postgres LISTEN/NOTIFY,
+ * with no broker besides the database we already have.
+ *
+ * <ul>
+ *   <li>A mod write calls {@link #afterCommit} with the lists it touched. That sends
+ *       a NOTIFY on the write's own connection, which Postgres delivers to every
+ *       listener only if, and as soon as, the transaction commits, and registers a
+ *       local invalidation for right after the commit</li>
+ *   <li>A listener thread on its own connection (outside the pool) applies the other
+ *       nodes' notifications; this node skips its own</li>
+ *   <li>If that connection drops, notifications may have been missed, so the local
+ *       cache is cleared before listening again</li>
+ * </ul>
+ *
+ * Off for non-Postgres datasources; the cache then only sees this node's writes.
+ */
+@Component
+public class ModListInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ModListInvalidator.class);
+
+    /** NOTIFY payloads are capped at 8000 bytes; past this we ask for a full clear. */
+    private static final int MAX_PAYLOAD = 7000;
+
+    /** NOTIFY payload: which node wrote, and the lists it touched (null: all of them). */
+    record Message(String node, Collection<String> lists) {}
+
+    private final ModListCache cache;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSource;
+    private final String channel;
+    private final boolean enabled;
+    private final String node = UUID.randomUUID().toString();
+    private final Counter received;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private volatile boolean running;
+    private volatile Connection listenerConnection;
+    private Thread listener;
+
+    public ModListInvalidator(ModListCache cache,
+                              ObjectMapper objectMapper,
+                              DataSourceProperties dataSource,
+                              MeterRegistry meterRegistry,
+                              @Value("${rigsheet.mod-cache.notify-channel:rigsheet_mod_lists}") String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("rigsheet.mod-cache.notify-channel must be a plain identifier");
+        }
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.dataSource = dataSource;
+        this.channel = channel;
+        this.enabled = dataSource.determineUrl() != null && dataSource.determineUrl().startsWith("jdbc:postgresql:");
+        this.received = Counter.builder("rigsheet.mod-lists.invalidations")
+                .description("Mod list invalidations received from other nodes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Invalidate {@code lists} everywhere once the current transaction commits;
+     * nothing happens if it rolls back.
+     */
+    public void afterCommit(Collection<String> lists) {
+        if (lists.isEmpty()) {
+            return;
+        }
+        Set<String> distinct = new LinkedHashSet<>(lists);
+        if (enabled) {
+            em.createNativeQuery("select cast(pg_notify(:channel, :payload) as text)")
+                    .setParameter("channel", channel)
+                    .setParameter("payload", payload(distinct))
+                    .getSingleResult();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(distinct);
+            }
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Mod list cache invalidation is local only (datasource is not Postgres)");
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "mod-list-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Connection connection = listenerConnection;
+        if (connection != null) {
+            try {
+                connection.close(); // wakes the listener out of getNotifications
+            } catch (SQLException ignored) {
+                // shutting down anyway
+            }
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSource.determineUrl(),
+                    dataSource.determineUsername(), dataSource.determinePassword())) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                cache.invalidateAll(); // whatever was sent while we weren't listening is lost
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(10_000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (running) {
+                    log.warn("Mod list listener lost its connection, retrying: {}", ex.getMessage());
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        try {
+            Message message = objectMapper.readValue(payload, Message.class);
+            if (node.equals(message.node())) {
+                return; // applied locally after our own commit
+            }
+            received.increment();
+            if (message.lists() == null) {
+                cache.invalidateAll();
+            } else {
+                cache.invalidate(message.lists());
+            }
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring malformed mod list notification: {}", ex.getMessage());
+        }
+    }
+
+    private String payload(Collection<String> lists) {
+        try {
+            String payload = objectMapper.writeValueAsString(new Message(node, lists));
+            return payload.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD ? payload
+                    : objectMapper.writeValueAsString(new Message(node, null));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(5_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
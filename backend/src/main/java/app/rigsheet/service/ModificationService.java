@@ -1,95 +1,526 @@
 package app.rigsheet.service;
 
+import app.rigsheet.config.MetricsConfig;
+import app.rigsheet.config.PaginationSettings;
+import app.rigsheet.dto.CursorPage;
+import app.rigsheet.dto.ModBatchRequest;
+import app.rigsheet.dto.ModBatchRequest.Op;
+import app.rigsheet.dto.ModBatchRequest.Operation;
+import app.rigsheet.dto.ModBatchResult;
+import app.rigsheet.dto.ModBatchResult.OperationResult;
+import app.rigsheet.dto.ModSearchCriteria;
+import app.rigsheet.dto.ModView;
+import app.rigsheet.dto.PageCursor;
 import app.rigsheet.model.Modification;
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.model.VehicleInfo;
+import app.rigsheet.repository.ModSearchSort;
 import app.rigsheet.repository.ModificationRepository;
+import app.rigsheet.repository.ModificationRepository.RankedId;
+import app.rigsheet.repository.VersionedWrites;
+import app.rigsheet.service.BuildSummaryService.Contribution;
+import app.rigsheet.service.ModListCache.Listing;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service layer for {@link Modification} operations.
  *
- * <p>Currently thin pass-throughs to {@link ModificationRepository}.
- * This is the right place to add validation, events, or caching later.</p>
+ * <p>A vehicle's mods and the category, brand and sponsored pages are read
+ * through {@link ModListCache}; every write names the lists it touched so they
+ * are invalidated, on all nodes, once it commits.</p>
+ *
+ * <p>List reads are keyset-paginated: callers pass the opaque cursor from the
+ * previous page (or null) and a page size, clamped by {@link PaginationSettings}.</p>
+ *
+ * <p>Reads and write results are {@link ModView}s; entities stay inside this layer.</p>
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, extraTags = {"service", "mods"}, histogram = true)
 public class ModificationService {
 
+    /** Orderings supported by {@link #getAllMods}. */
+    public static final String SORT_ID = "id";
+    public static final String SORT_COST = "cost";
+    public static final String SORT_COST_DESC = "-cost";
+
+    private static final String TABLE = "modification";
+
+    /** Fields a PUT/PATCH may set, by {@link ModView} name. */
+    private static final Map<String, Patch.Field> PATCHABLE = Map.ofEntries(
+            Map.entry("name", Patch.Field.text("name")),
+            Map.entry("category", Patch.Field.text("category")),
+            Map.entry("brand", Patch.Field.text("brand")),
+            Map.entry("sponsored", Patch.Field.of("sponsored", Boolean.class).required()),
+            Map.entry("reviewUrl", Patch.Field.text("review_url")),
+            Map.entry("cost", Patch.Field.of("cost", Double.class)),
+            Map.entry("weight", Patch.Field.of("weight", Double.class)),
+            Map.entry("imageUrl", Patch.Field.text("image_url")),
+            Map.entry("userId", Patch.Field.of("user_id", Long.class)),
+            Map.entry("vehicleInfoId", Patch.Field.of("vehicle_info_id", Long.class)),
+            Map.entry("userProfileId", Patch.Field.of("user_profile_id", Long.class)));
+
+    /** What a write reports from before the change, for the build rollup and list invalidation. */
+    private static final List<String> PREVIOUS_COLUMNS =
+            List.of("vehicle_info_id", "category", "cost", "weight", "brand", "sponsored");
+
     private final ModificationRepository modRepository;
+    private final PaginationSettings pagination;
+    private final BuildSummaryService buildSummaries;
+    private final VersionedWrites writes;
+    private final ModListCache listCache;
+    private final ModListInvalidator listInvalidator;
+    private final int maxBatchOperations;
 
-    public ModificationService(ModificationRepository modRepository) {
+    @PersistenceContext
+    private EntityManager em;
+
+    public ModificationService(ModificationRepository modRepository,
+                               PaginationSettings pagination,
+                               BuildSummaryService buildSummaries,
+                               VersionedWrites writes,
+                               ModListCache listCache,
+                               ModListInvalidator listInvalidator,
+                               @Value("${rigsheet.batch.max-operations:200}") int maxBatchOperations) {
         this.modRepository = modRepository;
+        this.pagination = pagination;
+        this.buildSummaries = buildSummaries;
+        this.writes = writes;
+        this.listCache = listCache;
+        this.listInvalidator = listInvalidator;
+        this.maxBatchOperations = maxBatchOperations;
     }
 
-    /** @return all modifications (consider pagination later) */
-    public List<Modification> getAllMods() {
-        return modRepository.findAll();
+    /**
+     * One page of all modifications.
+     * @param sort {@link #SORT_ID} (default), {@link #SORT_COST} or {@link #SORT_COST_DESC}
+     */
+    public CursorPage<ModView> getAllMods(String cursor, Integer limit, String sort) {
+        int size = pagination.limit(limit);
+        Pageable fetch = PageRequest.of(0, size + 1);
+        String order = sort == null ? SORT_ID : sort;
+
+        return switch (order) {
+            case SORT_ID -> byId(cursor, size, c -> modRepository.findPageAfter(c.lastId(), fetch));
+            case SORT_COST -> {
+                PageCursor c = PageCursor.decode(cursor, SORT_COST, -Double.MAX_VALUE);
+                yield CursorPage.of(modRepository.findPageByCostAfter(c.value(), c.lastId(), fetch),
+                        size, m -> new PageCursor(SORT_COST, costKey(m), m.id()));
+            }
+            case SORT_COST_DESC -> {
+                PageCursor c = PageCursor.decode(cursor, SORT_COST_DESC, Double.MAX_VALUE);
+                yield CursorPage.of(modRepository.findPageByCostDescBefore(c.value(), c.lastId(), fetch),
+                        size, m -> new PageCursor(SORT_COST_DESC, costKey(m), m.id()));
+            }
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort);
+        };
     }
 
     /** @return a modification by id, if present */
-    public Optional<Modification> getModById(Long id) {
-        return modRepository.findById(id);
+    public Optional<ModView> getModById(Long id) {
+        return modRepository.findViewById(id);
     }
 
     /**
      * Find mods owned by a user (if your model stores userId on the mod).
      * @param userId the owning user id
      */
-    public List<Modification> getModByUserId(Long userId) {
-        return modRepository.findByUserId(userId);
+    public List<ModView> getModByUserId(Long userId) {
+        return modRepository.findViewsByUserId(userId);
     }
 
     /**
      * Existing method to fetch by vehicle id (spelling preserved for compatibility).
      * Prefer {@link #getModsByVehicleInfoId(Long)} going forward.
      */
-    public List<Modification> getModbyVehicleInfoId(Long vehicleInfoId) {
-        return modRepository.findByVehicleInfoId(vehicleInfoId);
+    public List<ModView> getModbyVehicleInfoId(Long vehicleInfoId) {
+        return getModsByVehicleInfoId(vehicleInfoId, getVehicleModsVersion(vehicleInfoId));
     }
 
     /**
      * New alias with corrected naming; delegates to the existing implementation.
      * @param vehicleInfoId the vehicle id
      */
-    public List<Modification> getModsByVehicleInfoId(Long vehicleInfoId) {
+    public List<ModView> getModsByVehicleInfoId(Long vehicleInfoId) {
         return getModbyVehicleInfoId(vehicleInfoId);
     }
 
-    /** Create a new modification. */
+    /**
+     * A vehicle's mods as of {@code modsVersion} (from {@link #getVehicleModsVersion}),
+     * for callers that already read the version, e.g. for an ETag.
+     */
+    public List<ModView> getModsByVehicleInfoId(Long vehicleInfoId, long modsVersion) {
+        return listCache.vehicleMods(vehicleInfoId, modsVersion,
+                () -> modRepository.findViewsByVehicleInfoId(vehicleInfoId));
+    }
+
+    /**
+     * Version of a vehicle's mod list (its ETag), bumped by every mod write.
+     * 0 until the first one, while the list can only be empty.
+     */
+    public long getVehicleModsVersion(Long vehicleInfoId) {
+        return buildSummaries.getModsVersion(vehicleInfoId).orElse(0L);
+    }
+
+    /** Create a new modification (and add it to its vehicle's build rollup). */
+    @Transactional
+    public ModView createMod(Modification mod) {
+        // Link the vehicle and owner by id: the body's stubs carry no version, so would look unsaved
+        if (mod.getVehicleInfo() != null && mod.getVehicleInfo().getId() != null) {
+            mod.setVehicleInfo(em.getReference(VehicleInfo.class, mod.getVehicleInfo().getId()));
+        }
+        if (mod.getUserProfile() != null && mod.getUserProfile().getId() != null) {
+            mod.setUserProfile(em.getReference(UserProfile.class, mod.getUserProfile().getId()));
+        }
+        Modification saved = modRepository.save(mod);
+        buildSummaries.record(null, Contribution.of(saved));
+        listInvalidator.afterCommit(Listing.of(saved).lists());
+        return ModView.of(saved);
+    }
+
+    /**
+     * Replace a modification's fields (PUT). A missing vehicle keeps the current one.
+     * One conditional statement; the build rollup moves by the old-to-new difference.
+     *
+     * @param expectedVersion apply only at this version (null: unconditionally)
+     * @throws ResponseStatusException 404 if absent, 409 on a version mismatch or a duplicate value, 400 for a reference to a missing record
+     */
+    @Transactional
+    public ModView updateMod(Long id, Modification replacement, Long expectedVersion) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", replacement.getName());
+        fields.put("category", replacement.getCategory());
+        fields.put("brand", replacement.getBrand());
+        fields.put("sponsored", replacement.isSponsored());
+        fields.put("reviewUrl", replacement.getReviewUrl());
+        fields.put("cost", replacement.getCost());
+        fields.put("weight", replacement.getWeight());
+        fields.put("imageUrl", replacement.getImageUrl());
+        fields.put("userId", replacement.getUserId());
+        fields.put("userProfileId", replacement.getUserProfile() == null ? null : replacement.getUserProfile().getId());
+        if (replacement.getVehicleInfo() != null) {
+            fields.put("vehicleInfoId", replacement.getVehicleInfo().getId());
+        }
+        return patchMod(id, fields, expectedVersion);
+    }
+
+    /**
+     * Apply a merge patch over {@link ModView} fields (PATCH); same contract as
+     * {@link #updateMod}. A {@code version} in the body is used when
+     * {@code expectedVersion} is null.
+     */
     @Transactional
-    public Modification createMod(Modification mod) {
-        return modRepository.save(mod);
+    public ModView patchMod(Long id, Map<String, ?> changes, Long expectedVersion) {
+        Long expected = expectedVersion != null ? expectedVersion : Patch.version(changes);
+        VersionedWrites.Result result = Patch.checked(
+                writes.update(TABLE, id, expected, Patch.columns(changes, PATCHABLE), PREVIOUS_COLUMNS), "Modification");
+        buildSummaries.record(contribution(result.previous()), contribution(result.row()));
+        List<String> lists = new ArrayList<>(Listing.of(result.previous()).lists());
+        lists.addAll(Listing.of(result.row()).lists());
+        listInvalidator.afterCommit(lists);
+        return view(result.row());
     }
 
     /**
-     * Update a modification by saving the provided entity.
-     * Ensure the caller has set the id on the entity for an update.
+     * Delete a modification in one conditional statement, removing it from its build rollup.
+     * @throws ResponseStatusException 404 if absent, 409 on a version mismatch
      */
     @Transactional
-    public Modification updateMod(Modification modification) {
-        return modRepository.save(modification);
+    public void deleteMod(Long id, Long expectedVersion) {
+        VersionedWrites.Result result = Patch.checked(
+                writes.delete(TABLE, id, expectedVersion, PREVIOUS_COLUMNS), "Modification");
+        buildSummaries.record(contribution(result.previous()), null);
+        listInvalidator.afterCommit(Listing.of(result.previous()).lists());
     }
 
-    /** Delete a modification by id (idempotent). */
+    /**
+     * Apply a batch of creates, updates and deletes to one vehicle's mods, all-or-nothing.
+     *
+     * <p>Operations are applied to managed entities and reach the database in a single
+     * flush, which Hibernate sends as JDBC batches (inserts, versioned updates, deletes);
+     * the vehicle's build rollup is then adjusted once. If any operation fails the whole
+     * batch rolls back and the result says which operations failed and why.</p>
+     *
+     * @throws ResponseStatusException 400 for a malformed batch, 404 for an unknown vehicle,
+     *                                 409 if a mod changed underneath the batch
+     */
     @Transactional
-    public void deleteMod(Long id) {
-        modRepository.deleteById(id);
+    public ModBatchResult applyBatch(ModBatchRequest batch) {
+        List<Operation> ops = batch.operations() == null ? List.of() : batch.operations();
+        if (batch.vehicleInfoId() == null || ops.isEmpty() || ops.size() > maxBatchOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch needs a vehicleInfoId and 1 to " + maxBatchOperations + " operations");
+        }
+        VehicleInfo vehicle = em.find(VehicleInfo.class, batch.vehicleInfoId());
+        if (vehicle == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Vehicle not found");
+        }
+
+        // Every mod the batch touches, in one query, with what it contributes now
+        List<Long> targetIds = ops.stream()
+                .filter(op -> op != null && op.op() != Op.CREATE && op.id() != null)
+                .map(Operation::id).distinct().toList();
+        Map<Long, Modification> targets = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            modRepository.findAllOnVehicle(vehicle.getId(), targetIds).forEach(m -> targets.put(m.getId(), m));
+        }
+        List<Contribution> before = targets.values().stream().map(Contribution::of).toList();
+        List<String> lists = new ArrayList<>();
+        targets.values().forEach(m -> lists.addAll(Listing.of(m).lists()));
+
+        Set<Long> deleted = new HashSet<>();
+        Modification[] written = new Modification[ops.size()];
+        List<OperationResult> results = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            Operation op = ops.get(i);
+            int status;
+            String error = null;
+            try {
+                status = applyOne(op, vehicle, targets, deleted, written, i);
+            } catch (ResponseStatusException ex) {
+                status = ex.getStatusCode().value();
+                error = ex.getReason();
+            }
+            results.add(new OperationResult(i, op == null ? null : op.op(), op == null ? null : op.id(),
+                    status, null, error));
+        }
+        if (results.stream().anyMatch(OperationResult::failed)) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new ModBatchResult(false, results);
+        }
+
+        try {
+            em.flush();
+        } catch (OptimisticLockException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A mod in the batch was modified concurrently; nothing was applied");
+        } catch (PersistenceException ex) {
+            if (ex.getCause() instanceof ConstraintViolationException) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A referenced row does not exist");
+            }
+            throw ex;
+        }
+
+        List<Contribution> after = new ArrayList<>();
+        targets.values().stream().filter(m -> !deleted.contains(m.getId())).map(Contribution::of).forEach(after::add);
+        for (int i = 0; i < ops.size(); i++) {
+            if (ops.get(i).op() == Op.CREATE) {
+                after.add(Contribution.of(written[i]));
+            }
+        }
+        buildSummaries.recordAll(before, after);
+        for (Modification m : written) {
+            if (m != null) {
+                lists.addAll(Listing.of(m).lists());
+            }
+        }
+        listInvalidator.afterCommit(lists);
+
+        return new ModBatchResult(true, results.stream()
+                .map(r -> {
+                    Modification m = written[r.index()];
+                    return m == null ? r
+                            : new OperationResult(r.index(), r.op(), m.getId(), r.status(), ModView.of(m), null);
+                })
+                .toList());
+    }
+
+    /** @return the operation's status; failures are thrown */
+    private int applyOne(Operation op, VehicleInfo vehicle, Map<Long, Modification> targets,
+                         Set<Long> deleted, Modification[] written, int index) {
+        if (op == null || op.op() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "op must be create, update or delete");
+        }
+        switch (op.op()) {
+            case CREATE -> {
+                if (op.id() != null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "create takes no id");
+                }
+                Modification mod = new Modification();
+                mod.setVehicleInfo(vehicle);
+                apply(mod, batchValues(op));
+                em.persist(mod);
+                written[index] = mod;
+                return HttpStatus.CREATED.value();
+            }
+            case UPDATE -> {
+                Modification mod = target(op, targets, deleted);
+                apply(mod, batchValues(op));
+                written[index] = mod;
+                return HttpStatus.OK.value();
+            }
+            default -> {
+                Modification mod = target(op, targets, deleted);
+                em.remove(mod);
+                deleted.add(mod.getId());
+                return HttpStatus.NO_CONTENT.value();
+            }
+        }
+    }
+
+    private static Modification target(Operation op, Map<Long, Modification> targets, Set<Long> deleted) {
+        if (op.id() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "id is required");
+        }
+        Modification mod = targets.get(op.id());
+        if (mod == null || deleted.contains(op.id())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Modification not found on this vehicle");
+        }
+        if (op.version() != null && !op.version().equals(mod.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Modification was modified concurrently; current version is " + mod.getVersion());
+        }
+        return mod;
+    }
+
+    private static Map<String, Object> batchValues(Operation op) {
+        if (op.fields() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fields are required");
+        }
+        Map<String, Object> values = Patch.values(op.fields(), PATCHABLE);
+        if (values.containsKey("vehicleInfoId")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch can't move mods to another vehicle");
+        }
+        return values;
+    }
+
+    /** Set checked {@link #PATCHABLE} values on a managed mod (links by reference, no query). */
+    private void apply(Modification mod, Map<String, Object> values) {
+        values.forEach((name, value) -> {
+            switch (name) {
+                case "name" -> mod.setName((String) value);
+                case "category" -> mod.setCategory((String) value);
+                case "brand" -> mod.setBrand((String) value);
+                case "sponsored" -> mod.setSponsored((Boolean) value);
+                case "reviewUrl" -> mod.setReviewUrl((String) value);
+                case "cost" -> mod.setCost((Double) value);
+                case "weight" -> mod.setWeight((Double) value);
+                case "imageUrl" -> mod.setImageUrl((String) value);
+                case "userId" -> mod.setUserId((Long) value);
+                case "userProfileId" -> mod.setUserProfile(
+                        value == null ? null : em.getReference(UserProfile.class, value));
+                default -> throw new IllegalArgumentException("Not settable in a batch: " + name);
+            }
+        });
+    }
+
+    /**
+     * Multi-criteria search: every non-null criterion must match.
+     * @param sort a {@link ModSearchSort} key (id, cost, -cost, weight, -weight); defaults to id
+     */
+    public CursorPage<ModView> searchMods(ModSearchCriteria criteria, String cursor,
+                                          Integer limit, String sort) {
+        ModSearchSort order = ModSearchSort.fromKey(sort == null ? SORT_ID : sort)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort));
+        int size = pagination.limit(limit);
+        PageCursor after = PageCursor.decode(cursor, order.key(),
+                order.descending() ? Double.MAX_VALUE : -Double.MAX_VALUE);
+
+        List<ModView> rows = modRepository.searchPage(criteria, order, after, size + 1);
+        return CursorPage.of(rows, size, m -> new PageCursor(order.key(), sortKey(order, m), m.id()));
+    }
+
+    /**
+     * Ranked full-text search over name, brand and category.
+     * Pages are best-match first; the cursor carries the last (rank, id).
+     */
+    public CursorPage<ModView> searchModsByText(String text, String cursor, Integer limit) {
+        if (text == null || text.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search text is required");
+        }
+        int size = pagination.limit(limit);
+        PageCursor after = PageCursor.decode(cursor, "rank", Double.MAX_VALUE);
+
+        CursorPage<RankedId> ranked = CursorPage.of(
+                modRepository.searchText(text.trim(), after.value(), after.lastId(), size + 1),
+                size, r -> new PageCursor("rank", r.getRank(), r.getId()));
+
+        // Hydrate the page in one query, then restore rank order
+        Map<Long, ModView> byId = modRepository
+                .findViewsByIdIn(ranked.items().stream().map(RankedId::getId).toList())
+                .stream().collect(Collectors.toMap(ModView::id, Function.identity()));
+        List<ModView> items = ranked.items().stream()
+                .map(r -> byId.get(r.getId()))
+                .filter(Objects::nonNull)
+                .toList();
+        return new CursorPage<>(items, ranked.nextCursor());
+    }
+
+    /** One page of mods in a category, by id. */
+    public CursorPage<ModView> getModsByCategory(String category, String cursor, Integer limit) {
+        int size = pagination.limit(limit);
+        return listCache.page(ModListCache.categoryList(category), cursor, size, () -> byId(cursor, size, c ->
+                modRepository.findPageByCategoryAfter(category, c.lastId(), PageRequest.of(0, size + 1))));
+    }
+
+    /** One page of mods of a brand, by id. */
+    public CursorPage<ModView> getModsByBrand(String brand, String cursor, Integer limit) {
+        int size = pagination.limit(limit);
+        return listCache.page(ModListCache.brandList(brand), cursor, size, () -> byId(cursor, size, c ->
+                modRepository.findPageByBrandAfter(brand, c.lastId(), PageRequest.of(0, size + 1))));
+    }
+
+    /** One page of sponsored mods, by id. */
+    public CursorPage<ModView> getSponsoredMods(String cursor, Integer limit) {
+        int size = pagination.limit(limit);
+        return listCache.page(ModListCache.SPONSORED, cursor, size, () -> byId(cursor, size, c ->
+                modRepository.findSponsoredPageAfter(c.lastId(), PageRequest.of(0, size + 1))));
+    }
+
+    private static Contribution contribution(Map<String, Object> columns) {
+        return Contribution.of((Long) columns.get("vehicle_info_id"), (String) columns.get("category"),
+                (String) columns.get("brand"), (Double) columns.get("cost"), (Double) columns.get("weight"));
+    }
+
+    /** A {@link ModView} from a modification row returned by {@link VersionedWrites}. */
+    private static ModView view(Map<String, Object> row) {
+        return new ModView((Long) row.get("id"), (String) row.get("name"), (String) row.get("category"),
+                (String) row.get("brand"), (Boolean) row.get("sponsored"), (String) row.get("review_url"),
+                (Double) row.get("cost"), (Double) row.get("weight"), (String) row.get("image_url"),
+                (Long) row.get("user_id"), (Long) row.get("vehicle_info_id"), (Long) row.get("user_profile_id"),
+                (Long) row.get("version"));
     }
 
-    /** Find mods by category. */
-    public List<Modification> getModsByCategory(String category) {
-        return modRepository.findByCategory(category);
+    private static CursorPage<ModView> byId(String cursor, int size,
+                                            Function<PageCursor, List<ModView>> query) {
+        PageCursor c = PageCursor.decode(cursor, SORT_ID, 0);
+        return CursorPage.of(query.apply(c), size, m -> new PageCursor(SORT_ID, null, m.id()));
     }
 
-    /** Find mods by brand. */
-    public List<Modification> getModsByBrand(String brand) {
-        return modRepository.findByBrand(brand);
+    private static Double sortKey(ModSearchSort order, ModView m) {
+        if (order.attribute() == null) {
+            return null;
+        }
+        Double v = order.attribute().equals("cost") ? m.cost() : m.weight();
+        return v == null ? 0 : v;
     }
 
-    /** @return all sponsored mods. */
-    public List<Modification> getSponsoredMods() {
-        return modRepository.findBySponsored(true);
+    /** Matches the repository ordering, where a missing cost sorts as 0. */
+    private static double costKey(ModView m) {
+        return m.cost() == null ? 0 : m.cost();
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package app.rigsheet.service;
+
+import app.rigsheet.repository.VersionedWrites;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Helpers for versioned partial updates (PATCH) and conditional writes.
+ *
+ * A patch body is a JSON merge patch (RFC 7396) over a resource's view: only
+ * listed fields may appear, a null clears the field, and each value is checked
+ * against its column's type and size before it reaches SQL.
+ */
+final class Patch {
+
+    /** Body field that carries the version the client read (when If-Match isn't used). */
+    static final String VERSION = "version";
+
+    private static final int MAX_TEXT = 255;
+
+    /** A patchable field: target column, Java type, and constraints. */
+    record Field(String column, Class<?> type, boolean nullable, int maxLength) {
+
+        static Field text(String column) {
+            return new Field(column, String.class, true, MAX_TEXT);
+        }
+
+        static Field text(String column, int maxLength) {
+            return new Field(column, String.class, true, maxLength);
+        }
+
+        static Field of(String column, Class<?> type) {
+            return new Field(column, type, true, 0);
+        }
+
+        Field required() {
+            return new Field(column, type, false, maxLength);
+        }
+    }
+
+    private Patch() {
+    }
+
+    /**
+     * Column values for the fields present in {@code body}, in body order.
+     * @throws ResponseStatusException 400 for unknown fields or bad values
+     */
+    static Map<String, Object> columns(Map<String, ?> body, Map<String, Field> fields) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        values(body, fields).forEach((name, value) -> columns.put(fields.get(name).column(), value));
+        if (columns.isEmpty()) {
+            throw badRequest("Nothing to update");
+        }
+        return columns;
+    }
+
+    /**
+     * Checked values for the fields present in {@code body}, by field name, for
+     * callers that apply them to an entity rather than a statement.
+     * @throws ResponseStatusException 400 for unknown fields or bad values
+     */
+    static Map<String, Object> values(Map<String, ?> body, Map<String, Field> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        body.forEach((name, value) -> {
+            if (VERSION.equals(name)) {
+                return;
+            }
+            Field field = fields.get(name);
+            if (field == null) {
+                throw badRequest("Unknown or read-only field: " + name);
+            }
+            values.put(name, convert(name, field, value));
+        });
+        return values;
+    }
+
+    /** The {@value #VERSION} field of a patch body, if any. */
+    static Long version(Map<String, ?> body) {
+        Object v = body.get(VERSION);
+        return v == null ? null : (Long) convert(VERSION, Field.of(VERSION, Long.class), v);
+    }
+
+    /**
+     * Turn a failed conditional write into the matching HTTP status: 404 if absent,
+     * 409 on a version mismatch, a duplicate unique value or a delete of a row still
+     * in use, 400 for a reference to a row that doesn't exist.
+     * @return {@code result}, when the write happened
+     */
+    static VersionedWrites.Result checked(VersionedWrites.Result result, String what) {
+        return switch (result.status()) {
+            case DONE -> result;
+            case NOT_FOUND -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, what + " not found");
+            case VERSION_MISMATCH -> throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    what + " was modified concurrently; current version is " + result.version());
+            case MISSING_REFERENCE -> throw badRequest(what + " refers to a record that does not exist");
+            case DUPLICATE -> throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Another " + what.toLowerCase() + " already has that value");
+            case STILL_REFERENCED -> throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    what + " is still referenced by other records");
+        };
+    }
+
+    private static Object convert(String name, Field field, Object value) {
+        if (value == null) {
+            if (!field.nullable()) {
+                throw badRequest(name + " cannot be null");
+            }
+            return null;
+        }
+        Class<?> type = field.type();
+        if (type == String.class && value instanceof String s) {
+            if (s.length() > field.maxLength()) {
+                throw badRequest(name + " is longer than " + field.maxLength() + " characters");
+            }
+            return s;
+        }
+        if (type == Boolean.class && value instanceof Boolean) {
+            return value;
+        }
+        if (type == Double.class && value instanceof Number n) {
+            return n.doubleValue();
+        }
+        if (type == Long.class && (value instanceof Integer || value instanceof Long)) {
+            return ((Number) value).longValue();
+        }
+        throw badRequest(name + " must be a " + type.getSimpleName().toLowerCase());
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
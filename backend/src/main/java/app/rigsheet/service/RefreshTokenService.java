@@ -0,0 +1,123 @@
+package app.rigsheet.service;
+
+import app.rigsheet.model.RefreshToken;
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.repository.RefreshTokenRepository;
+import app.rigsheet.repository.UserProfileRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ *
+ * <p>Tokens are single use: {@link #rotate(String)} revokes the presented token
+ * and returns its successor. Presenting a token that was already used means it
+ * leaked, so the whole family (every token descended from the same login) is revoked.</p>
+ */
+@Service
+public class RefreshTokenService {
+
+    /** Result of a successful rotation: the owner and the replacement token. */
+    public record Rotation(UserProfile user, String refreshToken) {}
+
+    private final RefreshTokenRepository refreshRepo;
+    private final UserProfileRepository userRepo;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshRepo,
+                               UserProfileRepository userRepo,
+                               @Value("${rigsheet.auth.refresh-token-ttl:30d}") Duration ttl) {
+        this.refreshRepo = refreshRepo;
+        this.userRepo = userRepo;
+        this.ttl = ttl;
+    }
+
+    /** Start a new token family for a fresh login. */
+    @Transactional
+    public String issue(UserProfile user) {
+        return issue(user.getId(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for its successor.
+     *
+     * @return empty if the token is unknown, expired, already used, or its user is gone
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String rawToken) {
+        RefreshToken current = refreshRepo.findByTokenHash(hash(rawToken)).orElse(null);
+        Instant now = Instant.now();
+        if (current == null || current.getExpiresAt().isBefore(now)) {
+            return Optional.empty();
+        }
+        if (current.getRevokedAt() != null) {
+            // Reuse of a rotated token: assume theft and kill the family
+            refreshRepo.revokeFamily(current.getFamilyId(), now);
+            return Optional.empty();
+        }
+        if (refreshRepo.markUsed(current.getId(), now) == 0) {
+            // Lost a race with a concurrent rotation of the same token
+            return Optional.empty();
+        }
+
+        return userRepo.findForRefresh(current.getUserProfileId())
+                .map(user -> new Rotation(user, issue(user.getId(), current.getFamilyId())));
+    }
+
+    /** Revoke the family of the given token (logout from one device). */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshRepo.findByTokenHash(hash(rawToken))
+                .ifPresent(t -> refreshRepo.revokeFamily(t.getFamilyId(), Instant.now()));
+    }
+
+    /** Revoke every refresh token the user holds (logout everywhere). */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshRepo.revokeAllForUser(userId, Instant.now());
+    }
+
+    /** Housekeeping: expired tokens are useless, reused or not. */
+    @Scheduled(fixedDelayString = "${rigsheet.auth.refresh-token-purge-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        refreshRepo.deleteExpired(Instant.now());
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshRepo.save(RefreshToken.builder()
+                .userProfileId(userId)
+                .tokenHash(hash(raw))
+                .familyId(familyId)
+                .expiresAt(Instant.now().plus(ttl))
+                .build());
+        return raw;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
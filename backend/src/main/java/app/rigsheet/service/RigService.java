@@ -0,0 +1,53 @@
+package app.rigsheet.service;
+
+import app.rigsheet.dto.RigView;
+import app.rigsheet.repository.UserProfileRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Public rig pages ({@link RigView}): what the frontend used to assemble from the
+ * profile, vehicle and mod-list endpoints in three serial calls.
+ *
+ * <p>A page is read in at most two statements: {@link #getRigHeader} joins the
+ * profile, vehicle and build summary in one, and {@link #withMods} then takes the
+ * vehicle's mods from {@link ModListCache} by the mods version that came with the
+ * header, querying only on a miss. The header alone yields the page's ETag, so a
+ * revalidation costs the one statement.</p>
+ */
+@Service
+public class RigService {
+
+    private final UserProfileRepository userProfileRepository;
+    private final ModificationService modService;
+
+    public RigService(UserProfileRepository userProfileRepository, ModificationService modService) {
+        this.userProfileRepository = userProfileRepository;
+        this.modService = modService;
+    }
+
+    /** The rig without its mods; empty if the user does not exist. */
+    @Transactional(readOnly = true)
+    public Optional<RigView> getRigHeader(String username) {
+        return userProfileRepository.findRigsByUsername(username, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    /** The full page for a header from {@link #getRigHeader}. */
+    public RigView withMods(RigView header) {
+        RigView.Vehicle vehicle = header.vehicle();
+        return vehicle == null ? header
+                : header.withMods(modService.getModsByVehicleInfoId(vehicle.id(), vehicle.modsVersion()));
+    }
+
+    /**
+     * ETag of a page: the profile's version, then the vehicle's id, version and mods
+     * version. Not an If-Match token.
+     */
+    public static String tag(RigView header) {
+        RigView.Vehicle v = header.vehicle();
+        return header.profile().version() + (v == null ? "" : "." + v.id() + "." + v.version() + "." + v.modsVersion());
+    }
+}
@@ -1,11 +1,25 @@
 package app.rigsheet.service;
 
 import app.rigsheet.model.UserProfile;
+import app.rigsheet.config.MetricsConfig;
+import app.rigsheet.config.PaginationSettings;
+import app.rigsheet.dto.CursorPage;
+import app.rigsheet.dto.PageCursor;
+import app.rigsheet.dto.UserProfileView;
 import app.rigsheet.repository.UserProfileRepository;
+import app.rigsheet.repository.VersionedWrites;
+import app.rigsheet.security.TokenVersionTable;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -24,66 +38,161 @@ import java.util.Optional;
  * </p>
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, extraTags = {"service", "profiles"}, histogram = true)
 public class UserProfileService {
 
+    private static final String TABLE = "user_profile";
+
+    /** Fields a PUT/PATCH may set, by {@link UserProfileView} name. */
+    private static final Map<String, Patch.Field> PATCHABLE = Map.of(
+            "username", Patch.Field.text("username").required(),
+            "displayName", Patch.Field.text("display_name"),
+            "bio", Patch.Field.text("bio", 500),
+            "profileImageUrl", Patch.Field.text("profile_image_url"),
+            "location", Patch.Field.text("location"),
+            "roles", Patch.Field.text("roles"));
+
+    /** Reported from before a write, to revoke the tokens issued under the old name. */
+    private static final List<String> TOKEN_COLUMNS = List.of("username", "roles", "token_version");
+
     private final UserProfileRepository userProfileRepository;
+    private final TokenVersionTable tokenVersions;
+    private final PaginationSettings pagination;
+    private final VersionedWrites writes;
 
     @Autowired
-    public UserProfileService(UserProfileRepository userProfileRepository) {
+    public UserProfileService(UserProfileRepository userProfileRepository,
+                              TokenVersionTable tokenVersions,
+                              PaginationSettings pagination,
+                              VersionedWrites writes) {
         this.userProfileRepository = userProfileRepository;
+        this.tokenVersions = tokenVersions;
+        this.pagination = pagination;
+        this.writes = writes;
     }
 
     /**
-     * Find a user profile by its primary key.
+     * Find a user profile by its primary key (served from the second-level cache when warm).
      *
      * @param id the user profile ID
      * @return an {@link Optional} containing the profile if found; empty otherwise
      */
-    public Optional<UserProfile> getUserProfileById(Long id) {
-        return userProfileRepository.findById(id);
+    public Optional<UserProfileView> getUserProfileById(Long id) {
+        return userProfileRepository.findById(id).map(UserProfileView::of);
     }
 
     /**
-     * Find a user profile by its unique username/handle.
+     * Find a user profile by its unique username/handle (query- and entity-cached).
      *
      * @param username unique username
      * @return an {@link Optional} containing the profile if found; empty otherwise
      */
-    public Optional<UserProfile> getUserProfileByUsername(String username) {
-        return userProfileRepository.findByUsername(username);
+    public Optional<UserProfileView> getUserProfileByUsername(String username) {
+        return userProfileRepository.findByUsername(username).map(UserProfileView::of);
     }
 
     /**
-     * Persist a user profile.
-     *
-     * <p>If the entity has an ID that exists, this will perform an update; otherwise a create.</p>
+     * The profile's row version (its ETag). Read from the same cached entity as
+     * {@link #getUserProfileById}, so tag and body always agree.
+     */
+    public Optional<Long> getVersionById(Long id) {
+        return userProfileRepository.findById(id).map(UserProfile::getVersion);
+    }
+
+    /** The profile's row version (its ETag); see {@link #getVersionById}. */
+    public Optional<Long> getVersionByUsername(String username) {
+        return userProfileRepository.findByUsername(username).map(UserProfile::getVersion);
+    }
+
+    /**
+     * Create a user profile.
      *
      * @param profile the user profile to save
-     * @return the saved entity (with generated ID if created)
+     * @return the saved profile (with generated ID)
+     */
+    public UserProfileView saveUserProfile(UserProfile profile) {
+        return UserProfileView.of(userProfileRepository.save(profile));
+    }
+
+    /**
+     * Replace a profile's public fields (PUT). Roles only change when given;
+     * credentials are never touched here.
+     *
+     * @param expectedVersion apply only at this version (null: unconditionally)
+     * @throws ResponseStatusException 404 if absent, 409 on a version mismatch or a duplicate value, 400 for a reference to a missing record
      */
-    public UserProfile saveUserProfile(UserProfile profile) {
-        return userProfileRepository.save(profile);
+    @Transactional
+    public UserProfileView updateUserProfile(Long id, UserProfile replacement, Long expectedVersion) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("username", replacement.getUsername());
+        fields.put("displayName", replacement.getDisplayName());
+        fields.put("bio", replacement.getBio());
+        fields.put("profileImageUrl", replacement.getProfileImageUrl());
+        fields.put("location", replacement.getLocation());
+        if (replacement.getRoles() != null) {
+            fields.put("roles", replacement.getRoles());
+        }
+        return patchUserProfile(id, fields, expectedVersion);
     }
 
     /**
-     * Delete a user profile by ID.
+     * Apply a merge patch over {@link UserProfileView} fields (PATCH) in one conditional statement.
+     * Username and roles are embedded in issued tokens, so changing either revokes the user's
+     * existing tokens (including those issued under the old name, on this node).
+     * A {@code version} in the body is used when {@code expectedVersion} is null.
      *
-     * <p>Does not throw if the ID does not exist—delete is idempotent from JPA’s perspective.</p>
+     * @throws ResponseStatusException 404 if absent, 409 on a version mismatch or a duplicate value, 400 for a reference to a missing record
+     */
+    @Transactional
+    public UserProfileView patchUserProfile(Long id, Map<String, ?> changes, Long expectedVersion) {
+        Long expected = expectedVersion != null ? expectedVersion : Patch.version(changes);
+        VersionedWrites.Result result = Patch.checked(
+                writes.update(TABLE, id, expected, Patch.columns(changes, PATCHABLE), TOKEN_COLUMNS), "User profile");
+        Map<String, Object> row = result.row();
+        Map<String, Object> previous = result.previous();
+        if (!Objects.equals(previous.get("username"), row.get("username"))
+                || !Objects.equals(previous.get("roles"), row.get("roles"))) {
+            tokenVersions.revokeAll(id, (String) previous.get("username"), tokenVersion(previous));
+        }
+        return new UserProfileView((Long) row.get("id"), (String) row.get("username"),
+                (String) row.get("display_name"), (String) row.get("bio"), (String) row.get("profile_image_url"),
+                (String) row.get("location"), (String) row.get("roles"), (Long) row.get("version"));
+    }
+
+    /**
+     * Delete a user profile in one conditional statement.
+     *
+     * <p>The user's tokens are revoked as the row goes, so they stop working on this node right away.
+     * Other nodes keep accepting them until they expire: there is no row left to carry the bump.</p>
      *
      * @param id the user profile ID to delete
+     * @param expectedVersion delete only at this version (null: unconditionally)
+     * @throws ResponseStatusException 404 if absent, 409 on a version mismatch or while other records still reference it
      */
-    public void deleteUserProfile(Long id) {
-        userProfileRepository.deleteById(id);
+    @Transactional
+    public void deleteUserProfile(Long id, Long expectedVersion) {
+        VersionedWrites.Result result = Patch.checked(
+                writes.delete(TABLE, id, expectedVersion, TOKEN_COLUMNS), "User profile");
+        tokenVersions.revokeName((String) result.previous().get("username"), tokenVersion(result.previous()));
+    }
+
+    private static int tokenVersion(Map<String, Object> previous) {
+        return ((Number) previous.get("token_version")).intValue();
     }
 
     /**
-     * Retrieve all user profiles.
+     * Retrieve one page of user profiles, ordered by id.
      *
-     * <p>Useful for admin views or sanity checks. Consider pagination later if this list grows.</p>
+     * <p>Useful for admin views or sanity checks. Keyset-paginated, so deep pages cost the same as the first.</p>
      *
-     * @return list of all user profiles (possibly empty, never null)
+     * @param cursor opaque cursor from the previous page, or null for the first page
+     * @param limit  requested page size (clamped to the configured maximum)
+     * @return the page (possibly empty, never null)
      */
-    public List<UserProfile> getAllUserProfiles() {
-        return userProfileRepository.findAll();
+    public CursorPage<UserProfileView> getAllUserProfiles(String cursor, Integer limit) {
+        int size = pagination.limit(limit);
+        PageCursor after = PageCursor.decode(cursor, "id", 0);
+        return CursorPage.of(userProfileRepository.findPageAfter(after.lastId(), PageRequest.of(0, size + 1)),
+                size, row -> new PageCursor("id", null, row.id()));
     }
 }
@@ -1,12 +1,23 @@
 package app.rigsheet.service;
 
 import app.rigsheet.model.VehicleInfo;
+import app.rigsheet.config.MetricsConfig;
+import app.rigsheet.config.PaginationSettings;
+import app.rigsheet.dto.CursorPage;
+import app.rigsheet.dto.PageCursor;
+import app.rigsheet.dto.VehicleView;
 import app.rigsheet.repository.VehicleInfoRepository;
+import app.rigsheet.repository.VersionedWrites;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -27,24 +38,49 @@ import java.util.Optional;
  * </ul>
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, extraTags = {"service", "vehicles"}, histogram = true)
 public class VehicleInfoService {
 
+    private static final String TABLE = "vehicle_info";
+
+    /** Fields a PUT/PATCH may set, by {@link VehicleView} name (the owner by id). */
+    private static final Map<String, Patch.Field> PATCHABLE = Map.of(
+            "vehicleYear", Patch.Field.text("vehicle_year"),
+            "make", Patch.Field.text("make"),
+            "model", Patch.Field.text("model"),
+            "trim", Patch.Field.text("trim"),
+            "color", Patch.Field.text("color"),
+            "nickname", Patch.Field.text("nickname"),
+            "imageUrl", Patch.Field.text("image_url"),
+            "userProfileId", Patch.Field.of("user_profile_id", Long.class));
+
     private final VehicleInfoRepository vehicleInfoRepository;
+    private final PaginationSettings pagination;
+    private final VersionedWrites writes;
 
     @Autowired
-    public VehicleInfoService(VehicleInfoRepository vehicleInfoRepository) {
+    public VehicleInfoService(VehicleInfoRepository vehicleInfoRepository,
+                              PaginationSettings pagination,
+                              VersionedWrites writes) {
         this.vehicleInfoRepository = vehicleInfoRepository;
+        this.pagination = pagination;
+        this.writes = writes;
     }
 
     /**
-     * Retrieve all vehicles.
+     * Retrieve one page of vehicles, ordered by id.
      *
-     * <p>Useful for admin/testing. Consider adding pagination later if this list grows.</p>
+     * <p>Useful for admin/testing. Keyset-paginated, so deep pages cost the same as the first.</p>
      *
-     * @return a list of all {@link VehicleInfo} records (possibly empty, never {@code null})
+     * @param cursor opaque cursor from the previous page, or {@code null} for the first page
+     * @param limit  requested page size (clamped to the configured maximum)
+     * @return the page (possibly empty, never {@code null})
      */
-    public List<VehicleInfo> getAllVehicles() {
-        return vehicleInfoRepository.findAll();
+    public CursorPage<VehicleView> getAllVehicles(String cursor, Integer limit) {
+        int size = pagination.limit(limit);
+        PageCursor after = PageCursor.decode(cursor, "id", 0);
+        return CursorPage.of(vehicleInfoRepository.findPageAfter(after.lastId(), PageRequest.of(0, size + 1)),
+                size, row -> new PageCursor("id", null, row.id()));
     }
 
     /**
@@ -53,8 +89,8 @@ public class VehicleInfoService {
      * @param id the vehicle ID
      * @return an {@link Optional} containing the vehicle if found; empty otherwise
      */
-    public Optional<VehicleInfo> getVehicleById(Long id) {
-        return vehicleInfoRepository.findById(id);
+    public Optional<VehicleView> getVehicleById(Long id) {
+        return vehicleInfoRepository.findViewById(id);
     }
 
     /**
@@ -66,34 +102,81 @@ public class VehicleInfoService {
      * @param userProfileId the owning user profile ID
      * @return an {@link Optional} containing the vehicle if found; empty otherwise
      */
-    public Optional<VehicleInfo> getVehicleByUserProfileId(Long userProfileId) {
-        return vehicleInfoRepository.findByUserProfileId(userProfileId);
+    @Transactional(readOnly = true)
+    public Optional<VehicleView> getVehicleByUserProfileId(Long userProfileId) {
+        // Query-cached; the vehicle and its owner then come from the second-level cache
+        return vehicleInfoRepository.findByUserProfileId(userProfileId).map(VehicleView::of);
+    }
+
+    /**
+     * ETag of {@link #getVehicleByUserProfileId}: vehicle id and version plus the
+     * owner's version, since the view embeds owner fields. Not an If-Match token.
+     * Read from the same cached entities as the view, so tag and body always agree.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getViewTagByUserProfileId(Long userProfileId) {
+        return vehicleInfoRepository.findByUserProfileId(userProfileId)
+                .map(v -> v.getId() + "." + v.getVersion() + "." + v.getUserProfile().getVersion());
     }
 
     /**
-     * Create or update a {@link VehicleInfo}.
+     * Create a {@link VehicleInfo}.
      *
-     * <p>
-     * If the entity has a non-null ID that exists, this acts as an update; otherwise it creates a new row.
-     * </p>
+     * @param vehicleInfo the vehicle to persist (owner given by id)
+     * @return the saved vehicle, with its generated ID and owner card
+     */
+    @Transactional
+    public VehicleView saveVehicleInfo(VehicleInfo vehicleInfo) {
+        VehicleInfo saved = vehicleInfoRepository.saveAndFlush(vehicleInfo);
+        // The body's owner only carries an id; read the card back with the row
+        return vehicleInfoRepository.findViewById(saved.getId()).orElseThrow();
+    }
+
+    /**
+     * Replace a vehicle's fields (PUT); an omitted owner keeps the current one.
      *
-     * @param vehicleInfo the vehicle to persist
-     * @return the saved entity (with generated ID if newly created)
+     * @param expectedVersion apply only at this version (null: unconditionally)
+     * @throws ResponseStatusException 404 if absent, 409 on a version mismatch or a duplicate value, 400 for a reference to a missing record
      */
     @Transactional
-    public VehicleInfo saveVehicleInfo(VehicleInfo vehicleInfo) {
-        return vehicleInfoRepository.save(vehicleInfo);
+    public VehicleView updateVehicleInfo(Long id, VehicleInfo replacement, Long expectedVersion) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("vehicleYear", replacement.getVehicleYear());
+        fields.put("make", replacement.getMake());
+        fields.put("model", replacement.getModel());
+        fields.put("trim", replacement.getTrim());
+        fields.put("color", replacement.getColor());
+        fields.put("nickname", replacement.getNickname());
+        fields.put("imageUrl", replacement.getImageUrl());
+        if (replacement.getUserProfile() != null) {
+            fields.put("userProfileId", replacement.getUserProfile().getId());
+        }
+        return patchVehicleInfo(id, fields, expectedVersion);
     }
 
     /**
-     * Delete a vehicle by ID.
+     * Apply a merge patch over vehicle fields (PATCH; the owner as {@code userProfileId}).
+     * The update is one conditional statement; the returned view is read after it.
+     * A {@code version} in the body is used when {@code expectedVersion} is null.
      *
-     * <p>JPA delete is idempotent: deleting a non-existent ID does not raise an exception.</p>
+     * @throws ResponseStatusException 404 if absent, 409 on a version mismatch or a duplicate value, 400 for a reference to a missing record
+     */
+    @Transactional
+    public VehicleView patchVehicleInfo(Long id, Map<String, ?> changes, Long expectedVersion) {
+        Long expected = expectedVersion != null ? expectedVersion : Patch.version(changes);
+        Patch.checked(writes.update(TABLE, id, expected, Patch.columns(changes, PATCHABLE), List.of()), "Vehicle");
+        return vehicleInfoRepository.findViewById(id).orElseThrow();
+    }
+
+    /**
+     * Delete a vehicle in one conditional statement.
      *
      * @param id the vehicle ID to delete
+     * @param expectedVersion delete only at this version (null: unconditionally)
+     * @throws ResponseStatusException 404 if absent, 409 on a version mismatch or while other records still reference it
      */
     @Transactional
-    public void deleteVehicleInfo(Long id) {
-        vehicleInfoRepository.deleteById(id);
+    public void deleteVehicleInfo(Long id, Long expectedVersion) {
+        Patch.checked(writes.delete(TABLE, id, expectedVersion, List.of()), "Vehicle");
     }
 }
\ No newline at end of file
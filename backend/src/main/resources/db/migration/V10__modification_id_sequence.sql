@@ -0,0 +1,12 @@
+-- Pooled sequence for modification ids, so Hibernate can batch inserts
+-- (IDENTITY forces one round-trip per row). Hibernate reserves 50 ids per
+-- nextval; INCREMENT BY must match allocationSize on Modification.id.
+CREATE SEQUENCE IF NOT EXISTS modification_seq INCREMENT BY 50;
+
+-- Start past every existing id (the pooled optimizer hands out nextval-49 .. nextval)
+SELECT setval('modification_seq', COALESCE((SELECT max(id) FROM modification), 0) + 50);
+
+-- Plain SQL inserts draw from the same sequence; works whether id was bigserial or identity
+ALTER TABLE modification ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE modification ALTER COLUMN id SET DEFAULT nextval('modification_seq');
+ALTER SEQUENCE modification_seq OWNED BY modification.id;
@@ -0,0 +1,6 @@
+-- Optimistic-locking versions (JPA @Version). Every update bumps the row's
+-- version; writers that send the version they read (If-Match / "version")
+-- only apply if nobody else has written since.
+ALTER TABLE modification ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE vehicle_info ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE user_profile ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Per-vehicle change stamp for HTTP caching. BuildSummaryService bumps it on every
+-- mod write (and rollup repair), so it is the strong ETag of a vehicle's mod list
+-- and build summary: a conditional GET costs one primary-key lookup.
+ALTER TABLE vehicle_build_summary ADD COLUMN IF NOT EXISTS mods_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Per-user token version; bumping it revokes every JWT issued before the bump
+ALTER TABLE user_profile
+  ADD COLUMN IF NOT EXISTS token_version integer NOT NULL DEFAULT 0;
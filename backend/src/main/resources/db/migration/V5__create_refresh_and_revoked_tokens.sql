@@ -0,0 +1,20 @@
+-- Rotating refresh tokens (only the SHA-256 of the token is stored)
+CREATE TABLE IF NOT EXISTS refresh_token (
+  id              bigserial PRIMARY KEY,
+  user_profile_id bigint       NOT NULL REFERENCES user_profile (id) ON DELETE CASCADE,
+  token_hash      varchar(64)  NOT NULL UNIQUE,
+  family_id       varchar(36)  NOT NULL,
+  expires_at      timestamp with time zone NOT NULL,
+  revoked_at      timestamp with time zone
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_family ON refresh_token (family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_user ON refresh_token (user_profile_id);
+
+-- Access-token IDs (jti) revoked before their natural expiry
+CREATE TABLE IF NOT EXISTS revoked_token (
+  jti        varchar(36) PRIMARY KEY,
+  expires_at timestamp with time zone NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_token_expires ON revoked_token (expires_at);
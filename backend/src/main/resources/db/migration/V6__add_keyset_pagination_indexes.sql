@@ -0,0 +1,11 @@
+-- Indexes backing keyset pagination: each page is a range scan from the cursor
+
+-- by-category / by-brand lists, ordered by id
+CREATE INDEX IF NOT EXISTS idx_modification_category_id ON modification (category, id);
+CREATE INDEX IF NOT EXISTS idx_modification_brand_id ON modification (brand, id);
+
+-- sponsored list: small, hot subset
+CREATE INDEX IF NOT EXISTS idx_modification_sponsored_id ON modification (id) WHERE sponsored = true;
+
+-- all mods ordered by cost (a missing cost sorts as 0, matching the repository queries)
+CREATE INDEX IF NOT EXISTS idx_modification_cost_id ON modification ((COALESCE(cost, 0)), id);
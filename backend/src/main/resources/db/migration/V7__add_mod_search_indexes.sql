@@ -0,0 +1,21 @@
+-- Composite/partial indexes for /api/mods/search.
+-- Equality filters lead, the keyset sort key (and id) trails, so a filtered,
+-- sorted page is a single index range scan. Builds on the V6 pagination indexes.
+
+-- category + brand together (the most common pair in the build-sheet UI)
+CREATE INDEX IF NOT EXISTS idx_modification_category_brand_id ON modification (category, brand, id);
+
+-- category, sorted by cost / weight
+CREATE INDEX IF NOT EXISTS idx_modification_category_cost_id ON modification (category, (COALESCE(cost, 0)), id);
+CREATE INDEX IF NOT EXISTS idx_modification_category_weight_id ON modification (category, (COALESCE(weight, 0)), id);
+
+-- all mods sorted by weight (cost is covered by V6)
+CREATE INDEX IF NOT EXISTS idx_modification_weight_id ON modification ((COALESCE(weight, 0)), id);
+
+-- sponsored-only searches: small partial indexes instead of a low-selectivity boolean column
+CREATE INDEX IF NOT EXISTS idx_modification_sponsored_category_id ON modification (category, id) WHERE sponsored = true;
+CREATE INDEX IF NOT EXISTS idx_modification_sponsored_cost_id ON modification ((COALESCE(cost, 0)), id) WHERE sponsored = true;
+
+-- make/model filters resolve vehicles first, then join on the FK
+CREATE INDEX IF NOT EXISTS idx_vehicle_info_make_model ON vehicle_info (make, model);
+CREATE INDEX IF NOT EXISTS idx_modification_vehicle_info_id ON modification (vehicle_info_id, id);
@@ -0,0 +1,25 @@
+-- Ranked full-text search over modification name/brand/category.
+-- Weights: name (A) ranks above brand (B) above category (C).
+
+ALTER TABLE modification
+  ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION modification_search_vector_update() RETURNS trigger AS $$
+BEGIN
+  NEW.search_vector :=
+      setweight(to_tsvector('english', coalesce(NEW.name, '')), 'A') ||
+      setweight(to_tsvector('english', coalesce(NEW.brand, '')), 'B') ||
+      setweight(to_tsvector('english', coalesce(NEW.category, '')), 'C');
+  RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS modification_search_vector_trg ON modification;
+CREATE TRIGGER modification_search_vector_trg
+  BEFORE INSERT OR UPDATE OF name, brand, category ON modification
+  FOR EACH ROW EXECUTE FUNCTION modification_search_vector_update();
+
+-- Backfill existing rows (fires the trigger)
+UPDATE modification SET name = name;
+
+CREATE INDEX IF NOT EXISTS idx_modification_search_vector ON modification USING GIN (search_vector);
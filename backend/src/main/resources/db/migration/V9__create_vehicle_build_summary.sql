@@ -0,0 +1,35 @@
+-- Per-vehicle build rollup, maintained by ModificationService on every mod write
+-- and repaired by BuildSummaryService.reconcile(). One row per vehicle, so a
+-- build-sheet summary is a primary-key lookup however many mods the rig has.
+CREATE TABLE IF NOT EXISTS vehicle_build_summary (
+  vehicle_info_id bigint           PRIMARY KEY REFERENCES vehicle_info (id) ON DELETE CASCADE,
+  mod_count       integer          NOT NULL DEFAULT 0,
+  total_cost      double precision NOT NULL DEFAULT 0,
+  total_weight    double precision NOT NULL DEFAULT 0,
+  -- { "<category>": { "count": n, "cost": x, "weight": y }, ... }
+  categories      jsonb            NOT NULL DEFAULT '{}'::jsonb,
+  updated_at      timestamp with time zone NOT NULL DEFAULT now()
+);
+
+-- Backfill from existing mods (missing cost/weight count as 0, missing category as 'uncategorized')
+INSERT INTO vehicle_build_summary (vehicle_info_id, mod_count, total_cost, total_weight, categories)
+SELECT v.id,
+       COALESCE(sum(c.mods), 0),
+       COALESCE(sum(c.cost), 0),
+       COALESCE(sum(c.weight), 0),
+       COALESCE(jsonb_object_agg(c.category,
+                                 jsonb_build_object('count', c.mods, 'cost', c.cost, 'weight', c.weight))
+                FILTER (WHERE c.category IS NOT NULL), '{}'::jsonb)
+FROM vehicle_info v
+LEFT JOIN (
+  SELECT vehicle_info_id,
+         COALESCE(category, 'uncategorized') AS category,
+         count(*)                            AS mods,
+         sum(COALESCE(cost, 0))              AS cost,
+         sum(COALESCE(weight, 0))            AS weight
+  FROM modification
+  WHERE vehicle_info_id IS NOT NULL
+  GROUP BY 1, 2
+) c ON c.vehicle_info_id = v.id
+GROUP BY v.id
+ON CONFLICT (vehicle_info_id) DO NOTHING;
@@ -0,0 +1,53 @@
+package app.rigsheet;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * A real Postgres for the tests that exercise Postgres-only SQL: the database at
+ * {@code RIGSHEET_TEST_DB_URL} (user and password from {@code RIGSHEET_TEST_DB_USER}
+ * and {@code RIGSHEET_TEST_DB_PASS}) if set, otherwise one throwaway container shared
+ * by every such test in the run. Tests gate on {@link #available} with
+ * {@code @EnabledIf}, so they are skipped where there is neither.
+ *
+ * The schema is migrated from scratch: the test-only db/baseline/V1 recreates the
+ * pre-Flyway tables that production baselines over, then the real migrations run.
+ */
+public final class PostgresTestDatabase {
+
+    private static final String URL = System.getenv("RIGSHEET_TEST_DB_URL");
+
+    private static PostgreSQLContainer<?> container;
+
+    private PostgresTestDatabase() {
+    }
+
+    public static boolean available() {
+        return URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    /** Points the datasource and Flyway at the database; call from a {@code @DynamicPropertySource}. */
+    public static synchronized void register(DynamicPropertyRegistry registry) {
+        if (URL != null) {
+            registry.add("spring.datasource.url", () -> URL);
+            registry.add("spring.datasource.username", () -> env("RIGSHEET_TEST_DB_USER", "postgres"));
+            registry.add("spring.datasource.password", () -> env("RIGSHEET_TEST_DB_PASS", "postgres"));
+        } else {
+            if (container == null) {
+                container = new PostgreSQLContainer<>("postgres:15-alpine");
+                container.start();
+            }
+            registry.add("spring.datasource.url", container::getJdbcUrl);
+            registry.add("spring.datasource.username", container::getUsername);
+            registry.add("spring.datasource.password", container::getPassword);
+        }
+        registry.add("spring.flyway.locations", () -> "classpath:db/baseline,classpath:db/migration");
+        registry.add("spring.flyway.baseline-on-migrate", () -> "false");
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,121 @@
+package app.rigsheet;
+
+import app.rigsheet.model.Modification;
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.model.VehicleBuildSummary;
+import app.rigsheet.model.VehicleInfo;
+import app.rigsheet.repository.ModificationRepository;
+import app.rigsheet.repository.UserProfileRepository;
+import app.rigsheet.repository.VehicleBuildSummaryRepository;
+import app.rigsheet.repository.VehicleInfoRepository;
+import app.rigsheet.security.JwtUtil;
+import app.rigsheet.security.TokenVersionTable;
+import app.rigsheet.service.BuildSummaryService;
+import app.rigsheet.service.LeaderboardService;
+import app.rigsheet.service.ModListCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds rigs into the application under test (the dev + test profiles: in-memory H2,
+ * see application-test.yml) and mints tokens for them.
+ *
+ * <p>Rows go straight through the repositories, as BenchApp does; build rollups are
+ * then reconciled and the leaderboards rebuilt, so the data looks as if it had been
+ * written through the API. Every name carries a tag, so datasets seeded into the
+ * same context stay apart.</p>
+ */
+public final class TestRigs {
+
+    public static final String[] CATEGORIES = {"Suspension", "Armor", "Lighting", "Recovery"};
+    public static final String[] BRANDS = {"ARB", "Warn", "Baja Designs", "Front Runner"};
+
+    /** One seeded user with their vehicle and its mods. */
+    public record Rig(long userId, String username, long vehicleId, List<Long> modIds) {}
+
+    /** The rigs of one {@link #seed} call; its categories and brands are {@link #category} and {@link #brand}. */
+    public record Dataset(String tag, List<Rig> rigs) {
+
+        public Rig first() {
+            return rigs.get(0);
+        }
+
+        public String category(int i) {
+            return tag + " " + CATEGORIES[i % CATEGORIES.length];
+        }
+
+        public String brand(int i) {
+            return tag + " " + BRANDS[i % BRANDS.length];
+        }
+    }
+
+    private final ApplicationContext context;
+
+    public TestRigs(ApplicationContext context) {
+        this.context = context;
+    }
+
+    /** {@code users} users named {@code <tag>-<n>}, one vehicle each with {@code modsPerVehicle} mods. */
+    public Dataset seed(String tag, int users, int modsPerVehicle) {
+        UserProfileRepository userRepo = context.getBean(UserProfileRepository.class);
+        VehicleInfoRepository vehicleRepo = context.getBean(VehicleInfoRepository.class);
+        ModificationRepository modRepo = context.getBean(ModificationRepository.class);
+
+        List<Rig> rigs = new ArrayList<>();
+        List<VehicleBuildSummary> summaries = new ArrayList<>();
+        for (int u = 1; u <= users; u++) {
+            UserProfile profile = userRepo.save(UserProfile.builder()
+                    .username(tag + "-" + u)
+                    .displayName("Rig owner " + u)
+                    .location("Moab, UT")
+                    .roles("ROLE_USER")
+                    .build());
+            VehicleInfo vehicle = vehicleRepo.save(VehicleInfo.builder()
+                    .vehicleYear("2019")
+                    .make("Toyota")
+                    .model("4Runner")
+                    .nickname(tag + " rig " + u)
+                    .userProfile(profile)
+                    .build());
+
+            List<Modification> batch = new ArrayList<>(modsPerVehicle);
+            for (int m = 0; m < modsPerVehicle; m++) {
+                int i = u * modsPerVehicle + m;
+                batch.add(Modification.builder()
+                        .name(tag + " part " + i)
+                        .category(tag + " " + CATEGORIES[i % CATEGORIES.length])
+                        .brand(tag + " " + BRANDS[i % BRANDS.length])
+                        .sponsored(i % 3 == 0)
+                        .cost(49.99 + (i * 37) % 1500)
+                        .weight(2.5 + (i * 11) % 120)
+                        .userId(profile.getId())
+                        .userProfile(profile)
+                        .vehicleInfo(vehicle)
+                        .build());
+            }
+            List<Long> modIds = modRepo.saveAll(batch).stream().map(Modification::getId).toList();
+            rigs.add(new Rig(profile.getId(), profile.getUsername(), vehicle.getId(), modIds));
+            summaries.add(VehicleBuildSummary.empty(vehicle.getId()));
+        }
+        // Rows up front: the rollup write path creates missing ones with Postgres-only SQL
+        context.getBean(VehicleBuildSummaryRepository.class).saveAll(summaries);
+        context.getBean(BuildSummaryService.class).reconcile();
+        context.getBean(LeaderboardService.class).rebuild();
+        return new Dataset(tag, rigs);
+    }
+
+    /** A valid access token for a seeded user, for the endpoints that are not public. */
+    public String token(Rig rig) {
+        int tokenVersion = context.getBean(TokenVersionTable.class).current(rig.username());
+        return context.getBean(JwtUtil.class).generateToken(rig.username(), "ROLE_USER", tokenVersion, 15 * 60 * 1000L);
+    }
+
+    /** Empties the entity and mod-list caches, so the next read runs all its queries. */
+    public void coldCaches() {
+        context.getBean(EntityManagerFactory.class).getCache().evictAll();
+        context.getBean(ModListCache.class).invalidateAll();
+    }
+}
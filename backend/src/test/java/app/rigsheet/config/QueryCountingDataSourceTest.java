@@ -0,0 +1,88 @@
+package app.rigsheet.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCountingDataSourceTest {
+
+    private QueryCountingDataSource dataSource;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = new QueryCountingDataSource(h2, Duration.ofHours(1));
+        try (Connection c = dataSource.getConnection(); Statement s = c.createStatement()) {
+            s.execute("create table part (id int primary key, name varchar(50))");
+        }
+    }
+
+    @Test
+    void shapeReplacesLiteralsAndCollapsesWhitespace() {
+        assertThat(QueryCountingDataSource.shape("select *  from part\n where id = 42 and name = 'it''s'"))
+                .isEqualTo("select * from part where id = ? and name = ?");
+        assertThat(QueryCountingDataSource.shape("select p1_0.id from part p1_0 where p1_0.cost > -1.5"))
+                .isEqualTo("select p1_0.id from part p1_0 where p1_0.cost > ?");
+    }
+
+    @Test
+    void countsEachExecutionOfAPreparedStatementUnderItsSql() throws SQLException {
+        try (QueryStats stats = QueryStats.start();
+             Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("select name from part where id = ?")) {
+            for (int id = 1; id <= 3; id++) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertThat(rs.next()).isFalse();
+                }
+            }
+            assertThat(stats.count()).isEqualTo(3);
+            assertThat(stats.repeatedMoreThan(2)).containsEntry("select name from part where id = ?", 3);
+        }
+    }
+
+    @Test
+    void countsABatchOnce() throws SQLException {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("insert into part (id, name) values (?, ?)");
+             QueryStats stats = QueryStats.start()) {
+            for (int id = 1; id <= 5; id++) {
+                ps.setInt(1, id);
+                ps.setString(2, "part " + id);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            assertThat(stats.count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void plainStatementsWithDifferentLiteralsShareAShape() throws SQLException {
+        try (Connection c = dataSource.getConnection();
+             Statement s = c.createStatement();
+             QueryStats stats = QueryStats.start()) {
+            s.executeUpdate("insert into part (id, name) values (1, 'winch')");
+            s.executeUpdate("insert into part (id, name) values (2, 'bumper')");
+            assertThat(stats.repeatedMoreThan(1))
+                    .containsEntry("insert into part (id, name) values (?, ?)", 2);
+        }
+    }
+
+    @Test
+    void statementsOutsideAScopeStillRun() throws SQLException {
+        try (Connection c = dataSource.getConnection(); Statement s = c.createStatement()) {
+            assertThat(s.executeUpdate("insert into part (id, name) values (1, 'winch')")).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package app.rigsheet.config;
+
+import app.rigsheet.TestRigs;
+import app.rigsheet.TestRigs.Dataset;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryStatsFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private TestRigs rigs;
+    private Dataset data;
+
+    @BeforeAll
+    void seed() {
+        rigs = new TestRigs(context);
+        data = rigs.seed("filter", 1, 5);
+    }
+
+    @Test
+    void reportsTheRequestsQueriesInTheHeaderAndToEnclosingScopes() throws Exception {
+        rigs.coldCaches();
+        try (QueryStats queries = QueryStats.start()) {
+            MvcResult result = mockMvc.perform(get("/api/mods/vehicle/{id}", data.first().vehicleId()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists(QueryStatsFilter.COUNT_HEADER))
+                    .andExpect(header().exists(QueryStatsFilter.TIME_HEADER))
+                    .andReturn();
+
+            // The filter's scope nests inside this one: both saw the same statements
+            int reported = Integer.parseInt(result.getResponse().getHeader(QueryStatsFilter.COUNT_HEADER));
+            assertThat(reported).isPositive().isEqualTo(queries.count());
+            queries.assertAtMost(2);
+        }
+    }
+
+    @Test
+    void aCachedListRunsNoQueries() throws Exception {
+        long vehicleId = data.first().vehicleId();
+        mockMvc.perform(get("/api/mods/vehicle/{id}", vehicleId)).andExpect(status().isOk());
+
+        // Only the mods version is read; the list itself comes from the cache
+        mockMvc.perform(get("/api/mods/vehicle/{id}", vehicleId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryStatsFilter.COUNT_HEADER, "1"));
+    }
+}
@@ -0,0 +1,76 @@
+package app.rigsheet.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryStatsTest {
+
+    @AfterEach
+    void noScopeLeaks() {
+        assertThat(QueryStats.current()).isNull();
+    }
+
+    @Test
+    void recordsNothingWithoutAScope() {
+        QueryStats.record("select 1", 1_000);
+        assertThat(QueryStats.current()).isNull();
+    }
+
+    @Test
+    void countsStatementsAndTimePerShape() {
+        try (QueryStats stats = QueryStats.start()) {
+            QueryStats.record("select a", 1_000_000);
+            QueryStats.record("select a", 2_000_000);
+            QueryStats.record("select b", 500_000);
+
+            assertThat(stats.count()).isEqualTo(3);
+            assertThat(stats.millis()).isEqualTo(3.5);
+            assertThat(stats.repeatedMoreThan(1)).isEqualTo(Map.of("select a", 2));
+            assertThat(stats.repeatedMoreThan(0)).containsOnlyKeys("select a", "select b");
+        }
+    }
+
+    @Test
+    void nestedScopesCountTowardsEveryOpenScope() {
+        try (QueryStats outer = QueryStats.start()) {
+            QueryStats.record("select a", 1);
+            try (QueryStats inner = QueryStats.start()) {
+                assertThat(QueryStats.current()).isSameAs(inner);
+                QueryStats.record("select b", 1);
+                assertThat(inner.count()).isEqualTo(1);
+            }
+            assertThat(QueryStats.current()).isSameAs(outer);
+            QueryStats.record("select c", 1);
+            assertThat(outer.count()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void closingTwiceIsHarmless() {
+        QueryStats stats = QueryStats.start();
+        stats.close();
+        stats.close();
+        assertThat(QueryStats.current()).isNull();
+    }
+
+    @Test
+    void assertAtMostPassesAtTheLimitAndNamesTheStatementsPastIt() {
+        try (QueryStats stats = QueryStats.start()) {
+            QueryStats.record("select a", 1);
+            QueryStats.record("select a", 1);
+            stats.assertAtMost(2);
+
+            QueryStats.record("select b", 1);
+            assertThatThrownBy(() -> stats.assertAtMost(2))
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessageContaining("at most 2 queries but 3 ran")
+                    .hasMessageContaining("2 x select a")
+                    .hasMessageContaining("1 x select b");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package app.rigsheet.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void publicPathsAreReadableAnonymously() throws Exception {
+        mockMvc.perform(get("/api/rigs/{username}", "nobody")).andExpect(status().isNotFound());
+        mockMvc.perform(head("/api/rigs/{username}", "nobody")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/user-profiles/{id}", 999_999)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void writesToPublicPathsNeedAToken() throws Exception {
+        mockMvc.perform(patch("/api/user-profiles/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"bio\":\"x\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/user-profiles/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/user-profiles/{id}", 1)).andExpect(status().isForbidden());
+    }
+}
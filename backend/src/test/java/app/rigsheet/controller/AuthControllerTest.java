@@ -0,0 +1,112 @@
+package app.rigsheet.controller;
+
+import app.rigsheet.TestRigs;
+import app.rigsheet.TestRigs.Rig;
+import app.rigsheet.repository.UserProfileRepository;
+import app.rigsheet.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tokens carry the roles and token version of the user's row as it is, even while
+ * the second-level cache still holds an older copy of the profile (e.g. changed on
+ * another node, within the cache TTL).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuthControllerTest {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private UserProfileRepository userRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper json;
+
+    private Rig user;
+
+    @BeforeAll
+    void seed() {
+        user = new TestRigs(context).seed("auth", 1, 0).first();
+        jdbc.update("update user_profile set password_hash = ? where id = ?",
+                context.getBean(PasswordEncoder.class).encode(PASSWORD), user.userId());
+    }
+
+    @Test
+    void loginAndRefreshIgnoreACachedProfile() throws Exception {
+        setRolesBehindTheCache("ROLE_USER,ROLE_ADMIN", 3);
+        JsonNode login = login();
+        assertToken(login, "ROLE_USER,ROLE_ADMIN", 3);
+
+        setRolesBehindTheCache("ROLE_USER", 4);
+        MvcResult refreshed = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json.writeValueAsString(Map.of(
+                                "refreshToken", login.get("refreshToken").asText()))))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertToken(json.readTree(refreshed.getResponse().getContentAsString()), "ROLE_USER", 4);
+    }
+
+    /** Loads the profile into the second-level cache, then changes the row under it. */
+    private void setRolesBehindTheCache(String roles, int tokenVersion) {
+        userRepo.findByUsername(user.username()).orElseThrow();
+        userRepo.findById(user.userId()).orElseThrow();
+        jdbc.update("update user_profile set roles = ?, token_version = ? where id = ?",
+                roles, tokenVersion, user.userId());
+    }
+
+    private JsonNode login() throws Exception {
+        MvcResult pending = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json.writeValueAsString(Map.of(
+                                "username", user.username(), "password", PASSWORD))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk()).andReturn();
+        return json.readTree(result.getResponse().getContentAsString());
+    }
+
+    private void assertToken(JsonNode response, String roles, int tokenVersion) {
+        Claims claims = jwtUtil.validateAndGetClaims(response.get("token").asText());
+        assertThat(claims.get(JwtUtil.ROLES_CLAIM, String.class)).isEqualTo(roles);
+        assertThat(claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class)).isEqualTo(tokenVersion);
+    }
+}
@@ -0,0 +1,130 @@
+package app.rigsheet.controller;
+
+import app.rigsheet.TestRigs;
+import app.rigsheet.TestRigs.Dataset;
+import app.rigsheet.TestRigs.Rig;
+import app.rigsheet.config.QueryStats;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the statements behind each hot read, cold (no entity or list cache) so the
+ * count is the worst case. Every endpoint runs against a small and a large dataset
+ * with the same cap: a count that grows with the data is an N+1.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private TestRigs rigs;
+    private Map<String, Dataset> datasets;
+
+    @BeforeAll
+    void seed() {
+        rigs = new TestRigs(context);
+        datasets = Map.of(
+                "small", rigs.seed("small", 2, 3),
+                "large", rigs.seed("large", 25, 40));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "large"})
+    void modsByVehicle(String size) throws Exception {
+        Rig rig = datasets.get(size).first();
+        assertQueries(2, get("/api/mods/vehicle/{id}", rig.vehicleId()),
+                jsonPath("$.length()").value(rig.modIds().size()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "large"})
+    void modsByUser(String size) throws Exception {
+        Rig rig = datasets.get(size).first();
+        assertQueries(1, get("/api/mods/user/{id}", rig.userId()).header(HttpHeaders.AUTHORIZATION, bearer(rig)),
+                jsonPath("$.length()").value(rig.modIds().size()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "large"})
+    void modsByCategory(String size) throws Exception {
+        Dataset data = datasets.get(size);
+        assertQueries(1, get("/api/mods/category/{category}", data.category(0))
+                        .header(HttpHeaders.AUTHORIZATION, bearer(data.first())),
+                jsonPath("$.items.length()").value(greaterThan(0)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "large"})
+    void modsByBrand(String size) throws Exception {
+        Dataset data = datasets.get(size);
+        assertQueries(1, get("/api/mods/brand/{brand}", data.brand(0))
+                        .header(HttpHeaders.AUTHORIZATION, bearer(data.first())),
+                jsonPath("$.items.length()").value(greaterThan(0)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "large"})
+    void sponsoredMods(String size) throws Exception {
+        assertQueries(1, get("/api/mods/sponsored")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(datasets.get(size).first())),
+                jsonPath("$.items.length()").value(greaterThan(0)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "large"})
+    void searchMods(String size) throws Exception {
+        Dataset data = datasets.get(size);
+        assertQueries(1, get("/api/mods/search")
+                        .param("category", data.category(1))
+                        .param("make", "Toyota")
+                        .param("sort", "-cost")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(data.first())),
+                jsonPath("$.items.length()").value(greaterThan(0)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "large"})
+    void rigPage(String size) throws Exception {
+        Rig rig = datasets.get(size).first();
+        assertQueries(2, get("/api/rigs/{username}", rig.username()),
+                jsonPath("$.mods.length()").value(rig.modIds().size()));
+    }
+
+    /** Runs {@code request} with cold caches and fails if it took more than {@code max} statements. */
+    private void assertQueries(int max, MockHttpServletRequestBuilder request, ResultMatcher body) throws Exception {
+        rigs.coldCaches();
+        try (QueryStats queries = QueryStats.start()) {
+            mockMvc.perform(request).andExpect(status().isOk()).andExpect(body);
+            queries.assertAtMost(max);
+        }
+    }
+
+    private String bearer(Rig rig) {
+        return "Bearer " + rigs.token(rig);
+    }
+}
@@ -0,0 +1,118 @@
+package app.rigsheet.controller;
+
+import app.rigsheet.PostgresTestDatabase;
+import app.rigsheet.TestRigs;
+import app.rigsheet.TestRigs.Rig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Renaming a user, changing their roles or deleting them revokes the access tokens
+ * already issued to them. Profile writes use {@code VersionedWrites}' Postgres SQL,
+ * so this runs on a {@link PostgresTestDatabase}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIf("app.rigsheet.PostgresTestDatabase#available")
+class UserProfileTokensTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestRigs rigs;
+    private String tag;
+    private Rig admin;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @BeforeAll
+    void seed() {
+        rigs = new TestRigs(context);
+        tag = "tokens-" + System.nanoTime();
+        admin = rigs.seed(tag, 1, 0).first();
+    }
+
+    @Test
+    void renamingRevokesTokensIssuedUnderTheOldName() throws Exception {
+        Rig user = newUser("rename");
+        String token = rigs.token(user);
+        expectAuthenticated(token, status().isOk());
+
+        String renamed = user.username() + "-new";
+        write(patch("/api/user-profiles/{id}", user.userId()), "{\"username\": \"" + renamed + "\"}");
+
+        expectAuthenticated(token, status().isForbidden());
+        expectAuthenticated(rigs.token(new Rig(user.userId(), renamed, 0, List.of())), status().isOk());
+    }
+
+    @Test
+    void changingRolesRevokesTokens() throws Exception {
+        Rig user = newUser("roles");
+        String token = rigs.token(user);
+        write(patch("/api/user-profiles/{id}", user.userId()), "{\"roles\": \"ROLE_USER,ROLE_ADMIN\"}");
+        expectAuthenticated(token, status().isForbidden());
+    }
+
+    @Test
+    void deletingRevokesTokens() throws Exception {
+        Rig user = newUser("delete");
+        String token = rigs.token(user);
+        write(delete("/api/user-profiles/{id}", user.userId()), null);
+        expectAuthenticated(token, status().isForbidden());
+    }
+
+    /** A user with no vehicle, so it can be deleted. */
+    private Rig newUser(String name) {
+        String username = tag + "-" + name;
+        Long id = jdbc.queryForObject("insert into user_profile (username, roles) values (?, 'ROLE_USER') returning id",
+                Long.class, username);
+        return new Rig(id, username, 0, List.of());
+    }
+
+    private void write(MockHttpServletRequestBuilder request, String json) throws Exception {
+        request.header(HttpHeaders.AUTHORIZATION, "Bearer " + rigs.token(admin));
+        if (json != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(json);
+        }
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+
+    private void expectAuthenticated(String token, ResultMatcher outcome) throws Exception {
+        mockMvc.perform(get("/api/mods/user/{id}", admin.userId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(outcome);
+    }
+}
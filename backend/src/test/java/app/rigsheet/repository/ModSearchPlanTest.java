@@ -0,0 +1,170 @@
+package app.rigsheet.repository;
+
+import app.rigsheet.PostgresTestDatabase;
+import app.rigsheet.config.QueryStats;
+import app.rigsheet.dto.ModSearchCriteria;
+import app.rigsheet.dto.PageCursor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the SQL that {@link ModificationSearchRepositoryImpl} generates for the
+ * main filter combinations, on a {@link PostgresTestDatabase}, and checks that each
+ * page is read through its V6/V7 index. A sorted search must also come out of the
+ * index already in order: a Sort node means the generated {@code coalesce(col, 0)}
+ * no longer matches the indexed expression.
+ */
+@SpringBootTest
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIf("app.rigsheet.PostgresTestDatabase#available")
+class ModSearchPlanTest {
+
+    private static final int PAGE = 51;
+
+    @Autowired
+    private ModificationRepository modRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbc.execute("truncate modification, vehicle_build_summary, vehicle_info, user_profile restart identity cascade");
+        jdbc.execute("""
+                insert into user_profile (username, roles)
+                select 'user' || g, 'ROLE_USER' from generate_series(1, 2000) g""");
+        jdbc.execute("""
+                insert into vehicle_info (make, model, user_profile_id)
+                select (array['Toyota', 'Jeep', 'Ford', 'Nissan', 'Land Rover'])[1 + g % 5], 'Model ' || g % 400, g
+                from generate_series(1, 2000) g""");
+        // 100 categories, 500 brands, 5% sponsored, a few missing costs and weights
+        jdbc.execute("""
+                insert into modification (name, category, brand, sponsored, cost, weight,
+                                          user_id, user_profile_id, vehicle_info_id)
+                select 'part ' || g, 'Category ' || g % 100, 'Brand ' || g % 500, g % 20 = 0,
+                       case when g % 17 = 0 then null else (g * 37) % 1500 end,
+                       case when g % 13 = 0 then null else (g * 11) % 120 end,
+                       1 + g % 2000, 1 + g % 2000, 1 + g % 2000
+                from generate_series(1, 100000) g""");
+        jdbc.execute("analyze modification");
+        jdbc.execute("analyze vehicle_info");
+    }
+
+    @Test
+    void categoryUsesItsIdIndex() {
+        assertThat(plan(criteria("Category 3", null, null, null, null), ModSearchSort.ID))
+                .contains("idx_modification_category_id");
+    }
+
+    @Test
+    void categoryAndBrandUseTheCompositeIndex() {
+        assertThat(plan(criteria("Category 3", "Brand 103", null, null, null), ModSearchSort.ID))
+                .contains("idx_modification_category_brand_id");
+    }
+
+    @Test
+    void categoryByCostUsesTheCoalesceExpressionIndex() {
+        assertSortedBy(plan(criteria("Category 3", null, null, null, null), ModSearchSort.COST),
+                "idx_modification_category_cost_id");
+        assertSortedBy(plan(criteria("Category 3", null, null, null, null), ModSearchSort.COST_DESC),
+                "idx_modification_category_cost_id");
+    }
+
+    @Test
+    void categoryByWeightUsesTheCoalesceExpressionIndex() {
+        assertSortedBy(plan(criteria("Category 3", null, null, null, null), ModSearchSort.WEIGHT_DESC),
+                "idx_modification_category_weight_id");
+    }
+
+    @Test
+    void unfilteredSortsUseTheCoalesceExpressionIndexes() {
+        assertSortedBy(plan(criteria(null, null, null, null, null), ModSearchSort.COST),
+                "idx_modification_cost_id");
+        assertSortedBy(plan(criteria(null, null, null, null, null), ModSearchSort.WEIGHT),
+                "idx_modification_weight_id");
+    }
+
+    @Test
+    void laterPagesSeekWithinTheSameIndex() {
+        ModSearchCriteria category = criteria("Category 3", null, null, null, null);
+        assertSortedBy(plan(category, ModSearchSort.COST, new PageCursor("cost", 700.0, 4_000)),
+                "idx_modification_category_cost_id");
+        assertSortedBy(plan(category, ModSearchSort.WEIGHT_DESC, new PageCursor("-weight", 60.0, 4_000)),
+                "idx_modification_category_weight_id");
+    }
+
+    @Test
+    void sponsoredSearchesUseThePartialIndexes() {
+        assertThat(plan(criteria("Category 40", null, true, null, null), ModSearchSort.ID))
+                .contains("idx_modification_sponsored_category_id");
+        assertSortedBy(plan(criteria(null, null, true, null, null), ModSearchSort.COST),
+                "idx_modification_sponsored_cost_id");
+    }
+
+    @Test
+    void makeAndModelResolveVehiclesFirst() {
+        assertThat(plan(criteria(null, null, null, "Jeep", "Model 101"), ModSearchSort.ID))
+                .contains("idx_vehicle_info_make_model")
+                .contains("idx_modification_vehicle_info_id");
+    }
+
+    private static ModSearchCriteria criteria(String category, String brand, Boolean sponsored,
+                                              String make, String model) {
+        return new ModSearchCriteria(category, brand, sponsored, null, null, null, null, make, model);
+    }
+
+    private static void assertSortedBy(String plan, String index) {
+        assertThat(plan).contains(index).doesNotContainPattern("\\bSort\\s+\\(");
+    }
+
+    private String plan(ModSearchCriteria c, ModSearchSort sort) {
+        return plan(c, sort, PageCursor.first(sort.key(), sort.descending() ? Double.MAX_VALUE : -Double.MAX_VALUE));
+    }
+
+    /**
+     * Runs the search once to capture its SQL, then EXPLAINs that SQL with the same
+     * values bound, in the order the repository writes its parameters.
+     */
+    private String plan(ModSearchCriteria c, ModSearchSort sort, PageCursor after) {
+        String sql;
+        try (QueryStats queries = QueryStats.start()) {
+            modRepository.searchPage(c, sort, after, PAGE);
+            assertThat(queries.count()).isEqualTo(1);
+            sql = queries.repeatedMoreThan(0).keySet().iterator().next();
+        }
+        List<Object> binds = new ArrayList<>();
+        for (Object value : new Object[]{c.category(), c.brand(), c.sponsored(), c.minCost(), c.maxCost(),
+                c.minWeight(), c.maxWeight(), c.make(), c.model()}) {
+            if (value != null) {
+                binds.add(value);
+            }
+        }
+        if (sort.attribute() != null) {
+            binds.add(after.value());
+            binds.add(after.value());
+        }
+        binds.add(after.lastId());
+        binds.add(PAGE);
+        List<String> lines = jdbc.queryForList("explain " + sql, String.class, binds.toArray());
+        return String.join("\n", lines);
+    }
+}
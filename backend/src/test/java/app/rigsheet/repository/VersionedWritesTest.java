@@ -0,0 +1,112 @@
+package app.rigsheet.repository;
+
+import app.rigsheet.PostgresTestDatabase;
+import app.rigsheet.TestRigs;
+import app.rigsheet.TestRigs.Dataset;
+import app.rigsheet.TestRigs.Rig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Constraint violations raised by {@link VersionedWrites}' conditional statements
+ * come back as client errors (see Patch.checked), not 500s, and leave the row as it
+ * was. Needs the real Postgres statement, so runs on a {@link PostgresTestDatabase}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIf("app.rigsheet.PostgresTestDatabase#available")
+class VersionedWritesTest {
+
+    private static final long NO_SUCH_ID = 999_999_999L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private TestRigs rigs;
+    private Rig alice;
+    private Rig bob;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @BeforeAll
+    void seed() {
+        rigs = new TestRigs(context);
+        Dataset data = rigs.seed("writes-" + System.nanoTime(), 2, 1);
+        alice = data.rigs().get(0);
+        bob = data.rigs().get(1);
+    }
+
+    @Test
+    void patchingAModOntoAMissingVehicleIsABadRequest() throws Exception {
+        long mod = alice.modIds().get(0);
+        mockMvc.perform(authorized(patch("/api/mods/{id}", mod), "{\"vehicleInfoId\": " + NO_SUCH_ID + "}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(authorized(get("/api/mods/{id}", mod), null))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.vehicleInfoId").value(alice.vehicleId()));
+    }
+
+    @Test
+    void patchingAModOntoAMissingOwnerIsABadRequest() throws Exception {
+        mockMvc.perform(authorized(patch("/api/mods/{id}", alice.modIds().get(0)),
+                        "{\"userProfileId\": " + NO_SUCH_ID + "}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void takingAnotherUsersUsernameIsAConflict() throws Exception {
+        mockMvc.perform(authorized(patch("/api/user-profiles/{id}", bob.userId()),
+                        "{\"username\": \"" + alice.username() + "\"}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/user-profiles/{id}", bob.userId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(bob.username()));
+    }
+
+    @Test
+    void givingAVehicleToAUserWhoHasOneIsAConflict() throws Exception {
+        mockMvc.perform(authorized(patch("/api/vehicles/{id}", bob.vehicleId()),
+                        "{\"userProfileId\": " + alice.userId() + "}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void deletingAVehicleThatStillHasModsIsAConflict() throws Exception {
+        mockMvc.perform(authorized(delete("/api/vehicles/{id}", alice.vehicleId()), null))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/vehicles/user/{id}", alice.userId()))
+                .andExpect(status().isOk());
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request, String json) {
+        request.header(HttpHeaders.AUTHORIZATION, "Bearer " + rigs.token(alice));
+        return json == null ? request : request.contentType(MediaType.APPLICATION_JSON).content(json);
+    }
+}
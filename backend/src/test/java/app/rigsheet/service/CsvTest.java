@@ -0,0 +1,60 @@
+package app.rigsheet.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvTest {
+
+    @Test
+    void recordsRoundTripIncludingLineBreaksInValues() throws IOException {
+        List<List<String>> written = List.of(
+                List.of("name", "reviewUrl", "brand"),
+                List.of("Lift kit\nstage 2", "https://example.com/a\r\nb", "Old\rMan Emu"),
+                List.of("Bumper, \"steel\"", " padded ", ""),
+                List.of("plain", "", "ARB"));
+        StringBuilder csv = new StringBuilder();
+        for (List<String> record : written) {
+            csv.append(Csv.line(record.toArray())).append('\n');
+        }
+
+        List<List<String>> read = new ArrayList<>();
+        Csv.RecordReader records = reader(csv.toString(), 1024);
+        for (String record; (record = records.next()) != null; ) {
+            read.add(Csv.parseRecord(record));
+        }
+        assertThat(read).isEqualTo(written);
+    }
+
+    @Test
+    void reportsTheLineEachRecordStartsOn() throws IOException {
+        Csv.RecordReader records = reader("a\r\n\"b\nc\",d\re\n", 1024);
+        assertThat(records.next()).isEqualTo("a");
+        assertThat(records.line()).isEqualTo(1);
+        assertThat(records.next()).isEqualTo("\"b\nc\",d");
+        assertThat(records.line()).isEqualTo(2);
+        assertThat(records.next()).isEqualTo("e");
+        assertThat(records.line()).isEqualTo(4);
+        assertThat(records.next()).isNull();
+    }
+
+    @Test
+    void anUnbalancedQuoteCostsOneRecordOnceTooLong() throws IOException {
+        Csv.RecordReader records = reader("\"open,1\n" + "x".repeat(40) + "\nnext,2\n", 16);
+        String broken = records.next();
+        assertThatThrownBy(() -> Csv.parseRecord(broken)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(records.next()).isEqualTo("next,2");
+        assertThat(records.line()).isEqualTo(3);
+    }
+
+    private static Csv.RecordReader reader(String text, int maxLength) {
+        return new Csv.RecordReader(new BufferedReader(new StringReader(text)), maxLength);
+    }
+}
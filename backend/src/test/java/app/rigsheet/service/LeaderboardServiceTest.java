@@ -0,0 +1,124 @@
+package app.rigsheet.service;
+
+import app.rigsheet.dto.BrandRank;
+import app.rigsheet.model.VehicleBuildSummary;
+import app.rigsheet.repository.ModificationRepository;
+import app.rigsheet.repository.VehicleBuildSummaryRepository;
+import app.rigsheet.service.BuildSummaryService.Contribution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Brand deltas that commit around a rebuild are counted once, whether the rebuild's
+ * snapshot already saw them or not, and however late their after-commit runs.
+ */
+class LeaderboardServiceTest {
+
+    private static final Long VEHICLE = 7L;
+
+    private final VehicleBuildSummaryRepository summaryRepo = mock(VehicleBuildSummaryRepository.class);
+    private final ModificationRepository modRepo = mock(ModificationRepository.class);
+    private LeaderboardService leaderboards;
+
+    /** What the database holds; a rebuild reads it. */
+    private long modsVersion;
+    private long arbMods;
+
+    @BeforeEach
+    void setUp() {
+        when(summaryRepo.findAllTotals()).thenAnswer(inv -> List.of(totals(modsVersion, arbMods)));
+        when(modRepo.countByCategoryAndBrand()).thenAnswer(inv ->
+                arbMods == 0 ? List.of() : List.of(brandCount("Suspension", "ARB", arbMods)));
+        leaderboards = new LeaderboardService(summaryRepo, modRepo, mock(PlatformTransactionManager.class), 10, 10);
+        leaderboards.load();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void liveDeltasAreCounted() {
+        commitOneArbMod().run();
+        assertThat(leaderboards.topBrands("Suspension", null)).containsExactly(new BrandRank(1, "ARB", 1));
+    }
+
+    @Test
+    void aDeltaTheSnapshotSawIsNotAddedWhenItArrivesDuringTheRebuild() {
+        Runnable afterCommit = commitOneArbMod();
+        when(modRepo.countByCategoryAndBrand()).thenAnswer(inv -> {
+            afterCommit.run();
+            return List.of(brandCount("Suspension", "ARB", arbMods));
+        });
+        leaderboards.rebuild();
+        assertThat(leaderboards.topBrands("Suspension", null)).containsExactly(new BrandRank(1, "ARB", 1));
+    }
+
+    @Test
+    void aDeltaTheSnapshotSawIsNotAddedWhenItArrivesAfterTheRebuild() {
+        Runnable afterCommit = commitOneArbMod();
+        leaderboards.rebuild();
+        afterCommit.run();
+        assertThat(leaderboards.topBrands("Suspension", null)).containsExactly(new BrandRank(1, "ARB", 1));
+    }
+
+    @Test
+    void aDeltaTheSnapshotMissedIsAddedOnTop() {
+        when(modRepo.countByCategoryAndBrand()).thenAnswer(inv -> {
+            // Commits right after the snapshot was taken, and applies before the rebuild swaps in
+            commitOneArbMod().run();
+            return List.of();
+        });
+        leaderboards.rebuild();
+        assertThat(leaderboards.topBrands("Suspension", null)).containsExactly(new BrandRank(1, "ARB", 1));
+    }
+
+    /**
+     * Adds an ARB mod to the vehicle in the "database" and returns the write's
+     * after-commit callback, for the test to run whenever it likes.
+     */
+    private Runnable commitOneArbMod() {
+        modsVersion++;
+        arbMods++;
+        VehicleBuildSummary summary = VehicleBuildSummary.empty(VEHICLE);
+        summary.setModsVersion(modsVersion);
+        summary.setModCount((int) arbMods);
+        leaderboards.afterCommit(List.of(summary), List.of(),
+                List.of(new Contribution(VEHICLE, "Suspension", "ARB", 100, 5)));
+        List<TransactionSynchronization> callbacks = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        return () -> callbacks.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static VehicleBuildSummaryRepository.Totals totals(long modsVersion, long modCount) {
+        return new VehicleBuildSummaryRepository.Totals() {
+            public Long getVehicleInfoId() { return VEHICLE; }
+            public Long getModsVersion() { return modsVersion; }
+            public Integer getModCount() { return (int) modCount; }
+            public Double getTotalCost() { return 100.0 * modCount; }
+            public Double getTotalWeight() { return 5.0 * modCount; }
+        };
+    }
+
+    private static ModificationRepository.BrandCount brandCount(String category, String brand, long mods) {
+        return new ModificationRepository.BrandCount() {
+            public String getCategory() { return category; }
+            public String getBrand() { return brand; }
+            public Long getMods() { return mods; }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package app.rigsheet.service;
+
+import app.rigsheet.TestRigs;
+import app.rigsheet.TestRigs.Rig;
+import app.rigsheet.dto.ModImportReport;
+import app.rigsheet.model.Modification;
+import app.rigsheet.model.UserProfile;
+import app.rigsheet.model.VehicleInfo;
+import app.rigsheet.repository.ModificationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** A CSV export re-imports as the same mods, even with line breaks inside values. */
+@SpringBootTest
+@ActiveProfiles({"dev", "test"})
+class ModCsvRoundTripTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ModImportService importService;
+
+    @Autowired
+    private ModificationRepository modRepo;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void multiLineValuesSurviveExportAndImport() throws IOException {
+        Rig rig = new TestRigs(context).seed("csv-" + System.nanoTime(), 1, 0).first();
+        tx.executeWithoutResult(status -> modRepo.save(Modification.builder()
+                .name("Lift kit\nstage 2")
+                .brand("Old\rMan Emu")
+                .category("Suspension")
+                .reviewUrl("https://example.com/review\r\nnotes, \"long\"")
+                .cost(1200.0)
+                .userProfile(em.getReference(UserProfile.class, rig.userId()))
+                .vehicleInfo(em.getReference(VehicleInfo.class, rig.vehicleId()))
+                .build()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportMods(DataFormat.CSV, out);
+        String csv = onlyVehicle(out.toString(StandardCharsets.UTF_8), rig.vehicleId());
+
+        ModImportReport report = importService.importMods(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), DataFormat.CSV, null);
+        assertThat(report.failed()).isZero();
+        assertThat(report.imported()).isEqualTo(1);
+
+        List<Map<String, Object>> mods = jdbc.queryForList(
+                "select name, brand, category, review_url from modification where vehicle_info_id = ? order by id",
+                rig.vehicleId());
+        assertThat(mods).hasSize(2);
+        assertThat(mods.get(1)).isEqualTo(mods.get(0));
+    }
+
+    /** The header plus the exported records of one vehicle (the context's database is shared). */
+    private static String onlyVehicle(String csv, long vehicleId) throws IOException {
+        Csv.RecordReader records = new Csv.RecordReader(new BufferedReader(new StringReader(csv)), 64 * 1024);
+        String header = records.next();
+        int column = Csv.parseRecord(header).indexOf("vehicle_info_id");
+        StringBuilder kept = new StringBuilder(header).append('\n');
+        for (String record; (record = records.next()) != null; ) {
+            if (Csv.parseRecord(record).get(column).equals(String.valueOf(vehicleId))) {
+                kept.append(record).append('\n');
+            }
+        }
+        return kept.toString();
+    }
+}
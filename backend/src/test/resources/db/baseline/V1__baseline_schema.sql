@@ -0,0 +1,39 @@
+-- The schema as it stood before Flyway took over (production baselines at version 1,
+-- see spring.flyway.baseline-version), so tests can migrate an empty Postgres
+-- from scratch. Test-only: never shipped, never applied to a real database.
+
+CREATE TABLE user_profile (
+  id                bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  username          varchar(255) NOT NULL UNIQUE,
+  display_name      varchar(255),
+  bio               varchar(500),
+  profile_image_url varchar(255),
+  location          varchar(255)
+);
+
+CREATE TABLE vehicle_info (
+  id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  vehicle_year    varchar(255),
+  make            varchar(255),
+  model           varchar(255),
+  trim            varchar(255),
+  color           varchar(255),
+  nickname        varchar(255),
+  image_url       varchar(255),
+  user_profile_id bigint UNIQUE REFERENCES user_profile (id)
+);
+
+CREATE TABLE modification (
+  id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name            varchar(255),
+  category        varchar(255),
+  brand           varchar(255),
+  sponsored       boolean NOT NULL DEFAULT false,
+  review_url      varchar(255),
+  cost            double precision,
+  weight          double precision,
+  image_url       varchar(255),
+  user_id         bigint,
+  user_profile_id bigint REFERENCES user_profile (id),
+  vehicle_info_id bigint REFERENCES vehicle_info (id)
+);
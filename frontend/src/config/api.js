@@ -7,6 +7,7 @@ export const API_BASE = (process.env.REACT_APP_API_BASE || DEFAULT_BASE).replace
 export const endpoints = {
   // --- auth ---
   login: () => `${API_BASE}/api/auth/login`,
+  refresh: () => `${API_BASE}/api/auth/refresh`,
 
   // --- public reads ---
   userProfileById: (id)        => `${API_BASE}/api/user-profiles/${id}`,
@@ -55,14 +56,51 @@ async function parseJsonSafe(res) {
   try { return JSON.parse(text); } catch { return { message: text }; }
 }
 
+/**
+ * Exchange the stored refresh token for a new access token.
+ * Refresh tokens are single use, so concurrent callers share one request.
+ * Resolves to the new access token, or null if the session can't be renewed.
+ */
+let refreshInFlight = null;
+function refreshAccessToken() {
+  if (!refreshInFlight) {
+    refreshInFlight = (async () => {
+      try {
+        const saved = JSON.parse(localStorage.getItem('rigsheet_auth') || 'null');
+        if (!saved?.refreshToken) return null;
+        const res = await apiFetch(endpoints.refresh(), {
+          method: 'POST',
+          body: { refreshToken: saved.refreshToken },
+        });
+        if (!res.ok) return null;
+        const { token, refreshToken } = await res.json();
+        localStorage.setItem('rigsheet_auth', JSON.stringify({ ...saved, token, refreshToken }));
+        useAppStore.setState({ token });
+        return token;
+      } catch {
+        return null;
+      } finally {
+        refreshInFlight = null;
+      }
+    })();
+  }
+  return refreshInFlight;
+}
+
 /**
  * JSON wrapper:
  *  - Uses apiFetch
- *  - On 401 Unauthorized: auto-logout and redirect to /login
+ *  - On 401 Unauthorized: one silent refresh + retry, then auto-logout and redirect to /login
  *  - Throws Error with message + status on non-2xx
  */
 export async function apiFetchJson(url, opts = {}) {
-  const res = await apiFetch(url, opts);
+  let res = await apiFetch(url, opts);
+
+  // Access tokens are short-lived: renew once and retry
+  if (res.status === 401 && opts.token) {
+    const token = await refreshAccessToken();
+    if (token) res = await apiFetch(url, { ...opts, token });
+  }
 
   // Auto-logout on 401 (token expired/invalid)
   if (res.status === 401) {
@@ -41,16 +41,16 @@ const useAppStore = create((set, get) => ({
   },
 
   /**
-   * POST /api/auth/login → { token, user }
-   * Persists token+user and updates store.
+   * POST /api/auth/login → { token, refreshToken, user }
+   * Persists token+refreshToken+user and updates store.
    */
   login: async (username, password) => {
-    const { token, user } = await apiFetchJson(endpoints.login(), {
+    const { token, refreshToken, user } = await apiFetchJson(endpoints.login(), {
       method: 'POST',
       body: { username, password },
     });
 
-    localStorage.setItem('rigsheet_auth', JSON.stringify({ token, user }));
+    localStorage.setItem('rigsheet_auth', JSON.stringify({ token, refreshToken, user }));
     set({ token, currentUser: user, userId: String(user.id ?? '1') });
 
     return user;